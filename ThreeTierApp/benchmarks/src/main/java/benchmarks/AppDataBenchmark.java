@@ -0,0 +1,182 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import businesslayer.AppData;
+import businesslayer.Person;
+import datalayer.DeleteResult;
+import datalayer.EmbeddedPersonRepository;
+import datalayer.SearchMode;
+
+/**
+ * Measures the AppData middleware end to end: inserting, searching, reading
+ * by id, reading the whole table and deleting. The embedded repository
+ * stands in for MySQL, with its log turned off, so the numbers cover the
+ * middleware and storage code rather than the network and disk.
+ *
+ * Searches are measured both through AppData, whose cache answers repeated
+ * searches, and straight against a repository, which scans every time. Full
+ * reads are measured both from the repository and from a memory mapped
+ * snapshot.
+ *
+ * Every benchmark method runs in its own JVM, so the table each one sees
+ * holds exactly the number of people given by the rows parameter.
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "-Dcms.repository=embedded", "-Dcms.embedded.log=none" })
+public class AppDataBenchmark {
+
+	/**
+	 * The names searched for, each matching a share of the table.
+	 */
+	private static final String[] SEARCH_TERMS = { "Alice", "Bob", "Carol", "David", "Erin" };
+
+	/**
+	 * How the terms are matched, the same with and without the cache so the
+	 * two select benchmarks run the same query.
+	 */
+	private static final SearchMode SEARCH_MODE = SearchMode.SUBSTRING;
+
+	/**
+	 * AppData loaded with the generated people.
+	 */
+	@State(Scope.Benchmark)
+	public static class Table {
+
+		@Param({ "1000", "10000", "100000" })
+		private int rows;
+
+		private AppData appData;
+		private int[] ids;
+
+		@Setup
+		public void setUp() {
+			appData = AppData.getAppData();
+			List<Person> people = BenchmarkData.people(rows);
+			appData.insertPeople(people);
+
+			ids = new int[people.size()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = people.get(i).getId();
+			}
+		}
+	}
+
+	/**
+	 * A repository holding the same people, read without AppData's cache.
+	 */
+	@State(Scope.Benchmark)
+	public static class UncachedTable {
+
+		@Param({ "1000", "10000", "100000" })
+		private int rows;
+
+		private EmbeddedPersonRepository repository;
+
+		@Setup
+		public void setUp() throws SQLException {
+			repository = new EmbeddedPersonRepository(null);
+			repository.initializeSchema();
+			repository.insertPeople(BenchmarkData.people(rows));
+		}
+	}
+
+	/**
+	 * Switches AppData's full reads over to a snapshot of the table.
+	 */
+	@State(Scope.Benchmark)
+	public static class Snapshot {
+
+		private Path file;
+
+		@Setup
+		public void setUp(Table table) throws IOException {
+			file = Files.createTempFile("people", ".snapshot");
+			Files.delete(file);
+			table.appData.useSnapshot(file);
+		}
+
+		@TearDown
+		public void tearDown() throws IOException {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	/**
+	 * Walks each thread through the ids and search terms in turn.
+	 */
+	@State(Scope.Thread)
+	public static class Cursor {
+
+		private int next;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			next = 0;
+		}
+
+		private int nextIndex(int length) {
+			int index = next % length;
+			next++;
+			return index;
+		}
+	}
+
+	@Benchmark
+	public DeleteResult insertThenDelete(Table table) {
+		Person person = new Person("Benchmark Person", "benchmark@example.com", "(555)555-5555");
+		table.appData.insertPerson(person);
+		return table.appData.deletePerson(person.getId());
+	}
+
+	@Benchmark
+	public List<Person> selectCached(Table table, Cursor cursor) {
+		return table.appData.selectPerson(SEARCH_TERMS[cursor.nextIndex(SEARCH_TERMS.length)], SEARCH_MODE);
+	}
+
+	@Benchmark
+	public List<Person> selectUncached(UncachedTable table, Cursor cursor) throws SQLException {
+		return table.repository.selectPerson(SEARCH_TERMS[cursor.nextIndex(SEARCH_TERMS.length)], SEARCH_MODE);
+	}
+
+	@Benchmark
+	public Person findPerson(Table table, Cursor cursor) {
+		return table.appData.findPerson(table.ids[cursor.nextIndex(table.ids.length)]);
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<Person> findAllPeople(Table table) {
+		return table.appData.findAllPeople();
+	}
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public List<Person> findAllPeopleFromSnapshot(Table table, Snapshot snapshot) {
+		return table.appData.findAllPeople();
+	}
+
+}
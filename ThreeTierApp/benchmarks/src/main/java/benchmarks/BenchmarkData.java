@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import businesslayer.Person;
+
+/**
+ * BenchmarkData generates the people and phone numbers the benchmarks work
+ * on. A fixed seed is used so that every run, and every release being
+ * compared, measures the same data.
+ *
+ */
+public class BenchmarkData {
+
+	private static final long SEED = 20180101L;
+
+	private static final String[] FIRST_NAMES = { "Alice", "Bob", "Carol", "David", "Erin", "Frank", "Grace",
+			"Heidi", "Ivan", "Judy", "Mallory", "Niaj", "Olivia", "Peggy", "Rupert", "Sybil", "Trent", "Victor",
+			"Walter", "Zoë" };
+
+	private static final String[] LAST_NAMES = { "Anderson", "Brown", "Clark", "Davis", "Evans", "Garcia", "Harris",
+			"Jackson", "Johnson", "Lewis", "Martin", "Miller", "Moore", "Robinson", "Smith", "Taylor", "Thomas",
+			"Thompson", "White", "Wilson" };
+
+	private BenchmarkData() {
+
+	}
+
+	/**
+	 * Generates people with varied names, an email address and a phone
+	 * number in one of the formats users type.
+	 *
+	 * @param count
+	 *            how many people to generate
+	 * @return the people, without ids
+	 */
+	public static List<Person> people(int count) {
+		Random random = new Random(SEED);
+		List<Person> people = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+			String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+			String name = first + " " + last + " " + i;
+			String email = first.toLowerCase() + "." + last.toLowerCase() + i + "@example.com";
+			people.add(new Person(name, email, phoneNumber(random)));
+		}
+		return people;
+	}
+
+	/**
+	 * Generates phone numbers as users type them. Roughly one in ten is
+	 * invalid.
+	 *
+	 * @param count
+	 *            how many numbers to generate
+	 * @return the raw numbers
+	 */
+	public static String[] phoneNumbers(int count) {
+		Random random = new Random(SEED);
+		String[] numbers = new String[count];
+		for (int i = 0; i < count; i++) {
+			numbers[i] = random.nextInt(10) == 0 ? "555-55" + random.nextInt(100) : phoneNumber(random);
+		}
+		return numbers;
+	}
+
+	private static String phoneNumber(Random random) {
+		int area = 200 + random.nextInt(800);
+		int exchange = 200 + random.nextInt(800);
+		int line = random.nextInt(10000);
+		switch (random.nextInt(4)) {
+		case 0:
+			return String.format("(%03d)%03d-%04d", area, exchange, line);
+		case 1:
+			return String.format("%03d-%03d-%04d", area, exchange, line);
+		case 2:
+			return String.format("1 %03d %03d %04d", area, exchange, line);
+		default:
+			return String.format("%03d-%04d", exchange, line);
+		}
+	}
+
+}
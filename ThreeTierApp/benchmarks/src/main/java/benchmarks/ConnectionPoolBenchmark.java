@@ -0,0 +1,120 @@
+package benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import datalayer.ConnectionPool;
+
+/**
+ * Compares running a query on a connection borrowed from the
+ * ConnectionPool with opening a new connection for every query, as the
+ * application did before the pool existed. An in-memory H2 database stands
+ * in for MySQL, so the difference measured is the cost of the connection
+ * handling itself; against a remote server opening a connection also costs
+ * network round trips and authentication.
+ *
+ * The pool is measured with several threads competing for fewer
+ * connections than there are threads. Prepared statements are measured with
+ * the pool's statement cache turned off and on.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ConnectionPoolBenchmark {
+
+	private static final String URL = "jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1";
+
+	@Param({ "2", "10" })
+	private int maxPoolSize;
+
+	@Param({ "0", "50" })
+	private int statementCacheSize;
+
+	private ConnectionPool pool;
+
+	@Setup
+	public void setUp() {
+		pool = new ConnectionPool(URL, "sa", "", 1, maxPoolSize, 300000, 10000, 0, statementCacheSize);
+	}
+
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public int pooled() throws SQLException {
+		Connection conn = pool.borrow();
+		try {
+			return selectOne(conn);
+		} finally {
+			conn.close();
+		}
+	}
+
+	@Benchmark
+	public int pooledPrepared() throws SQLException {
+		Connection conn = pool.borrow();
+		try {
+			PreparedStatement statement = conn.prepareStatement("select ? + 1");
+			try {
+				statement.setInt(1, 41);
+				ResultSet rs = statement.executeQuery();
+				rs.next();
+				int answer = rs.getInt(1);
+				rs.close();
+				return answer;
+			} finally {
+				statement.close();
+			}
+		} finally {
+			conn.close();
+		}
+	}
+
+	@Benchmark
+	public int unpooled() throws SQLException {
+		Connection conn = DriverManager.getConnection(URL, "sa", "");
+		try {
+			return selectOne(conn);
+		} finally {
+			conn.close();
+		}
+	}
+
+	private static int selectOne(Connection conn) throws SQLException {
+		Statement statement = conn.createStatement();
+		try {
+			ResultSet rs = statement.executeQuery("select 1");
+			rs.next();
+			return rs.getInt(1);
+		} finally {
+			statement.close();
+		}
+	}
+
+}
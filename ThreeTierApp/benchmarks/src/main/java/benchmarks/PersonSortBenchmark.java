@@ -0,0 +1,85 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import businesslayer.Person;
+import businesslayer.PersonSorter;
+
+/**
+ * Measures sorting a list of people by name with
+ * Person.PersonNameComparator, as the client does before showing a result,
+ * against PersonSorter's precomputed keys, both by character and in a
+ * locale's order. Each invocation sorts a fresh copy of the same shuffled
+ * list.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonSortBenchmark {
+
+	@Param({ "1000", "10000", "100000" })
+	private int rows;
+
+	private List<Person> people;
+
+	private final PersonSorter byName = PersonSorter.by(PersonSorter.Field.NAME);
+	private final PersonSorter byNameEmailId = byName.thenBy(PersonSorter.Field.EMAIL)
+			.thenBy(PersonSorter.Field.ID);
+	private final PersonSorter byNameForLocale = PersonSorter.by(Locale.ROOT, PersonSorter.Field.NAME);
+
+	@Setup
+	public void setUp() {
+		people = BenchmarkData.people(rows);
+		Collections.shuffle(people, new Random(rows));
+	}
+
+	@Benchmark
+	public List<Person> sortByName() {
+		List<Person> copy = new ArrayList<>(people);
+		Collections.sort(copy, Person.PersonNameComparator);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Person> sortByNameWithPrefixKeys() {
+		List<Person> copy = new ArrayList<>(people);
+		byName.sort(copy);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Person> sortByNameEmailIdWithPrefixKeys() {
+		List<Person> copy = new ArrayList<>(people);
+		byNameEmailId.sort(copy);
+		return copy;
+	}
+
+	@Benchmark
+	public List<Person> sortByNameWithCollationKeys() {
+		List<Person> copy = new ArrayList<>(people);
+		byNameForLocale.sort(copy);
+		return copy;
+	}
+
+}
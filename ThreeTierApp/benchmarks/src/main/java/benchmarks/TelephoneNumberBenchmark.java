@@ -0,0 +1,64 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import businesslayer.InvalidTelephoneException;
+import businesslayer.NormalizationResult;
+import businesslayer.PhoneNumberNormalizer;
+import businesslayer.TelephoneNumber;
+
+/**
+ * Measures parsing telephone numbers: the TelephoneNumber constructor used
+ * when a person is entered, and bulk normalization, which uses the
+ * allocation free parser and runs in parallel above a size threshold. The
+ * smaller size is normalized on one thread and the larger one in parallel.
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TelephoneNumberBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int numbers;
+
+	private String[] rawNumbers;
+
+	@Setup
+	public void setUp() {
+		rawNumbers = BenchmarkData.phoneNumbers(numbers);
+	}
+
+	@Benchmark
+	public void construct(Blackhole blackhole) {
+		for (String raw : rawNumbers) {
+			try {
+				blackhole.consume(new TelephoneNumber(raw).toString());
+			} catch (InvalidTelephoneException e) {
+				blackhole.consume(e);
+			}
+		}
+	}
+
+	@Benchmark
+	public NormalizationResult normalize() {
+		return PhoneNumberNormalizer.normalize(rawNumbers);
+	}
+
+}
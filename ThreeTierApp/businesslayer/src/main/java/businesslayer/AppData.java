@@ -0,0 +1,1026 @@
+package businesslayer;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import datalayer.DeleteResult;
+import datalayer.PersonPage;
+import datalayer.PersonQuery;
+import datalayer.PersonRepositories;
+import datalayer.PersonRepository;
+import datalayer.QueryCancellation;
+import datalayer.SearchMode;
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * AppData is a middleware designed to allow users interaction with the database
+ * without allowing them to utilize the database directly.
+ * 
+ * When the database cannot be reached, the blocking methods log the error to
+ * the threetierapp.appdata logger and return an empty result, while the futures of the asynchronous
+ * methods complete exceptionally with the SQLException as their cause.
+ *
+ */
+public class AppData {
+
+	/**
+	 * Recently read people and search results, so repeated lookups do not go
+	 * back to the database.
+	 */
+	private final PersonCache cache = new PersonCache(1000, 60000);
+
+	/**
+	 * The executor the asynchronous methods run on.
+	 */
+	private volatile Executor executor = AppExecutors.defaultExecutor();
+
+	/**
+	 * The memory mapped copy of the Person table that full reads are served
+	 * from, or null if reads go to the database.
+	 */
+	private volatile PersonSnapshot snapshot;
+
+	/**
+	 * The queue inserts are written behind through, or null if each insert
+	 * is written straight away.
+	 */
+	private volatile WriteBehindInserter writeBehind;
+
+	/**
+	 * The system properties that switch write-behind on when AppData is
+	 * created. Write-behind stays off unless a capacity is given.
+	 */
+	public static final String WRITE_BEHIND_CAPACITY_PROPERTY = "cms.writeBehind.capacity";
+	public static final String WRITE_BEHIND_BATCH_SIZE_PROPERTY = "cms.writeBehind.maxBatchSize";
+	public static final String WRITE_BEHIND_DELAY_PROPERTY = "cms.writeBehind.maxDelayMillis";
+
+	/**
+	 * The index of everyone in the database by their duplicate blocking
+	 * keys, or null until a duplicate check first needs it. It is set before
+	 * it is loaded, so that people inserted and deleted meanwhile are
+	 * indexed, and only handed out once duplicatesLoaded is true.
+	 */
+	private volatile DuplicateDetector duplicates;
+	private volatile boolean duplicatesLoaded;
+
+	/**
+	 * Held while the duplicate index loads, so it is loaded by one thread at
+	 * a time without blocking anything else synchronized on AppData.
+	 */
+	private final Object duplicatesLock = new Object();
+
+	/**
+	 * People deleted while the duplicate index loads. The load may have read
+	 * them before they were deleted, so they are removed again afterwards.
+	 */
+	private final Set<Integer> deletedWhileLoading = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * How many new people are read per round trip when a snapshot catches up
+	 * with the database.
+	 */
+	private static final int SNAPSHOT_PAGE_SIZE = 1000;
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.appdata");
+
+	/**
+	 * How long each operation takes as the caller sees it, cache hits
+	 * included. Compared with the repository.* and sql.* timers they show
+	 * how much of a slow call was spent in the database.
+	 */
+	private static final Timer INSERT_PERSON = Metrics.timer("appdata.insertPerson");
+	private static final Timer INSERT_PEOPLE = Metrics.timer("appdata.insertPeople");
+	private static final Timer SELECT_PERSON = Metrics.timer("appdata.selectPerson");
+	private static final Timer FIND_PERSON = Metrics.timer("appdata.findPerson");
+	private static final Timer FIND_ALL_PEOPLE = Metrics.timer("appdata.findAllPeople");
+	private static final Timer FIND_PEOPLE_PAGE = Metrics.timer("appdata.findPeoplePage");
+	private static final Timer FIND_PEOPLE = Metrics.timer("appdata.findPeople");
+	private static final Timer FOR_EACH_PERSON = Metrics.timer("appdata.forEachPerson");
+	private static final Timer DELETE_PERSON = Metrics.timer("appdata.deletePerson");
+	private static final Timer DELETE_PEOPLE = Metrics.timer("appdata.deletePeople");
+	private static final Timer INSERT_PERSON_IF_UNIQUE = Metrics.timer("appdata.insertPersonIfUnique");
+	private static final Timer FIND_DUPLICATE_PEOPLE = Metrics.timer("appdata.findDuplicatePeople");
+
+	/**
+	 * Where people are stored, chosen by PersonRepositories from the system
+	 * properties: the MySQL database by default, or the embedded engine.
+	 */
+	private final PersonRepository repository = PersonRepositories.fromConfiguration();
+
+	/**
+	 * Whether the database schema has been brought up to date. The schema is
+	 * only bootstrapped once; later calls to getAppData() do not touch the
+	 * database or take a lock.
+	 */
+	private static volatile boolean schemaInitialized = false;
+
+	/**
+	 * Holds the AppData instance that must be created only once. The class
+	 * loader creates it the first time getAppData() is called and guarantees
+	 * every thread sees it fully constructed.
+	 */
+	private static class Holder {
+		private static final AppData INSTANCE = new AppData();
+	}
+
+	/**
+	 * Default constructor for AppData Object. Registers the gauges that
+	 * report on the cache and the write-behind queue, and switches
+	 * write-behind on if it is configured.
+	 */
+	private AppData() {
+		Metrics.gauge("cache.hitRate", () -> getCacheStats().getHitRate());
+		Metrics.gauge("cache.size", () -> getCacheStats().getSize());
+		Metrics.gauge("writeBehind.queued", () -> {
+			WriteBehindInserter queue = writeBehind;
+			return queue == null ? 0 : queue.getQueuedCount();
+		});
+
+		int capacity = Integer.getInteger(WRITE_BEHIND_CAPACITY_PROPERTY, 0);
+		if (capacity > 0) {
+			writeBehind = new WriteBehindInserter(this, capacity, Integer.getInteger(WRITE_BEHIND_BATCH_SIZE_PROPERTY, 500),
+					Long.getLong(WRITE_BEHIND_DELAY_PROPERTY, 50));
+		}
+	}
+
+	/**
+	 * Returns the AppData instance. The first call also creates the database
+	 * and applies any pending schema migrations; if that fails it is retried
+	 * on the next call. Once the schema is in place this method makes no
+	 * database round trips.
+	 * 
+	 * AppData is safe to share between threads. Every method returns a list
+	 * of its own, so callers never see each other's results.
+	 * 
+	 * @return The AppData Object being instantiated.
+	 */
+	public static AppData getAppData() {
+		if (!schemaInitialized) {
+			initializeSchema();
+		}
+		return Holder.INSTANCE;
+	}
+
+	/**
+	 * Bootstraps the schema on the first thread to get here; threads that
+	 * arrive while it runs wait for it instead of running it again.
+	 */
+	private static synchronized void initializeSchema() {
+		if (schemaInitialized) {
+			return;
+		}
+		try {
+			Holder.INSTANCE.repository.initializeSchema();
+			schemaInitialized = true;
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to create the database schema", e);
+		}
+	}
+
+	/**
+	 * Inserts a person into the first empty row with a unique identity key. The
+	 * identity key is set by the database and is not alterable by the user.
+	 * 
+	 * In write-behind mode the person is only queued, and receives their
+	 * identity key when their batch is written. A person whose batch fails
+	 * is counted as a failed insert once the failure is known, and the next
+	 * flush() throws it.
+	 * 
+	 * @param person
+	 *            The Person object being called
+	 */
+	public void insertPerson(Person person) {
+
+		long start = INSERT_PERSON.start();
+		try {
+			CompletableFuture<Person> queued = queueBehind(person);
+			if (queued != null) {
+				queued.whenComplete((written, failure) -> {
+					if (failure != null) {
+						INSERT_PERSON.fail();
+					}
+				});
+				return;
+			}
+
+			try {
+				insertNow(person);
+			} catch (SQLException e) {
+				INSERT_PERSON.fail();
+				LOG.log(Level.WARNING, "Unable to insert a person", e);
+			}
+		} finally {
+			INSERT_PERSON.stop(start);
+		}
+	}
+
+	private void insertNow(Person person) throws SQLException {
+		repository.insertPerson(person);
+		inserted(person);
+	}
+
+	/**
+	 * Queues a person on the write-behind inserter, if there is one. An
+	 * inserter can be closed by enableWriteBehind() or disableWriteBehind()
+	 * between reading the field and submitting to it; both replace the field
+	 * before closing the old inserter, so the field is read again until the
+	 * person is queued or write-behind turns out to be off.
+	 * 
+	 * @param person
+	 *            the person to queue
+	 * @return the future of the queued person, or null if the caller must
+	 *         insert them straight away
+	 */
+	private CompletableFuture<Person> queueBehind(Person person) {
+		WriteBehindInserter queue = writeBehind;
+		while (queue != null) {
+			try {
+				return queue.submit(person);
+			} catch (IllegalStateException e) {
+				WriteBehindInserter current = writeBehind;
+				if (current == queue) {
+					// Closed without being replaced; write straight away.
+					return null;
+				}
+				queue = current;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Inserts a collection of people in JDBC batches within a single
+	 * transaction. Each Person receives the identity key generated for it.
+	 * 
+	 * @param newPeople
+	 *            the Person objects being inserted
+	 * @return the number of people inserted
+	 */
+	public int insertPeople(Collection<Person> newPeople) {
+
+		try {
+			return time(INSERT_PEOPLE, () -> storePeople(newPeople));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to insert people", e);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Inserts people in one transaction and records them in the cache and
+	 * snapshot, reporting failure to the caller.
+	 */
+	int storePeople(Collection<Person> newPeople) throws SQLException {
+		int inserted = repository.insertPeople(newPeople);
+		for (Person person : newPeople) {
+			inserted(person);
+		}
+		return inserted;
+	}
+
+	/**
+	 * Records a newly stored person in the cache, the snapshot and the
+	 * duplicate index.
+	 */
+	private void inserted(Person person) {
+		cache.onInsert(person);
+		PersonSnapshot current = snapshot;
+		if (current != null) {
+			current.applyInsert(person);
+		}
+		DuplicateDetector detector = duplicates;
+		if (detector != null) {
+			detector.add(person);
+		}
+	}
+
+	/**
+	 * Forgets a deleted person in the cache, the snapshot and the duplicate
+	 * index.
+	 */
+	private void deleted(DeleteResult result) {
+		cache.onDelete(result.getId());
+		if (!result.isDeleted()) {
+			return;
+		}
+		PersonSnapshot current = snapshot;
+		if (current != null) {
+			current.applyDelete(result.getId());
+		}
+		DuplicateDetector detector = duplicates;
+		if (detector != null) {
+			// Noted before removing, so the loader cannot miss it.
+			if (!duplicatesLoaded) {
+				deletedWhileLoading.add(result.getId());
+			}
+			detector.remove(result.getId());
+		}
+	}
+
+	/**
+	 * Inserts a person unless they duplicate someone already in the
+	 * database: someone with the same email address, or with the same phone
+	 * number and a name that sounds the same. The check is a lookup in an
+	 * in-memory index, which is loaded from the database the first time it
+	 * is needed. Unique inserts are made one at a time, so two people
+	 * entered at once cannot both get past the check.
+	 * 
+	 * The person is written straight away even in write-behind mode, and
+	 * people added to the database by other applications after the index
+	 * was loaded are not checked against.
+	 * 
+	 * @param person
+	 *            The Person object being inserted
+	 * @return whether the person was inserted, or whom they duplicate
+	 */
+	public InsertResult insertPersonIfUnique(Person person) {
+
+		try {
+			return time(INSERT_PERSON_IF_UNIQUE, () -> insertIfUnique(person));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to insert a person", e);
+		}
+
+		return new InsertResult(person, false, Collections.<Integer> emptyList());
+	}
+
+	private InsertResult insertIfUnique(Person person) throws SQLException {
+		DuplicateDetector detector = getDuplicateDetector();
+		synchronized (detector) {
+			List<Integer> found = detector.findDuplicates(person);
+			if (!found.isEmpty()) {
+				return new InsertResult(person, false, found);
+			}
+			insertNow(person);
+			return new InsertResult(person, true, Collections.<Integer> emptyList());
+		}
+	}
+
+	/**
+	 * Returns the index of everyone in the database by their duplicate
+	 * blocking keys, loading it on first use. Inserts and deletes made
+	 * through AppData keep it up to date. If the load fails, the next call
+	 * loads it again.
+	 * 
+	 * @return the duplicate index
+	 * @throws SQLException
+	 *             if the database could not be read
+	 */
+	public DuplicateDetector getDuplicateDetector() throws SQLException {
+		if (duplicatesLoaded) {
+			return duplicates;
+		}
+		synchronized (duplicatesLock) {
+			if (duplicatesLoaded) {
+				return duplicates;
+			}
+			DuplicateDetector detector = new DuplicateDetector();
+			deletedWhileLoading.clear();
+			duplicates = detector;
+			boolean loaded = false;
+			try {
+				repository.forEachPerson(detector::add);
+				for (int id : deletedWhileLoading) {
+					detector.remove(id);
+				}
+				duplicatesLoaded = true;
+				loaded = true;
+			} finally {
+				if (!loaded) {
+					duplicates = null;
+				}
+			}
+			return detector;
+		}
+	}
+
+	/**
+	 * Reads the whole Person table and finds every group of people entered
+	 * more than once, using all cores. Nothing is compared with everyone
+	 * else, so this takes time in proportion to the size of the table.
+	 * 
+	 * @return the groups of duplicates
+	 */
+	public DuplicateReport findDuplicatePeople() {
+
+		long start = FIND_DUPLICATE_PEOPLE.start();
+		try {
+			List<Person> everyone = new ArrayList<>();
+			forEachPerson(everyone::add);
+			return DuplicateDetector.report(everyone);
+		} finally {
+			FIND_DUPLICATE_PEOPLE.stop(start);
+		}
+	}
+
+	/**
+	 * Switches insertPerson() to write-behind mode: people are queued and
+	 * written by a background thread in batches of up to maxBatchSize, one
+	 * transaction per batch, at most maxDelayMillis after they were queued.
+	 * When the queue is full, inserting waits for room. Any earlier queue is
+	 * flushed and replaced. The cms.writeBehind.* system properties do the
+	 * same when AppData is created.
+	 * 
+	 * @param capacity
+	 *            the most people that may wait to be written
+	 * @param maxBatchSize
+	 *            the most people written in one transaction
+	 * @param maxDelayMillis
+	 *            the longest a person waits before being written
+	 * @throws SQLException
+	 *             if a batch the earlier queue held since its last flush
+	 *             failed to be written; the new queue is in place regardless
+	 */
+	public synchronized void enableWriteBehind(int capacity, int maxBatchSize, long maxDelayMillis)
+			throws SQLException {
+		WriteBehindInserter replacement = new WriteBehindInserter(this, capacity, maxBatchSize, maxDelayMillis);
+		WriteBehindInserter previous = writeBehind;
+		writeBehind = replacement;
+		if (previous != null) {
+			previous.close();
+		}
+	}
+
+	/**
+	 * Writes everyone still queued and goes back to writing each insert
+	 * straight away.
+	 * 
+	 * @throws SQLException
+	 *             if a batch queued since the last flush failed to be written
+	 */
+	public synchronized void disableWriteBehind() throws SQLException {
+		WriteBehindInserter previous = writeBehind;
+		writeBehind = null;
+		if (previous != null) {
+			previous.close();
+		}
+	}
+
+	/**
+	 * Whether inserts are currently queued and written behind rather than
+	 * written straight away.
+	 * 
+	 * @return true in write-behind mode
+	 */
+	public boolean isWriteBehindEnabled() {
+		return writeBehind != null;
+	}
+
+	/**
+	 * Waits until every person queued in write-behind mode has been written.
+	 * Returns at once when write-behind is off.
+	 * 
+	 * @throws SQLException
+	 *             if a batch queued since the last flush failed to be
+	 *             written; the people in it were not inserted
+	 */
+	public void flush() throws SQLException {
+		WriteBehindInserter queue = writeBehind;
+		if (queue != null) {
+			queue.flush();
+		}
+	}
+
+	/**
+	 * Selects the rows from the Person table whose name contains the search
+	 * term and creates usable Person objects in the application structure.
+	 * 
+	 * @param name
+	 *            The data we wish to select from the database
+	 * 
+	 */
+	public List<Person> selectPerson(String name) {
+		return selectPerson(name, SearchMode.SUBSTRING);
+	}
+
+	/**
+	 * Selects the rows from the Person table whose name matches the search
+	 * term and creates usable Person objects in the application structure.
+	 * 
+	 * @param name
+	 *            The data we wish to select from the database
+	 * @param mode
+	 *            Whether the name must start with or only contain the term
+	 * 
+	 */
+	public List<Person> selectPerson(String name, SearchMode mode) {
+
+		try {
+			return time(SELECT_PERSON, () -> search(name, mode));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to search for people", e);
+		}
+
+		return Collections.emptyList();
+	}
+
+	private List<Person> search(String name, SearchMode mode) throws SQLException {
+		List<Person> cached = cache.getSearch(name, mode);
+		if (cached != null) {
+			return cached;
+		}
+
+		long generation = cache.getGeneration();
+		return cache.putSearch(name, mode, repository.selectPerson(name, mode), generation);
+	}
+
+	/**
+	 * Selects a single person by their distinct ID number, serving them from
+	 * the cache when they were read recently.
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record
+	 * @return the person, or null if no record has that ID
+	 */
+	public Person findPerson(int id) {
+
+		try {
+			return time(FIND_PERSON, () -> lookUp(id));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to find a person", e);
+		}
+
+		return null;
+	}
+
+	private Person lookUp(int id) throws SQLException {
+		Person person = cache.getPerson(id);
+		if (person != null) {
+			return person;
+		}
+
+		PersonSnapshot current = snapshot;
+		if (current != null) {
+			return current.findById(id);
+		}
+
+		long generation = cache.getGeneration();
+		person = repository.findPersonById(id);
+		if (person != null) {
+			cache.putPerson(person, generation);
+		}
+		return person;
+	}
+
+	/**
+	 * Creates a usable Array List of Person Objects from the Person table in
+	 * the database, or from the snapshot when one is in use.
+	 * 
+	 */
+	public List<Person> findAllPeople() {
+
+		try {
+			return time(FIND_ALL_PEOPLE, this::readAll);
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to read the Person table", e);
+		}
+
+		return Collections.emptyList();
+	}
+
+	private List<Person> readAll() throws SQLException {
+		PersonSnapshot current = snapshot;
+		if (current != null) {
+			return current.toList();
+		}
+		return Collections.unmodifiableList(repository.findAllPeople());
+	}
+
+	/**
+	 * Retrieves one page of people in id order. Pass null for the first page
+	 * and the page's next cursor for each page after it.
+	 * 
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page, which is empty if the page could not be read
+	 */
+	public PersonPage findPeoplePage(String cursor, int pageSize) {
+
+		try {
+			return time(FIND_PEOPLE_PAGE, () -> repository.findPeoplePage(cursor, pageSize));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to read a page of people", e);
+		}
+
+		return new PersonPage(new ArrayList<Person>(), null);
+	}
+
+	/**
+	 * Retrieves one page of the people a query finds, in id order. The
+	 * criteria are checked by the database, so only the matching people, and
+	 * only the columns the query reads, are sent from it.
+	 * 
+	 * @param query
+	 *            the criteria the people must match and the columns to read
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page, which is empty if the page could not be read
+	 */
+	public PersonPage findPeople(PersonQuery query, String cursor, int pageSize) {
+
+		try {
+			return time(FIND_PEOPLE, () -> repository.findPeople(query, cursor, pageSize));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to read a page of people", e);
+		}
+
+		return new PersonPage(new ArrayList<Person>(), null);
+	}
+
+	/**
+	 * Streams every person in the database to the handler in id order without
+	 * loading the whole table into memory.
+	 * 
+	 * @param handler
+	 *            called once for each person
+	 * @return the number of people handled
+	 */
+	public int forEachPerson(Consumer<Person> handler) {
+
+		long start = FOR_EACH_PERSON.start();
+		try {
+			try {
+				return repository.forEachPerson(handler);
+			} catch (SQLException e) {
+				FOR_EACH_PERSON.fail();
+				LOG.log(Level.WARNING, "Unable to read the Person table", e);
+			}
+
+			return 0;
+		} finally {
+			FOR_EACH_PERSON.stop(start);
+		}
+	}
+
+	/**
+	 * Loads the whole Person table into a compact, columnar PersonDirectory.
+	 * The rows are streamed from the database straight into the directory,
+	 * so no list of Person objects is built along the way.
+	 * 
+	 * @return the directory, holding every person in id order
+	 */
+	public PersonDirectory loadPersonDirectory() {
+
+		PersonDirectory directory = new PersonDirectory();
+		forEachPerson(directory::add);
+		directory.trimToSize();
+
+		return directory;
+	}
+
+	/**
+	 * Serves full reads of the Person table from a memory mapped snapshot
+	 * file. An existing snapshot is mapped and brought up to date with the
+	 * changes made since it was written; otherwise the table is read once
+	 * and a new snapshot is written. If the snapshot file cannot be used,
+	 * reads keep going to the database.
+	 * 
+	 * @param file
+	 *            the snapshot file
+	 */
+	public void useSnapshot(Path file) {
+
+		try {
+			if (!Files.exists(file)) {
+				PersonSnapshot.write(file, loadPersonDirectory());
+			}
+			snapshot = PersonSnapshot.open(file);
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Unable to open the snapshot", e);
+			return;
+		}
+
+		refreshSnapshot();
+	}
+
+	/**
+	 * Re-reads the changes made to the Person table since the snapshot was
+	 * written, including those made by other applications.
+	 */
+	public void refreshSnapshot() {
+
+		PersonSnapshot current = snapshot;
+		if (current == null) {
+			return;
+		}
+
+		try {
+			current.refresh(this, SNAPSHOT_PAGE_SIZE, repository.findAllIds());
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to refresh the snapshot", e);
+		}
+	}
+
+	/**
+	 * Writes the current contents of the snapshot, including its deltas, to
+	 * a new snapshot file, so the next start maps an up to date copy. Without
+	 * a snapshot in use the table is read from the database.
+	 * 
+	 * @param file
+	 *            the snapshot file to write
+	 */
+	public void saveSnapshot(Path file) {
+
+		PersonDirectory directory;
+		PersonSnapshot current = snapshot;
+		if (current != null) {
+			directory = new PersonDirectory();
+			current.forEach(directory::add);
+		} else {
+			directory = loadPersonDirectory();
+		}
+
+		try {
+			PersonSnapshot.write(file, directory);
+		} catch (IOException e) {
+			LOG.log(Level.WARNING, "Unable to write the snapshot", e);
+		}
+	}
+
+	/**
+	 * Deletes a Person Object from the database by the row ID provided
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record being deleted.
+	 * @return whether the record was deleted, with a message for the user
+	 */
+	public DeleteResult deletePerson(int id) {
+
+		try {
+			return time(DELETE_PERSON, () -> deleteNow(id));
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to delete a person", e);
+		}
+
+		return new DeleteResult(id, false);
+	}
+
+	private DeleteResult deleteNow(int id) throws SQLException {
+		DeleteResult result = repository.deletePerson(id);
+		deleted(result);
+		return result;
+	}
+
+	/**
+	 * Deletes several Person Objects from the database in a single batch.
+	 * 
+	 * @param ids
+	 *            The distinct ID numbers of the records being deleted.
+	 * @return one result per ID, in the order given, or an empty list if the
+	 *         batch failed and nothing was deleted
+	 */
+	public List<DeleteResult> deletePeople(int... ids) {
+
+		long start = DELETE_PEOPLE.start();
+		try {
+			try {
+				List<DeleteResult> results = repository.deletePeople(ids);
+				for (DeleteResult result : results) {
+					deleted(result);
+				}
+				return Collections.unmodifiableList(results);
+			} catch (SQLException e) {
+				DELETE_PEOPLE.fail();
+				LOG.log(Level.WARNING, "Unable to delete people", e);
+			}
+
+			return Collections.emptyList();
+		} finally {
+			DELETE_PEOPLE.stop(start);
+		}
+	}
+
+	/**
+	 * Replaces the executor the asynchronous methods run on, for example with
+	 * AppExecutors.virtualThreads() or a pool sized for the server. Work
+	 * already submitted stays on the old executor.
+	 * 
+	 * @param executor
+	 *            the executor to run database operations on
+	 */
+	public void setExecutor(Executor executor) {
+		if (executor == null) {
+			throw new IllegalArgumentException("An executor is required");
+		}
+		this.executor = executor;
+	}
+
+	/**
+	 * Inserts a person without blocking the calling thread. In write-behind
+	 * mode the future completes once the person's batch has been committed.
+	 * 
+	 * @param person
+	 *            The Person object being inserted
+	 * @return a future completed with the person, holding its new identity
+	 *         key, once it has been inserted
+	 * @see #insertPerson(Person)
+	 */
+	public CompletableFuture<Person> insertPersonAsync(Person person) {
+		// Queued off the calling thread, since a full queue blocks.
+		return supplyAsync(() -> {
+			CompletableFuture<Person> queued = queueBehind(person);
+			if (queued != null) {
+				return queued;
+			}
+			time(INSERT_PERSON, () -> {
+				insertNow(person);
+				return null;
+			});
+			return CompletableFuture.completedFuture(person);
+		}).thenCompose(written -> written);
+	}
+
+	/**
+	 * Inserts a person unless they are already in the database, without
+	 * blocking the calling thread.
+	 * 
+	 * @param person
+	 *            The Person object being inserted
+	 * @return a future completed with whether the person was inserted
+	 * @see #insertPersonIfUnique(Person)
+	 */
+	public CompletableFuture<InsertResult> insertPersonIfUniqueAsync(Person person) {
+		return supplyAsync(() -> time(INSERT_PERSON_IF_UNIQUE, () -> insertIfUnique(person)));
+	}
+
+	/**
+	 * Inserts a collection of people without blocking the calling thread.
+	 * 
+	 * @param newPeople
+	 *            the Person objects being inserted
+	 * @return a future completed with the number of people inserted
+	 * @see #insertPeople(Collection)
+	 */
+	public CompletableFuture<Integer> insertPeopleAsync(Collection<Person> newPeople) {
+		return supplyAsync(() -> time(INSERT_PEOPLE, () -> storePeople(newPeople)));
+	}
+
+	/**
+	 * Searches for people by name without blocking the calling thread.
+	 * 
+	 * @param name
+	 *            The data we wish to select from the database
+	 * @return a future completed with the people found
+	 * @see #selectPerson(String)
+	 */
+	public CompletableFuture<List<Person>> selectPersonAsync(String name) {
+		return selectPersonAsync(name, SearchMode.SUBSTRING);
+	}
+
+	/**
+	 * Searches for people by name without blocking the calling thread.
+	 * 
+	 * Cancelling the future stops the search: a search that has not started
+	 * is never run, and the query of one that is running is cancelled on the
+	 * database server, which frees its pooled connection. The result of a
+	 * cancelled search is not cached.
+	 * 
+	 * @param name
+	 *            The data we wish to select from the database
+	 * @param mode
+	 *            Whether the name must start with or only contain the term
+	 * @return a future completed with the people found
+	 * @see #selectPerson(String, SearchMode)
+	 */
+	public CompletableFuture<List<Person>> selectPersonAsync(String name, SearchMode mode) {
+		QueryCancellation cancellation = new QueryCancellation();
+		CompletableFuture<List<Person>> result = supplyAsync(
+				() -> cancellation.run(() -> time(SELECT_PERSON, () -> search(name, mode))));
+		result.whenComplete((people, failure) -> {
+			if (result.isCancelled()) {
+				cancellation.cancel();
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Looks up a person by ID without blocking the calling thread.
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record
+	 * @return a future completed with the person, or with null if no record
+	 *         has that ID
+	 * @see #findPerson(int)
+	 */
+	public CompletableFuture<Person> findPersonAsync(int id) {
+		return supplyAsync(() -> time(FIND_PERSON, () -> lookUp(id)));
+	}
+
+	/**
+	 * Reads the whole Person table without blocking the calling thread.
+	 * 
+	 * @return a future completed with every person
+	 * @see #findAllPeople()
+	 */
+	public CompletableFuture<List<Person>> findAllPeopleAsync() {
+		return supplyAsync(() -> time(FIND_ALL_PEOPLE, this::readAll));
+	}
+
+	/**
+	 * Reads one page of people without blocking the calling thread.
+	 * 
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return a future completed with the page
+	 * @see #findPeoplePage(String, int)
+	 */
+	public CompletableFuture<PersonPage> findPeoplePageAsync(String cursor, int pageSize) {
+		return supplyAsync(() -> time(FIND_PEOPLE_PAGE, () -> repository.findPeoplePage(cursor, pageSize)));
+	}
+
+	/**
+	 * Reads one page of the people a query finds without blocking the calling
+	 * thread.
+	 * 
+	 * @param query
+	 *            the criteria the people must match and the columns to read
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return a future completed with the page
+	 * @see #findPeople(PersonQuery, String, int)
+	 */
+	public CompletableFuture<PersonPage> findPeopleAsync(PersonQuery query, String cursor, int pageSize) {
+		return supplyAsync(() -> time(FIND_PEOPLE, () -> repository.findPeople(query, cursor, pageSize)));
+	}
+
+	/**
+	 * Deletes a person without blocking the calling thread.
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record being deleted.
+	 * @return a future completed with whether the record was deleted
+	 * @see #deletePerson(int)
+	 */
+	public CompletableFuture<DeleteResult> deletePersonAsync(int id) {
+		return supplyAsync(() -> time(DELETE_PERSON, () -> deleteNow(id)));
+	}
+
+	/**
+	 * Runs an operation on the executor. A SQLException completes the future
+	 * exceptionally, with the SQLException as the cause.
+	 */
+	private <T> CompletableFuture<T> supplyAsync(Operation<T> operation) {
+		return CompletableFuture.supplyAsync(() -> {
+			try {
+				return operation.run();
+			} catch (SQLException e) {
+				throw new CompletionException(e);
+			}
+		}, executor);
+	}
+
+	private static <T> T time(Timer timer, Operation<T> operation) throws SQLException {
+		long start = timer.start();
+		try {
+			return operation.run();
+		} catch (SQLException | RuntimeException e) {
+			timer.fail();
+			throw e;
+		} finally {
+			timer.stop(start);
+		}
+	}
+
+	/**
+	 * An AppData operation that may fail with a SQLException.
+	 */
+	private interface Operation<T> {
+		T run() throws SQLException;
+	}
+
+	/**
+	 * Reports how often lookups have been served from the cache, combining
+	 * the lookups by id and the name searches.
+	 * 
+	 * @return the cache statistics
+	 */
+	public CacheStats getCacheStats() {
+		return cache.getIdStats().plus(cache.getSearchStats());
+	}
+
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package businesslayer;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AppExecutors creates the executors that AppData runs its asynchronous
+ * operations on. Database calls spend nearly all of their time waiting on the
+ * network, so they are run off the calling thread, which keeps the JavaFX
+ * thread responsive and lets many requests wait on I/O at once.
+ * 
+ * On a Java runtime with virtual threads (Java 21 or newer) each operation
+ * can get a virtual thread of its own. On older runtimes a fixed pool of
+ * daemon platform threads is used.
+ *
+ */
+public class AppExecutors {
+
+	/**
+	 * The number of platform threads used when virtual threads are not
+	 * available. It matches the most connections the pool will open, since
+	 * each operation holds a connection for its whole run.
+	 */
+	public static final int DEFAULT_PLATFORM_THREADS = 10;
+
+	private AppExecutors() {
+
+	}
+
+	/**
+	 * Creates the executor AppData uses unless it is given another: virtual
+	 * threads when the runtime supports them, otherwise a fixed pool of
+	 * platform threads.
+	 * 
+	 * @return a new executor
+	 */
+	public static ExecutorService defaultExecutor() {
+		ExecutorService virtual = virtualThreads();
+		return virtual != null ? virtual : platformThreads(DEFAULT_PLATFORM_THREADS);
+	}
+
+	/**
+	 * Creates an executor that starts a virtual thread for each task.
+	 * 
+	 * @return the executor, or null if this runtime has no virtual threads
+	 */
+	public static ExecutorService virtualThreads() {
+		try {
+			Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Creates a fixed pool of daemon platform threads, so that pending work
+	 * does not keep the application from exiting.
+	 * 
+	 * @param threads
+	 *            the number of threads in the pool
+	 * @return the executor
+	 */
+	public static ExecutorService platformThreads(int threads) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+			private final AtomicInteger count = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable runnable) {
+				Thread thread = new Thread(runnable, "AppData-worker-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+	}
+
+}
@@ -0,0 +1,67 @@
+package businesslayer;
+
+/**
+ * CacheStats is a snapshot of how well a cache has been serving requests.
+ * Evictions count both entries pushed out because the cache was full and
+ * entries dropped because their time to live had passed.
+ *
+ */
+public class CacheStats {
+
+	private final long hits;
+	private final long misses;
+	private final long evictions;
+	private final int size;
+
+	public CacheStats(long hits, long misses, long evictions, int size) {
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+		this.size = size;
+	}
+
+	public long getHits() {
+		return hits;
+	}
+
+	public long getMisses() {
+		return misses;
+	}
+
+	public long getEvictions() {
+		return evictions;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	/**
+	 * The share of lookups that were served from the cache.
+	 * 
+	 * @return a value between 0 and 1, or 0 if nothing has been looked up
+	 */
+	public double getHitRate() {
+		long lookups = hits + misses;
+		return lookups == 0 ? 0 : (double) hits / lookups;
+	}
+
+	/**
+	 * Combines these statistics with those of another cache.
+	 * 
+	 * @param other
+	 *            the statistics to add
+	 * @return the combined statistics
+	 */
+	public CacheStats plus(CacheStats other) {
+		return new CacheStats(hits + other.hits, misses + other.misses, evictions + other.evictions,
+				size + other.size);
+	}
+
+	@Override
+	public String toString() {
+		return "hits=" + hits + " misses=" + misses + " evictions=" + evictions + " size=" + size
+				+ String.format(" hitRate=%.3f", getHitRate());
+	}
+
+}
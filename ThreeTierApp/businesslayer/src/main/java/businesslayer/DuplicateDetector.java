@@ -0,0 +1,352 @@
+package businesslayer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+/**
+ * The DuplicateDetector finds people who have been entered more than once
+ * without comparing every person with every other person. Each person is
+ * given up to two blocking keys, and two people are duplicates when they
+ * share one:
+ * <ul>
+ * <li>their email address, ignoring case, surrounding spaces and any
+ * "+tag" after the local part</li>
+ * <li>their phone number, as TelephoneNumber reads it, together with the
+ * Soundex codes of their first and last names, so "Jon Smyth" and
+ * "John Smith" on the same number match but two members of a household
+ * sharing a phone do not</li>
+ * </ul>
+ * The index is keyed by 64-bit hashes of the keys. Two different keys can
+ * hash alike, so the keys themselves are kept with each person and compared
+ * before anyone is reported as a duplicate.
+ *
+ * The detector keeps an index from key to ids, so checking a new person is
+ * a couple of hash lookups whatever the size of the table. report() finds
+ * every group of duplicates in a whole list on every core.
+ *
+ * A DuplicateDetector may be shared between threads.
+ *
+ */
+public class DuplicateDetector {
+
+	/**
+	 * Ids of the people with each blocking key.
+	 */
+	private final Map<Long, int[]> idsByKey = new ConcurrentHashMap<>();
+
+	/**
+	 * The blocking keys of each indexed person, so they can be removed and
+	 * compared.
+	 */
+	private final Map<Integer, BlockingKey[]> keysById = new ConcurrentHashMap<>();
+
+	/**
+	 * Adds a stored person to the index. A person added again replaces
+	 * their earlier keys.
+	 *
+	 * @param person
+	 *            the person, holding their identity key
+	 */
+	public void add(Person person) {
+		int id = person.getId();
+		remove(id);
+
+		BlockingKey[] keys = keysOf(person);
+		keysById.put(id, keys);
+		for (BlockingKey key : keys) {
+			idsByKey.merge(key.hash, new int[] { id }, DuplicateDetector::concat);
+		}
+	}
+
+	/**
+	 * Removes a deleted person from the index.
+	 *
+	 * @param id
+	 *            the person's identity key
+	 */
+	public void remove(int id) {
+		BlockingKey[] keys = keysById.remove(id);
+		if (keys == null) {
+			return;
+		}
+		for (BlockingKey key : keys) {
+			idsByKey.computeIfPresent(key.hash, (k, ids) -> without(ids, id));
+		}
+	}
+
+	/**
+	 * Finds the indexed people a person would duplicate.
+	 *
+	 * @param person
+	 *            the person to check, who need not be stored yet
+	 * @return the ids of the people sharing a blocking key with them, in
+	 *         ascending order, not including the person's own id
+	 */
+	public List<Integer> findDuplicates(Person person) {
+		List<Integer> found = new ArrayList<>();
+		for (BlockingKey key : keysOf(person)) {
+			int[] ids = idsByKey.get(key.hash);
+			if (ids == null) {
+				continue;
+			}
+			for (int id : ids) {
+				if (id != person.getId() && !found.contains(id) && key.in(keysById.get(id))) {
+					found.add(id);
+				}
+			}
+		}
+		Collections.sort(found);
+		return found;
+	}
+
+	/**
+	 * The number of people in the index.
+	 *
+	 * @return the indexed person count
+	 */
+	public int size() {
+		return keysById.size();
+	}
+
+	/**
+	 * Finds every group of duplicates in a list of people. The keys are
+	 * worked out on every core and each person is matched against the first
+	 * person seen with each of their keys, so the work grows with the number
+	 * of people rather than its square. Duplicates of duplicates end up in
+	 * the same group. The keys are compared whole, so hashes that collide
+	 * match nobody.
+	 *
+	 * @param people
+	 *            the people to check, such as the whole Person table
+	 * @return the groups of two or more people who share a blocking key
+	 */
+	public static DuplicateReport report(Collection<Person> people) {
+		Person[] array = people.toArray(new Person[0]);
+
+		Map<String, Integer> firstWithKey = new ConcurrentHashMap<>(array.length * 2);
+		Queue<int[]> matches = new ConcurrentLinkedQueue<>();
+
+		IntStream.range(0, array.length).parallel().forEach(i -> {
+			for (BlockingKey key : keysOf(array[i])) {
+				Integer first = firstWithKey.putIfAbsent(key.text, i);
+				if (first != null) {
+					matches.add(new int[] { first, i });
+				}
+			}
+		});
+
+		int[] parent = new int[array.length];
+		Arrays.setAll(parent, i -> i);
+		for (int[] match : matches) {
+			union(parent, match[0], match[1]);
+		}
+
+		Map<Integer, List<Person>> groups = new HashMap<>();
+		for (int[] match : matches) {
+			int root = find(parent, match[0]);
+			if (!groups.containsKey(root)) {
+				groups.put(root, new ArrayList<>());
+			}
+		}
+		for (int i = 0; i < array.length; i++) {
+			List<Person> group = groups.get(find(parent, i));
+			if (group != null) {
+				group.add(array[i]);
+			}
+		}
+
+		List<List<Person>> result = new ArrayList<>();
+		for (List<Person> group : groups.values()) {
+			group.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+			result.add(Collections.unmodifiableList(group));
+		}
+		result.sort((a, b) -> Integer.compare(a.get(0).getId(), b.get(0).getId()));
+		return new DuplicateReport(result);
+	}
+
+	private static int find(int[] parent, int i) {
+		while (parent[i] != i) {
+			parent[i] = parent[parent[i]];
+			i = parent[i];
+		}
+		return i;
+	}
+
+	private static void union(int[] parent, int a, int b) {
+		int rootA = find(parent, a);
+		int rootB = find(parent, b);
+		if (rootA != rootB) {
+			parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+		}
+	}
+
+	/**
+	 * Works out a person's blocking keys. A person without an email address
+	 * or a valid phone number has no key for it.
+	 */
+	static BlockingKey[] keysOf(Person person) {
+		BlockingKey[] keys = new BlockingKey[2];
+		int count = 0;
+
+		String email = normalizeEmail(person.getEmail());
+		if (!email.isEmpty()) {
+			keys[count++] = new BlockingKey(1, email, 0);
+		}
+
+		long phone = person.getPhone() == null ? -1 : TelephoneNumber.parse(person.getPhone());
+		String name = phoneticName(person.getName());
+		if (phone >= 0 && !name.isEmpty()) {
+			// The long distance code is not part of the number.
+			keys[count++] = new BlockingKey(2, name, phone % 10000000000L);
+		}
+
+		return count == keys.length ? keys : Arrays.copyOf(keys, count);
+	}
+
+	/**
+	 * Lower cases an email address and drops any "+tag" from its local part,
+	 * which delivers to the same mailbox.
+	 */
+	static String normalizeEmail(String email) {
+		if (email == null) {
+			return "";
+		}
+		String normalized = email.trim().toLowerCase(Locale.ROOT);
+		int at = normalized.indexOf('@');
+		int plus = normalized.indexOf('+');
+		if (at > 0 && plus > 0 && plus < at) {
+			normalized = normalized.substring(0, plus) + normalized.substring(at);
+		}
+		return normalized;
+	}
+
+	/**
+	 * The Soundex codes of the first and last words of a name, e.g. "J500S530"
+	 * for "John Q. Smith", or an empty string for a name without letters.
+	 */
+	static String phoneticName(String name) {
+		if (name == null) {
+			return "";
+		}
+		String[] words = name.trim().split("[^\\p{L}]+");
+		String first = null;
+		String last = null;
+		int count = 0;
+		for (String word : words) {
+			if (!word.isEmpty()) {
+				if (first == null) {
+					first = word;
+				}
+				last = word;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return "";
+		}
+		return count == 1 ? soundex(first) : soundex(first) + soundex(last);
+	}
+
+	/**
+	 * The American Soundex code of a word: its first letter and the codes of
+	 * the next three consonant sounds, padded with zeros. Letters outside
+	 * A to Z are ignored.
+	 */
+	static String soundex(String word) {
+		String upper = word.toUpperCase(Locale.ROOT);
+		char[] code = { '0', '0', '0', '0' };
+		int length = 0;
+		char previous = 0;
+
+		for (int i = 0; i < upper.length() && length < code.length; i++) {
+			char letter = upper.charAt(i);
+			if (letter < 'A' || letter > 'Z') {
+				continue;
+			}
+			char digit = "01230120022455012623010202".charAt(letter - 'A');
+			if (length == 0) {
+				code[length++] = letter;
+			} else if (digit != '0' && digit != previous) {
+				code[length++] = digit;
+			}
+			// H and W do not separate two letters with the same code.
+			if (letter != 'H' && letter != 'W') {
+				previous = digit;
+			}
+		}
+
+		return length == 0 ? "" : new String(code);
+	}
+
+	/**
+	 * A 64-bit FNV-1a hash of a key's kind, text and number.
+	 */
+	private static long hash(int kind, String text, long number) {
+		long hash = 0xcbf29ce484222325L;
+		hash = (hash ^ kind) * 0x100000001b3L;
+		for (int i = 0; i < text.length(); i++) {
+			hash = (hash ^ text.charAt(i)) * 0x100000001b3L;
+		}
+		for (int i = 0; i < 8; i++) {
+			hash = (hash ^ ((number >>> (i * 8)) & 0xFF)) * 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * One blocking key: its kind and normalized fields as text, and the hash
+	 * the index is keyed by.
+	 */
+	static final class BlockingKey {
+		final String text;
+		final long hash;
+
+		private BlockingKey(int kind, String text, long number) {
+			this.text = kind + ":" + text + ":" + number;
+			this.hash = hash(kind, text, number);
+		}
+
+		/**
+		 * Whether another person's keys include this one.
+		 */
+		boolean in(BlockingKey[] keys) {
+			if (keys == null) {
+				return false;
+			}
+			for (BlockingKey key : keys) {
+				if (key.hash == hash && key.text.equals(text)) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private static int[] concat(int[] ids, int[] more) {
+		int[] joined = Arrays.copyOf(ids, ids.length + more.length);
+		System.arraycopy(more, 0, joined, ids.length, more.length);
+		return joined;
+	}
+
+	private static int[] without(int[] ids, int id) {
+		int[] kept = new int[ids.length];
+		int count = 0;
+		for (int other : ids) {
+			if (other != id) {
+				kept[count++] = other;
+			}
+		}
+		return count == 0 ? null : Arrays.copyOf(kept, count);
+	}
+
+}
@@ -0,0 +1,53 @@
+package businesslayer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DuplicateReport lists the groups of people that DuplicateDetector found
+ * to have been entered more than once. Each group holds two or more people
+ * in id order, and the groups are ordered by their lowest id, so the first
+ * person of each group is the one entered first.
+ *
+ */
+public class DuplicateReport {
+
+	private final List<List<Person>> groups;
+
+	public DuplicateReport(List<List<Person>> groups) {
+		this.groups = Collections.unmodifiableList(groups);
+	}
+
+	public List<List<Person>> getGroups() {
+		return groups;
+	}
+
+	/**
+	 * The number of people who repeat someone entered before them, that is
+	 * every person in a group except its first.
+	 * 
+	 * @return the duplicate count
+	 */
+	public int getDuplicateCount() {
+		int count = 0;
+		for (List<Person> group : groups) {
+			count += group.size() - 1;
+		}
+		return count;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder report = new StringBuilder();
+		report.append(groups.size()).append(" groups of duplicates, ").append(getDuplicateCount())
+				.append(" duplicate people\n");
+		for (List<Person> group : groups) {
+			for (Person person : group) {
+				report.append("#").append(person.getId()).append("\t").append(person).append("\n");
+			}
+			report.append("\n");
+		}
+		return report.toString();
+	}
+
+}
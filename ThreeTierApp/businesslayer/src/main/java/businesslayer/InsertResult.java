@@ -0,0 +1,76 @@
+package businesslayer;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An InsertResult reports what happened when a person was inserted only if
+ * they were not already in the database: either they were stored, or the
+ * people they would have duplicated are named.
+ *
+ */
+public class InsertResult {
+
+	private final Person person;
+	private final boolean inserted;
+	private final List<Integer> duplicateIds;
+
+	/**
+	 * Creates the result of inserting one person.
+	 * 
+	 * @param person
+	 *            the person that was to be inserted
+	 * @param inserted
+	 *            true if the person was stored
+	 * @param duplicateIds
+	 *            the ids of the people the person duplicates, empty if none
+	 */
+	public InsertResult(Person person, boolean inserted, List<Integer> duplicateIds) {
+		this.person = person;
+		this.inserted = inserted;
+		this.duplicateIds = Collections.unmodifiableList(duplicateIds);
+	}
+
+	/**
+	 * The person that was to be inserted, holding their new identity key if
+	 * they were stored.
+	 * 
+	 * @return the person
+	 */
+	public Person getPerson() {
+		return person;
+	}
+
+	public boolean isInserted() {
+		return inserted;
+	}
+
+	public boolean isDuplicate() {
+		return !duplicateIds.isEmpty();
+	}
+
+	public List<Integer> getDuplicateIds() {
+		return duplicateIds;
+	}
+
+	/**
+	 * Builds the message letting the user know whether they were entered.
+	 * 
+	 * @return the message
+	 */
+	public String getMessage() {
+		if (inserted) {
+			return "Your information has \nbeen entered.";
+		}
+		if (isDuplicate()) {
+			return "You are already registered \nas customer ID #" + duplicateIds.get(0) + ".";
+		}
+		return "Your information could \nnot be entered.";
+	}
+
+	@Override
+	public String toString() {
+		return getMessage();
+	}
+
+}
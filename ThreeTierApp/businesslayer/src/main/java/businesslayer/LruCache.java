@@ -0,0 +1,163 @@
+package businesslayer;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BiPredicate;
+
+/**
+ * The LruCache is a bounded map that forgets its least recently used entry
+ * when it is full and forgets any entry that is older than its time to live.
+ * It counts hits, misses and evictions so its effectiveness can be reported.
+ * 
+ * All methods are synchronized, which keeps the cache safe to share between
+ * threads. Every operation is constant time apart from removeIf, which visits
+ * each entry.
+ *
+ * @param <K>
+ *            the type of the keys
+ * @param <V>
+ *            the type of the cached values
+ */
+public class LruCache<K, V> {
+
+	private final int maxEntries;
+	private final long ttlMillis;
+	private final LinkedHashMap<K, CacheEntry<V>> entries;
+
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maxEntries
+	 *            the most entries held before the least recently used one is
+	 *            evicted
+	 * @param ttlMillis
+	 *            how long an entry may be served after it was put in the
+	 *            cache, or 0 for no limit
+	 */
+	public LruCache(int maxEntries, long ttlMillis) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("A cache must hold at least one entry");
+		}
+		this.maxEntries = maxEntries;
+		this.ttlMillis = ttlMillis;
+		this.entries = new LinkedHashMap<K, CacheEntry<V>>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, CacheEntry<V>> eldest) {
+				if (size() > LruCache.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Looks up a value and marks it as recently used.
+	 * 
+	 * @param key
+	 *            the key to look up
+	 * @return the cached value, or null if it is absent or expired
+	 */
+	public synchronized V get(K key) {
+		CacheEntry<V> entry = entries.get(key);
+		if (entry != null && isExpired(entry)) {
+			entries.remove(key);
+			evictions++;
+			entry = null;
+		}
+		if (entry == null) {
+			misses++;
+			return null;
+		}
+		hits++;
+		return entry.value;
+	}
+
+	/**
+	 * Caches a value, replacing any value already held for the key.
+	 * 
+	 * @param key
+	 *            the key to store under
+	 * @param value
+	 *            the value to cache
+	 */
+	public synchronized void put(K key, V value) {
+		entries.put(key, new CacheEntry<V>(value, System.currentTimeMillis()));
+	}
+
+	/**
+	 * Forgets the value held for a key.
+	 * 
+	 * @param key
+	 *            the key to forget
+	 */
+	public synchronized void remove(K key) {
+		entries.remove(key);
+	}
+
+	/**
+	 * Forgets every entry that matches the condition.
+	 * 
+	 * @param condition
+	 *            tested against each key and value
+	 * @return the number of entries removed
+	 */
+	public synchronized int removeIf(BiPredicate<? super K, ? super V> condition) {
+		int removed = 0;
+		Iterator<Map.Entry<K, CacheEntry<V>>> iterator = entries.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<K, CacheEntry<V>> entry = iterator.next();
+			if (condition.test(entry.getKey(), entry.getValue().value)) {
+				iterator.remove();
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * Forgets every entry. The statistics are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Takes a snapshot of the hit, miss and eviction counts.
+	 * 
+	 * @return the statistics so far
+	 */
+	public synchronized CacheStats getStats() {
+		return new CacheStats(hits, misses, evictions, entries.size());
+	}
+
+	private boolean isExpired(CacheEntry<V> entry) {
+		return ttlMillis > 0 && System.currentTimeMillis() - entry.createdAt > ttlMillis;
+	}
+
+	/**
+	 * A cached value and the time it was stored.
+	 */
+	private static final class CacheEntry<V> {
+		private final V value;
+		private final long createdAt;
+
+		private CacheEntry(V value, long createdAt) {
+			this.value = value;
+			this.createdAt = createdAt;
+		}
+	}
+
+}
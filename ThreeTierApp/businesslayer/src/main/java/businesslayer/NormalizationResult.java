@@ -0,0 +1,166 @@
+package businesslayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A NormalizationResult holds the outcome of normalizing a batch of phone
+ * numbers with the PhoneNumberNormalizer. Every row either has a packed
+ * number or a TelephoneError explaining why it was rejected. Rows are
+ * stored as primitives and only turned into strings or TelephoneNumber
+ * objects when they are asked for.
+ *
+ */
+public class NormalizationResult {
+
+	private final CharSequence[] rawNumbers;
+	private final long[] parsed;
+	private final int errorCount;
+
+	/**
+	 * Creates the result of a batch.
+	 * 
+	 * @param rawNumbers
+	 *            the phone numbers as entered
+	 * @param parsed
+	 *            for each row, the packed number or the negative code of its
+	 *            error
+	 */
+	NormalizationResult(CharSequence[] rawNumbers, long[] parsed) {
+		this.rawNumbers = rawNumbers;
+		this.parsed = parsed;
+
+		int errors = 0;
+		for (long value : parsed) {
+			if (value < 0) {
+				errors++;
+			}
+		}
+		this.errorCount = errors;
+	}
+
+	/**
+	 * The number of rows in the batch.
+	 * 
+	 * @return the row count
+	 */
+	public int size() {
+		return parsed.length;
+	}
+
+	public int getValidCount() {
+		return parsed.length - errorCount;
+	}
+
+	public int getErrorCount() {
+		return errorCount;
+	}
+
+	/**
+	 * Tells whether a row held a valid phone number.
+	 * 
+	 * @param row
+	 *            the position of the number in the batch
+	 * @return true if the number passed validation
+	 */
+	public boolean isValid(int row) {
+		return parsed[row] >= 0;
+	}
+
+	/**
+	 * Retrieves the reason a row was rejected.
+	 * 
+	 * @param row
+	 *            the position of the number in the batch
+	 * @return the error, or null if the number is valid
+	 */
+	public TelephoneError getError(int row) {
+		return parsed[row] < 0 ? TelephoneNumber.errorOf(parsed[row]) : null;
+	}
+
+	/**
+	 * Retrieves a valid row in the packed form described by
+	 * TelephoneNumber.getPackedNumber().
+	 * 
+	 * @param row
+	 *            the position of the number in the batch
+	 * @return the packed number, or -1 if the number is invalid
+	 */
+	public long getPackedNumber(int row) {
+		return parsed[row] >= 0 ? parsed[row] : -1;
+	}
+
+	/**
+	 * Retrieves a valid row as a TelephoneNumber.
+	 * 
+	 * @param row
+	 *            the position of the number in the batch
+	 * @return the telephone number, or null if the number is invalid
+	 */
+	public TelephoneNumber getNumber(int row) {
+		return parsed[row] >= 0 ? new TelephoneNumber(parsed[row]) : null;
+	}
+
+	/**
+	 * Retrieves a valid row formatted the way TelephoneNumber.toString()
+	 * formats it, which is how phone numbers are stored in the database.
+	 * 
+	 * @param row
+	 *            the position of the number in the batch
+	 * @return the formatted number, or null if the number is invalid
+	 */
+	public String getNormalized(int row) {
+		return parsed[row] >= 0 ? new TelephoneNumber(parsed[row]).toString() : null;
+	}
+
+	/**
+	 * Lists every rejected row along with what was entered and why it was
+	 * rejected.
+	 * 
+	 * @return the failures in row order
+	 */
+	public List<Failure> getFailures() {
+		List<Failure> failures = new ArrayList<>(errorCount);
+		for (int row = 0; row < parsed.length; row++) {
+			if (parsed[row] < 0) {
+				failures.add(new Failure(row, rawNumbers[row], TelephoneNumber.errorOf(parsed[row])));
+			}
+		}
+		return Collections.unmodifiableList(failures);
+	}
+
+	/**
+	 * A row that failed validation.
+	 */
+	public static class Failure {
+
+		private final int row;
+		private final CharSequence rawNumber;
+		private final TelephoneError error;
+
+		Failure(int row, CharSequence rawNumber, TelephoneError error) {
+			this.row = row;
+			this.rawNumber = rawNumber;
+			this.error = error;
+		}
+
+		public int getRow() {
+			return row;
+		}
+
+		public CharSequence getRawNumber() {
+			return rawNumber;
+		}
+
+		public TelephoneError getError() {
+			return error;
+		}
+
+		@Override
+		public String toString() {
+			return "Row " + row + " (" + rawNumber + "): " + error.getMessage();
+		}
+	}
+
+}
@@ -0,0 +1,262 @@
+package businesslayer;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import datalayer.SearchMode;
+
+/**
+ * The PersonCache keeps recently read people in memory so that AppData can
+ * answer repeated lookups without going to the database. People are cached
+ * by id, and search results are cached by the search mode and the lower
+ * case search term. Accents are kept in the key, as the embedded engine
+ * tells "Zoë" and "Zoe" apart.
+ * 
+ * AppData keeps the cache consistent by reporting every insert and delete.
+ * An insert forgets the cached searches the new name would have matched,
+ * ignoring accents as well as case so that no backend's matches are missed,
+ * and
+ * a delete forgets the person and every cached search that contained them.
+ * The time to live bounds how stale an entry can get if the table is changed
+ * by another application.
+ *
+ * Person objects can be changed, so the cache keeps copies of its own and
+ * hands out fresh copies on every hit. A caller changing a person it was
+ * given changes nothing any other caller sees.
+ *
+ * A read that misses the cache goes to the database and caches what it
+ * found afterwards, and an insert or delete may be reported in between.
+ * Every insert, delete and clear therefore advances a generation. Callers
+ * take the generation before reading from the database and pass it back
+ * with the result, which is only cached if nothing has changed since, so a
+ * result read before a change can never be cached after it.
+ *
+ */
+public class PersonCache {
+
+	/**
+	 * Matches the accents left behind once a term is decomposed, so that
+	 * inserts are compared the way the database's case and accent
+	 * insensitive collation does.
+	 */
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+	private final LruCache<Integer, Person> byId;
+	private final LruCache<SearchKey, List<Person>> bySearch;
+
+	/**
+	 * Advanced by every change the cache is told about. Guarded by this
+	 * cache's monitor, which also makes checking it and caching a result
+	 * one step.
+	 */
+	private long generation;
+
+	/**
+	 * Creates an empty cache.
+	 * 
+	 * @param maxEntries
+	 *            the most people, and separately the most search results,
+	 *            held at once
+	 * @param ttlMillis
+	 *            how long an entry may be served, or 0 for no limit
+	 */
+	public PersonCache(int maxEntries, long ttlMillis) {
+		byId = new LruCache<>(maxEntries, ttlMillis);
+		bySearch = new LruCache<>(maxEntries, ttlMillis);
+	}
+
+	/**
+	 * Looks up a cached person.
+	 * 
+	 * @param id
+	 *            the id of the person
+	 * @return a copy of the person, or null if they are not cached
+	 */
+	public Person getPerson(int id) {
+		Person person = byId.get(id);
+		return person == null ? null : copy(person);
+	}
+
+	/**
+	 * The current generation, to be taken before reading from the database
+	 * and passed to putPerson or putSearch with what was read.
+	 * 
+	 * @return the generation
+	 */
+	public synchronized long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * Caches a person read from the database, unless people have been
+	 * inserted or deleted since the read began.
+	 * 
+	 * @param person
+	 *            the person
+	 * @param readGeneration
+	 *            the generation taken before the person was read
+	 */
+	public synchronized void putPerson(Person person, long readGeneration) {
+		if (readGeneration == generation) {
+			byId.put(person.getId(), copy(person));
+		}
+	}
+
+	/**
+	 * Looks up the cached result of a name search.
+	 * 
+	 * @param term
+	 *            the search term as the user entered it
+	 * @param mode
+	 *            how the term was matched
+	 * @return an unmodifiable list of copies of the people found, or null if
+	 *         the search is not cached
+	 */
+	public List<Person> getSearch(String term, SearchMode mode) {
+		List<Person> cached = bySearch.get(new SearchKey(term, mode));
+		return cached == null ? null : copyAll(cached);
+	}
+
+	/**
+	 * Caches the result of a name search, and each person in it by id,
+	 * unless people have been inserted or deleted since the search began.
+	 * 
+	 * @param term
+	 *            the search term as the user entered it
+	 * @param mode
+	 *            how the term was matched
+	 * @param result
+	 *            the people found
+	 * @param readGeneration
+	 *            the generation taken before the search was run
+	 * @return an unmodifiable list of the people in the result, whether or
+	 *         not it was cached; the cache keeps copies of its own
+	 */
+	public List<Person> putSearch(String term, SearchMode mode, List<Person> result, long readGeneration) {
+		List<Person> cached = copyAll(result);
+		SearchKey key = new SearchKey(term, mode);
+		synchronized (this) {
+			if (readGeneration == generation) {
+				bySearch.put(key, cached);
+				for (Person person : cached) {
+					byId.put(person.getId(), person);
+				}
+			}
+		}
+		return Collections.unmodifiableList(new ArrayList<>(result));
+	}
+
+	/**
+	 * Forgets the cached searches that the new person would now appear in.
+	 * 
+	 * @param person
+	 *            the person that was inserted
+	 */
+	public synchronized void onInsert(Person person) {
+		generation++;
+		String name = fold(person.getName());
+		bySearch.removeIf((key, result) -> key.mode == SearchMode.PREFIX ? name.startsWith(key.folded())
+				: name.contains(key.folded()));
+	}
+
+	/**
+	 * Forgets a deleted person and every cached search that contained them.
+	 * 
+	 * @param id
+	 *            the id of the person that was deleted
+	 */
+	public synchronized void onDelete(int id) {
+		generation++;
+		byId.remove(id);
+		bySearch.removeIf((key, result) -> {
+			for (Person person : result) {
+				if (person.getId() == id) {
+					return true;
+				}
+			}
+			return false;
+		});
+	}
+
+	/**
+	 * Forgets everything in the cache.
+	 */
+	public synchronized void clear() {
+		generation++;
+		byId.clear();
+		bySearch.clear();
+	}
+
+	public CacheStats getIdStats() {
+		return byId.getStats();
+	}
+
+	public CacheStats getSearchStats() {
+		return bySearch.getStats();
+	}
+
+	private static Person copy(Person person) {
+		return new Person(person.getId(), person.getName(), person.getEmail(), person.getPhone());
+	}
+
+	private static List<Person> copyAll(List<Person> people) {
+		List<Person> copies = new ArrayList<>(people.size());
+		for (Person person : people) {
+			copies.add(copy(person));
+		}
+		return Collections.unmodifiableList(copies);
+	}
+
+	/**
+	 * Lower cases a term and strips its accents.
+	 */
+	static String fold(String term) {
+		String decomposed = Normalizer.normalize(term, Normalizer.Form.NFD);
+		return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * The key search results are cached under.
+	 */
+	private static final class SearchKey {
+		private final String term;
+		private final SearchMode mode;
+
+		/**
+		 * The term without accents, which inserts are matched against. Only
+		 * worked out for cached keys, the first time an insert needs it.
+		 */
+		private String folded;
+
+		private SearchKey(String term, SearchMode mode) {
+			this.term = term.toLowerCase(Locale.ROOT);
+			this.mode = mode;
+		}
+
+		private String folded() {
+			if (folded == null) {
+				folded = fold(term);
+			}
+			return folded;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (!(other instanceof SearchKey)) {
+				return false;
+			}
+			SearchKey key = (SearchKey) other;
+			return mode == key.mode && term.equals(key.term);
+		}
+
+		@Override
+		public int hashCode() {
+			return term.hashCode() * 31 + mode.hashCode();
+		}
+	}
+
+}
@@ -0,0 +1,313 @@
+package businesslayer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The PersonDirectory is a compact, read-mostly, in-memory copy of the Person
+ * table. Instead of one object and three Strings per person it stores each
+ * column in a primitive array: ids in an int[], names and emails as UTF-8
+ * bytes in shared byte arrays with an offset per row, and phone numbers in
+ * the packed form produced by TelephoneNumber. This takes several times less
+ * heap than a list of Person objects and lets a full scan walk contiguous
+ * memory.
+ *
+ * get() returns a lightweight Person view of a row that decodes its fields
+ * only when they are read. Views are read only.
+ *
+ * Rows may be added from one thread while no other thread reads the
+ * directory; once loaded it may be read from any number of threads.
+ *
+ */
+public class PersonDirectory {
+
+	private static final int INITIAL_ROWS = 1024;
+
+	private int size = 0;
+	private int[] ids = new int[INITIAL_ROWS];
+	private long[] phones = new long[INITIAL_ROWS];
+	private final Column names = new Column(INITIAL_ROWS);
+	private final Column emails = new Column(INITIAL_ROWS);
+
+	/**
+	 * Phone numbers that could not be packed, kept as entered by row.
+	 */
+	private final Map<Integer, String> unpackedPhones = new HashMap<>();
+
+	/**
+	 * Whether the rows were added in increasing id order, which lets
+	 * rowOfId() use a binary search.
+	 */
+	private boolean sortedById = true;
+
+	/**
+	 * Adds a person as the next row.
+	 *
+	 * @param person
+	 *            the person to copy into the directory
+	 */
+	public void add(Person person) {
+		if (size == ids.length) {
+			int capacity = Math.max(INITIAL_ROWS, size * 2);
+			ids = Arrays.copyOf(ids, capacity);
+			phones = Arrays.copyOf(phones, capacity);
+		}
+
+		if (size > 0 && person.getId() <= ids[size - 1]) {
+			sortedById = false;
+		}
+
+		ids[size] = person.getId();
+		names.add(person.getName());
+		emails.add(person.getEmail());
+
+		// Only numbers stored in the standard format can be rebuilt exactly
+		// from their packed form; any other text is kept as it is.
+		long packed = TelephoneNumber.parse(person.getPhone());
+		if (packed >= 0 && !new TelephoneNumber(packed).toString().equals(person.getPhone())) {
+			packed = -1;
+		}
+		phones[size] = packed;
+		if (packed < 0 && person.getPhone() != null) {
+			unpackedPhones.put(size, person.getPhone());
+		}
+		size++;
+	}
+
+	/**
+	 * The number of people in the directory.
+	 *
+	 * @return the row count
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Retrieves a read only view of a row.
+	 *
+	 * @param row
+	 *            the row, from 0 to size() - 1
+	 * @return a Person whose fields are read from the directory
+	 */
+	public Person get(int row) {
+		checkRow(row);
+		return new PersonView(this, row);
+	}
+
+	public int getId(int row) {
+		checkRow(row);
+		return ids[row];
+	}
+
+	public String getName(int row) {
+		checkRow(row);
+		return names.get(row);
+	}
+
+	public String getEmail(int row) {
+		checkRow(row);
+		return emails.get(row);
+	}
+
+	/**
+	 * Retrieves a row's phone number exactly as it was stored.
+	 *
+	 * @param row
+	 *            the row, from 0 to size() - 1
+	 * @return the phone number, or null if the person had none
+	 */
+	public String getPhone(int row) {
+		checkRow(row);
+		if (phones[row] >= 0) {
+			return new TelephoneNumber(phones[row]).toString();
+		}
+		return unpackedPhones.get(row);
+	}
+
+	/**
+	 * Retrieves a row's phone number in packed form.
+	 *
+	 * @param row
+	 *            the row, from 0 to size() - 1
+	 * @return the packed number, or a negative value if it could not be packed
+	 */
+	public long getPackedPhone(int row) {
+		checkRow(row);
+		return phones[row];
+	}
+
+	/**
+	 * Finds the row holding a person.
+	 *
+	 * @param id
+	 *            the person's distinct ID number
+	 * @return the row, or -1 if the person is not in the directory
+	 */
+	public int rowOfId(int id) {
+		if (sortedById) {
+			int row = Arrays.binarySearch(ids, 0, size, id);
+			return row >= 0 ? row : -1;
+		}
+		for (int row = 0; row < size; row++) {
+			if (ids[row] == id) {
+				return row;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Passes a view of every row to the handler, in row order.
+	 *
+	 * @param handler
+	 *            called once per row
+	 */
+	public void forEach(Consumer<Person> handler) {
+		for (int row = 0; row < size; row++) {
+			handler.accept(new PersonView(this, row));
+		}
+	}
+
+	/**
+	 * Releases the spare capacity left over from growing the arrays, for a
+	 * directory that is done loading.
+	 */
+	public void trimToSize() {
+		ids = Arrays.copyOf(ids, size);
+		phones = Arrays.copyOf(phones, size);
+		names.trimToSize(size);
+		emails.trimToSize(size);
+	}
+
+	/**
+	 * Estimates the heap used by the directory's arrays.
+	 *
+	 * @return the approximate size in bytes
+	 */
+	public long estimatedBytes() {
+		return (long) ids.length * 4 + (long) phones.length * 8 + names.estimatedBytes() + emails.estimatedBytes();
+	}
+
+	private void checkRow(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+	}
+
+	/**
+	 * A column of strings stored back to back as UTF-8 in one byte array.
+	 * Row i occupies the bytes from offsets[i] up to offsets[i + 1]. A null
+	 * string is stored as an empty range marked in the nulls array.
+	 */
+	private static final class Column {
+
+		private byte[] bytes;
+		private int[] offsets;
+		private boolean[] nulls;
+		private int length = 0;
+		private int rows = 0;
+
+		private Column(int initialRows) {
+			bytes = new byte[initialRows * 16];
+			offsets = new int[initialRows + 1];
+			nulls = new boolean[initialRows];
+		}
+
+		private void add(String value) {
+			if (rows + 1 >= offsets.length) {
+				offsets = Arrays.copyOf(offsets, Math.max(2, offsets.length * 2));
+				nulls = Arrays.copyOf(nulls, offsets.length - 1);
+			}
+
+			if (value == null) {
+				nulls[rows] = true;
+			} else {
+				byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+				if (length + encoded.length > bytes.length) {
+					bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + encoded.length));
+				}
+				System.arraycopy(encoded, 0, bytes, length, encoded.length);
+				length += encoded.length;
+			}
+			rows++;
+			offsets[rows] = length;
+		}
+
+		private String get(int row) {
+			if (nulls[row]) {
+				return null;
+			}
+			return new String(bytes, offsets[row], offsets[row + 1] - offsets[row], StandardCharsets.UTF_8);
+		}
+
+		private void trimToSize(int size) {
+			bytes = Arrays.copyOf(bytes, length);
+			offsets = Arrays.copyOf(offsets, size + 1);
+			nulls = Arrays.copyOf(nulls, size);
+		}
+
+		private long estimatedBytes() {
+			return (long) bytes.length + (long) offsets.length * 4 + nulls.length;
+		}
+	}
+
+	/**
+	 * A read only Person backed by one row of the directory. Each getter
+	 * decodes its field when called, so a view costs a single small object.
+	 */
+	private static final class PersonView extends Person {
+
+		private final PersonDirectory directory;
+		private final int row;
+
+		private PersonView(PersonDirectory directory, int row) {
+			this.directory = directory;
+			this.row = row;
+		}
+
+		@Override
+		public int getId() {
+			return directory.ids[row];
+		}
+
+		@Override
+		public String getName() {
+			return directory.names.get(row);
+		}
+
+		@Override
+		public String getEmail() {
+			return directory.emails.get(row);
+		}
+
+		@Override
+		public String getPhone() {
+			return directory.getPhone(row);
+		}
+
+		@Override
+		public void setId(int id) {
+			throw new UnsupportedOperationException("Directory entries are read only");
+		}
+
+		@Override
+		public void setName(String name) {
+			throw new UnsupportedOperationException("Directory entries are read only");
+		}
+
+		@Override
+		public void setEmail(String email) {
+			throw new UnsupportedOperationException("Directory entries are read only");
+		}
+
+		@Override
+		public void setPhone(String phone) {
+			throw new UnsupportedOperationException("Directory entries are read only");
+		}
+	}
+
+}
@@ -0,0 +1,358 @@
+package businesslayer;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import datalayer.PersonPage;
+
+/**
+ * The PersonSnapshot is a copy of the Person table kept in a compact binary
+ * file and memory mapped when the application starts, so that a restarted
+ * server can answer reads straight away instead of loading the whole table
+ * from MySQL. The operating system pages the file in as it is read, and the
+ * mapped data lives outside the Java heap.
+ *
+ * The file itself is never changed once written. People inserted or deleted
+ * after it was written are kept as deltas in memory, and refresh() brings
+ * the deltas up to date with the database. Writing a new snapshot folds the
+ * deltas back into the file.
+ *
+ * The file holds a header, an index of (id, offset) pairs sorted by id, and
+ * then one record per person: the id followed by the name, email and phone
+ * number, each as an unsigned 16 bit byte count and UTF-8 bytes. A count of
+ * 0xFFFF stands for a missing value. Files are limited to 2 GB, the most a
+ * single mapping can cover.
+ *
+ */
+public class PersonSnapshot {
+
+	/**
+	 * The first four bytes of every snapshot file, "PSN1".
+	 */
+	private static final int MAGIC = 0x50534E31;
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final int HEADER_BYTES = 16;
+
+	private static final int INDEX_ENTRY_BYTES = 8;
+
+	private static final int NULL_LENGTH = 0xFFFF;
+
+	private final MappedByteBuffer buffer;
+	private final int count;
+	private final int maxId;
+
+	/**
+	 * People inserted after the snapshot was written, by id.
+	 */
+	private final ConcurrentSkipListMap<Integer, Person> added = new ConcurrentSkipListMap<>();
+
+	/**
+	 * Ids in the file that have since been deleted.
+	 */
+	private final Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+
+	private PersonSnapshot(MappedByteBuffer buffer) throws IOException {
+		this.buffer = buffer;
+		if (buffer.capacity() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+			throw new IOException("Not a Person snapshot file");
+		}
+		if (buffer.getInt(4) != FORMAT_VERSION) {
+			throw new IOException("Unsupported Person snapshot version " + buffer.getInt(4));
+		}
+		this.count = buffer.getInt(8);
+		this.maxId = buffer.getInt(12);
+	}
+
+	/**
+	 * Memory maps a snapshot file for reading.
+	 *
+	 * @param file
+	 *            the snapshot written by write()
+	 * @return the snapshot, with no deltas applied
+	 * @throws IOException
+	 *             if the file cannot be read or is not a snapshot
+	 */
+	public static PersonSnapshot open(Path file) throws IOException {
+		FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+		try {
+			// The mapping stays valid after the channel is closed.
+			return new PersonSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Writes a snapshot file holding every person in the directory. The file
+	 * is written beside the target and moved into place, so a reader never
+	 * sees a half written snapshot.
+	 *
+	 * @param file
+	 *            where to write the snapshot
+	 * @param directory
+	 *            the people to write
+	 * @throws IOException
+	 */
+	public static void write(Path file, PersonDirectory directory) throws IOException {
+		int size = directory.size();
+		Integer[] rows = new Integer[size];
+		for (int row = 0; row < size; row++) {
+			rows[row] = row;
+		}
+		Arrays.sort(rows, (a, b) -> Integer.compare(directory.getId(a), directory.getId(b)));
+
+		byte[][] fields = new byte[size * 3][];
+		long length = HEADER_BYTES + (long) size * INDEX_ENTRY_BYTES;
+		for (int i = 0; i < size; i++) {
+			int row = rows[i];
+			fields[i * 3] = encode(directory.getName(row));
+			fields[i * 3 + 1] = encode(directory.getEmail(row));
+			fields[i * 3 + 2] = encode(directory.getPhone(row));
+			length += 4 + 6 + bytes(fields[i * 3]) + bytes(fields[i * 3 + 1]) + bytes(fields[i * 3 + 2]);
+		}
+		if (length > Integer.MAX_VALUE) {
+			throw new IOException("The Person table is too large for a single snapshot file");
+		}
+
+		ByteBuffer out = ByteBuffer.allocate((int) length);
+		out.putInt(MAGIC);
+		out.putInt(FORMAT_VERSION);
+		out.putInt(size);
+		out.putInt(size == 0 ? 0 : directory.getId(rows[size - 1]));
+
+		int offset = HEADER_BYTES + size * INDEX_ENTRY_BYTES;
+		for (int i = 0; i < size; i++) {
+			out.putInt(directory.getId(rows[i]));
+			out.putInt(offset);
+			offset += 4 + 6 + bytes(fields[i * 3]) + bytes(fields[i * 3 + 1]) + bytes(fields[i * 3 + 2]);
+		}
+		for (int i = 0; i < size; i++) {
+			out.putInt(directory.getId(rows[i]));
+			for (int field = 0; field < 3; field++) {
+				byte[] value = fields[i * 3 + field];
+				if (value == null) {
+					out.putShort((short) NULL_LENGTH);
+				} else {
+					out.putShort((short) value.length);
+					out.put(value);
+				}
+			}
+		}
+		out.flip();
+
+		Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+		FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			while (out.hasRemaining()) {
+				channel.write(out);
+			}
+			channel.force(true);
+		} finally {
+			channel.close();
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+	}
+
+	/**
+	 * The number of people currently visible, counting the deltas.
+	 *
+	 * @return the number of people
+	 */
+	public int size() {
+		return count - deleted.size() + added.size();
+	}
+
+	/**
+	 * The highest id stored in the file itself. People with a higher id can
+	 * only come from the deltas.
+	 *
+	 * @return the highest id in the file, or 0 if the file is empty
+	 */
+	public int getMaxFileId() {
+		return maxId;
+	}
+
+	/**
+	 * Looks up a person by id in the deltas and then the file.
+	 *
+	 * @param id
+	 *            the person's distinct ID number
+	 * @return the person, or null if they are not in the snapshot
+	 */
+	public Person findById(int id) {
+		Person person = added.get(id);
+		if (person != null) {
+			return person;
+		}
+		if (deleted.contains(id)) {
+			return null;
+		}
+		int entry = indexOf(id);
+		return entry < 0 ? null : readRecord(buffer.getInt(HEADER_BYTES + entry * INDEX_ENTRY_BYTES + 4));
+	}
+
+	/**
+	 * Passes every visible person to the handler in id order.
+	 *
+	 * @param handler
+	 *            called once per person
+	 */
+	public void forEach(Consumer<Person> handler) {
+		for (int entry = 0; entry < count; entry++) {
+			int position = HEADER_BYTES + entry * INDEX_ENTRY_BYTES;
+			if (!deleted.contains(buffer.getInt(position))) {
+				handler.accept(readRecord(buffer.getInt(position + 4)));
+			}
+		}
+		for (Person person : added.values()) {
+			handler.accept(person);
+		}
+	}
+
+	/**
+	 * Copies every visible person into a list, in id order.
+	 *
+	 * @return an unmodifiable list of the people
+	 */
+	public List<Person> toList() {
+		List<Person> people = new ArrayList<>(size());
+		forEach(people::add);
+		return Collections.unmodifiableList(people);
+	}
+
+	/**
+	 * Records a person inserted since the snapshot was written.
+	 *
+	 * @param person
+	 *            the person, with the id the database gave them
+	 */
+	public void applyInsert(Person person) {
+		added.put(person.getId(), person);
+	}
+
+	/**
+	 * Records a person deleted since the snapshot was written.
+	 *
+	 * @param id
+	 *            the distinct ID number of the deleted person
+	 */
+	public void applyDelete(int id) {
+		if (added.remove(id) == null && indexOf(id) >= 0) {
+			deleted.add(id);
+		}
+	}
+
+	/**
+	 * Brings the deltas up to date with the database: people with ids above
+	 * those already held are read in pages, and any id that is no longer in
+	 * the table is marked deleted. Only the primary key is read to find
+	 * deletions.
+	 *
+	 * @param appData
+	 *            the middleware to read the changes through
+	 * @param pageSize
+	 *            how many new people to read per round trip
+	 * @param currentIds
+	 *            every id currently in the Person table, in increasing order
+	 */
+	void refresh(AppData appData, int pageSize, int[] currentIds) {
+		for (int entry = 0; entry < count; entry++) {
+			int id = buffer.getInt(HEADER_BYTES + entry * INDEX_ENTRY_BYTES);
+			if (Arrays.binarySearch(currentIds, id) < 0) {
+				deleted.add(id);
+			}
+		}
+		for (Map.Entry<Integer, Person> entry : added.entrySet()) {
+			if (Arrays.binarySearch(currentIds, entry.getKey()) < 0) {
+				added.remove(entry.getKey());
+			}
+		}
+
+		int lastId = added.isEmpty() ? maxId : Math.max(maxId, added.lastKey());
+		String cursor = PersonPage.cursorAfter(lastId);
+		while (cursor != null) {
+			PersonPage page = appData.findPeoplePage(cursor, pageSize);
+			for (Person person : page.getPeople()) {
+				added.put(person.getId(), person);
+			}
+			cursor = page.getNextCursor();
+		}
+	}
+
+	/**
+	 * Finds the index entry for an id by binary search over the mapped index.
+	 *
+	 * @return the entry number, or -1 if the id is not in the file
+	 */
+	private int indexOf(int id) {
+		int low = 0;
+		int high = count - 1;
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int middleId = buffer.getInt(HEADER_BYTES + middle * INDEX_ENTRY_BYTES);
+			if (middleId < id) {
+				low = middle + 1;
+			} else if (middleId > id) {
+				high = middle - 1;
+			} else {
+				return middle;
+			}
+		}
+		return -1;
+	}
+
+	private Person readRecord(int offset) {
+		ByteBuffer record = buffer.duplicate();
+		record.position(offset);
+		int id = record.getInt();
+		String name = decode(record);
+		String email = decode(record);
+		String phone = decode(record);
+		return new Person(id, name, email, phone);
+	}
+
+	private static String decode(ByteBuffer record) {
+		int length = record.getShort() & 0xFFFF;
+		if (length == NULL_LENGTH) {
+			return null;
+		}
+		byte[] value = new byte[length];
+		record.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	private static byte[] encode(String value) throws IOException {
+		if (value == null) {
+			return null;
+		}
+		byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+		if (encoded.length >= NULL_LENGTH) {
+			throw new IOException("A value is too long for a snapshot record");
+		}
+		return encoded;
+	}
+
+	private static int bytes(byte[] value) {
+		return value == null ? 0 : value.length;
+	}
+
+}
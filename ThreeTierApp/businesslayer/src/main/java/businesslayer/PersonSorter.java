@@ -0,0 +1,254 @@
+package businesslayer;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * The PersonSorter sorts lists of people by any combination of name, email
+ * and id. Text is compared ignoring case, either character by character as
+ * String.compareToIgnoreCase does, or in the order a reader of a given
+ * locale expects, where accented letters sort next to the letters they are
+ * based on.
+ *
+ * Upper-casing two names for every comparison creates garbage in proportion
+ * to n log n, and comparing with a Collator is slower still. Instead each
+ * person's sort key is worked out once, before sorting, and its start is
+ * packed into a long: the first four case-folded characters, or the first
+ * eight bytes of the CollationKey when sorting for a locale. Most
+ * comparisons are then decided by comparing two longs without allocating
+ * anything; only people whose keys share a prefix compare the rest.
+ *
+ * Building a CollationKey costs more than a few comparisons, so sorting
+ * for a locale is slower than sorting by character, and is worth it when
+ * the order must be right for accented names.
+ *
+ * Lists of PARALLEL_THRESHOLD people or more have their keys built and are
+ * sorted on every core. The sort is stable, so people who are equal on every
+ * field keep their order.
+ *
+ * A PersonSorter may be shared between threads.
+ *
+ */
+public final class PersonSorter {
+
+	/**
+	 * The fields people can be ordered by.
+	 */
+	public enum Field {
+		NAME, EMAIL, ID
+	}
+
+	/**
+	 * Lists at least this long are sorted in parallel.
+	 */
+	public static final int PARALLEL_THRESHOLD = 8192;
+
+	/**
+	 * The collator for a locale's order, or null to compare by character.
+	 */
+	private final Collator collator;
+	private final Field[] fields;
+
+	private PersonSorter(Collator collator, Field[] fields) {
+		if (fields.length == 0) {
+			throw new IllegalArgumentException("At least one field to sort by is required");
+		}
+		this.collator = collator;
+		this.fields = fields.clone();
+	}
+
+	/**
+	 * Creates a sorter that compares text character by character, ignoring
+	 * case, in the same order as Person.PersonNameComparator.
+	 *
+	 * @param fields
+	 *            the fields to order by, most significant first
+	 * @return the sorter
+	 */
+	public static PersonSorter by(Field... fields) {
+		return new PersonSorter(null, fields);
+	}
+
+	/**
+	 * Creates a sorter for the given locale.
+	 *
+	 * @param locale
+	 *            the locale whose alphabetical order is used
+	 * @param fields
+	 *            the fields to order by, most significant first
+	 * @return the sorter
+	 */
+	public static PersonSorter by(Locale locale, Field... fields) {
+		Collator collator = Collator.getInstance(locale);
+		collator.setStrength(Collator.SECONDARY);
+		return new PersonSorter(collator, fields);
+	}
+
+	/**
+	 * Creates a sorter that also orders by the given field where people are
+	 * equal on the fields of this one.
+	 *
+	 * @param field
+	 *            the next field to order by
+	 * @return a new sorter
+	 */
+	public PersonSorter thenBy(Field field) {
+		Field[] longer = Arrays.copyOf(fields, fields.length + 1);
+		longer[fields.length] = field;
+		return new PersonSorter(collator, longer);
+	}
+
+	/**
+	 * Sorts a list in place.
+	 *
+	 * @param people
+	 *            the list to sort, which must support set()
+	 */
+	public void sort(List<Person> people) {
+		Keyed[] keyed = keys(people);
+
+		if (keyed.length >= PARALLEL_THRESHOLD) {
+			Arrays.parallelSort(keyed, this::compare);
+		} else {
+			Arrays.sort(keyed, this::compare);
+		}
+
+		ListIterator<Person> out = people.listIterator();
+		for (Keyed entry : keyed) {
+			out.next();
+			out.set(entry.person);
+		}
+	}
+
+	/**
+	 * Builds the sort keys of every person, on every core for a large list.
+	 * A Collator may only be used by one thread at a time, so each thread
+	 * works with a copy of its own.
+	 */
+	private Keyed[] keys(List<Person> people) {
+		Person[] array = people.toArray(new Person[0]);
+		Keyed[] keyed = new Keyed[array.length];
+
+		if (array.length >= PARALLEL_THRESHOLD) {
+			ThreadLocal<Collator> collators = ThreadLocal.withInitial(this::newCollator);
+			IntStream.range(0, array.length).parallel()
+					.forEach(i -> keyed[i] = new Keyed(array[i], collators.get(), fields));
+		} else {
+			Collator own = newCollator();
+			for (int i = 0; i < array.length; i++) {
+				keyed[i] = new Keyed(array[i], own, fields);
+			}
+		}
+
+		return keyed;
+	}
+
+	private Collator newCollator() {
+		return collator == null ? null : (Collator) collator.clone();
+	}
+
+	private int compare(Keyed a, Keyed b) {
+		for (Field field : fields) {
+			int order;
+			switch (field) {
+			case NAME:
+				order = compareText(a.namePrefix, a.nameKey, a.name, b.namePrefix, b.nameKey, b.name);
+				break;
+			case EMAIL:
+				order = compareText(a.emailPrefix, a.emailKey, a.email, b.emailPrefix, b.emailKey, b.email);
+				break;
+			default:
+				order = Integer.compare(a.person.getId(), b.person.getId());
+				break;
+			}
+			if (order != 0) {
+				return order;
+			}
+		}
+		return 0;
+	}
+
+	private static int compareText(long prefixA, CollationKey keyA, String textA, long prefixB,
+			CollationKey keyB, String textB) {
+		int order = Long.compareUnsigned(prefixA, prefixB);
+		if (order != 0) {
+			return order;
+		}
+		return keyA != null ? keyA.compareTo(keyB) : textA.compareToIgnoreCase(textB);
+	}
+
+	/**
+	 * A person and the keys they are sorted by. The CollationKeys are only
+	 * built when sorting for a locale.
+	 */
+	private static final class Keyed {
+
+		private final Person person;
+		private final String name;
+		private final String email;
+		private CollationKey nameKey;
+		private CollationKey emailKey;
+		private long namePrefix;
+		private long emailPrefix;
+
+		private Keyed(Person person, Collator collator, Field[] fields) {
+			this.person = person;
+			this.name = text(person.getName());
+			this.email = text(person.getEmail());
+			for (Field field : fields) {
+				if (field == Field.NAME) {
+					if (collator != null) {
+						nameKey = collator.getCollationKey(name);
+						namePrefix = prefix(nameKey);
+					} else {
+						namePrefix = prefix(name);
+					}
+				} else if (field == Field.EMAIL) {
+					if (collator != null) {
+						emailKey = collator.getCollationKey(email);
+						emailPrefix = prefix(emailKey);
+					} else {
+						emailPrefix = prefix(email);
+					}
+				}
+			}
+		}
+
+		private static String text(String value) {
+			return value == null ? "" : value;
+		}
+
+		/**
+		 * Packs the first four characters of a text, folded the way
+		 * compareToIgnoreCase folds them, into a long that compares,
+		 * unsigned, the way those characters compare.
+		 */
+		private static long prefix(String text) {
+			long prefix = 0;
+			for (int i = 0; i < 4; i++) {
+				char c = i < text.length() ? Character.toLowerCase(Character.toUpperCase(text.charAt(i))) : 0;
+				prefix = (prefix << 16) | c;
+			}
+			return prefix;
+		}
+
+		/**
+		 * Packs the first eight bytes of a key into a long that compares,
+		 * unsigned, the way the key bytes compare.
+		 */
+		private static long prefix(CollationKey key) {
+			byte[] bytes = key.toByteArray();
+			long prefix = 0;
+			for (int i = 0; i < Long.BYTES; i++) {
+				prefix = (prefix << 8) | (i < bytes.length ? bytes[i] & 0xFF : 0);
+			}
+			return prefix;
+		}
+	}
+
+}
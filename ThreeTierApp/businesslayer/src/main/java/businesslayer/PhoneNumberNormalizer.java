@@ -0,0 +1,69 @@
+package businesslayer;
+
+import java.util.Collection;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * The PhoneNumberNormalizer validates and normalizes large batches of phone
+ * numbers, such as a nightly import of customer contact data. Numbers are
+ * checked in parallel across all cores, and bad numbers are recorded as
+ * TelephoneError codes in the result instead of being thrown as exceptions,
+ * which would capture a stack trace for every bad row.
+ *
+ */
+public class PhoneNumberNormalizer {
+
+	/**
+	 * Batches smaller than this are checked on the calling thread, where
+	 * splitting the work would cost more than it saves.
+	 */
+	private static final int PARALLEL_THRESHOLD = 4096;
+
+	private PhoneNumberNormalizer() {
+
+	}
+
+	/**
+	 * Validates and normalizes a batch of phone numbers.
+	 * 
+	 * @param rawNumbers
+	 *            the phone numbers as entered, in row order
+	 * @return the outcome for each row, in the same order
+	 */
+	public static NormalizationResult normalize(Collection<? extends CharSequence> rawNumbers) {
+		return normalize(rawNumbers.toArray(new CharSequence[rawNumbers.size()]));
+	}
+
+	/**
+	 * Validates and normalizes a stream of phone numbers. The stream is
+	 * collected before it is checked so that every row keeps its position.
+	 * 
+	 * @param rawNumbers
+	 *            the phone numbers as entered, in row order
+	 * @return the outcome for each row, in the same order
+	 */
+	public static NormalizationResult normalize(Stream<? extends CharSequence> rawNumbers) {
+		return normalize(rawNumbers.toArray(CharSequence[]::new));
+	}
+
+	/**
+	 * Validates and normalizes an array of phone numbers.
+	 * 
+	 * @param rawNumbers
+	 *            the phone numbers as entered, in row order
+	 * @return the outcome for each row, in the same order
+	 */
+	public static NormalizationResult normalize(CharSequence[] rawNumbers) {
+		long[] parsed = new long[rawNumbers.length];
+
+		IntStream rows = IntStream.range(0, rawNumbers.length);
+		if (rawNumbers.length >= PARALLEL_THRESHOLD) {
+			rows = rows.parallel();
+		}
+		rows.forEach(row -> parsed[row] = TelephoneNumber.parse(rawNumbers[row]));
+
+		return new NormalizationResult(rawNumbers, parsed);
+	}
+
+}
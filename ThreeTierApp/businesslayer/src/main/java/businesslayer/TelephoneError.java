@@ -0,0 +1,42 @@
+package businesslayer;
+
+/**
+ * The reasons a telephone number can fail validation. They let bulk
+ * operations report bad numbers as data instead of throwing an
+ * InvalidTelephoneException for each one.
+ *
+ */
+public enum TelephoneError {
+
+	/**
+	 * No phone number was given at all.
+	 */
+	MISSING("No phone number was entered"),
+
+	/**
+	 * The number starts with a 1 but does not have 11 digits.
+	 */
+	LONG_DISTANCE_LENGTH("The phone number entered must be 11 digits if starting with a 1"),
+
+	/**
+	 * The number starts with something other than 1 but does not have 10
+	 * digits.
+	 */
+	LOCAL_LENGTH("The phone number entered must be 10 digits or start with a 1");
+
+	private final String message;
+
+	private TelephoneError(String message) {
+		this.message = message;
+	}
+
+	/**
+	 * Retrieves the message shown to a user who entered such a number.
+	 * 
+	 * @return the message
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+}
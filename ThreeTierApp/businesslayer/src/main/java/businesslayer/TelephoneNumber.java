@@ -0,0 +1,379 @@
+package businesslayer;
+
+/**
+ * The Telephone Number class cleans and stores Phone Numbers for use in any of
+ * the main program areas. It is designed so that as long as an entry has the
+ * correct number of digits, it will still parse a phone number no matter what
+ * the user enters.
+ * 
+ * Standard entries generally have examples such as:
+ * <ul>
+ * <li>999 867 5309</li>
+ * <li>(999)867-5309</li>
+ * <li>1 (999) 867-5309</li>
+ * <li>999.867.5309</li>
+ * <li>9998675309</li>
+ * <li>1 999 867-5309</li>
+ * </ul>
+ */
+
+public class TelephoneNumber {
+
+	/**
+	 * Multiplier of the long distance code in the packed number.
+	 */
+	private static final long LONG_DISTANCE_FACTOR = 10000000000L;
+
+	/**
+	 * The area code, exchange and local number packed as the ten digit value
+	 * AAAEEELLLL. The strings returned by the getters are built from it only
+	 * when they are asked for.
+	 */
+	private long digits;
+
+	/**
+	 * Whether the number was entered with the long distance code "1".
+	 */
+	private boolean longDistance = false;
+
+	/**
+	 * The formatted number, built the first time toString() is called.
+	 */
+	private String formatted;
+
+	/**
+	 * The Constructor method will fail and throw an exception if a user enters
+	 * an invalid phone number. Invalid phone numbers are those with less than
+	 * 11 digits if beginning with a "1" or less than 10 digits if beginning
+	 * with Area Code.
+	 * 
+	 * If a phone number starts with "1", the constructor will disregard that
+	 * when creating the cleanNumber string for parsing and will hard code that
+	 * number in a separate variable.
+	 * 
+	 * The entry is read in a single pass that skips anything that is not a
+	 * digit, counts the digits and accumulates them into a primitive value,
+	 * so no intermediate strings are created.
+	 *
+	 * @version 2
+	 * @param phoneNumber
+	 *            the phone number entered by the user and passed into the
+	 *            Constructor. The constructor cleans and checks the phone
+	 *            number prior to storing its digits.
+	 * @exception InvalidTelephoneException
+	 *                throws an error if the validation fails either test.
+	 * @see stringCleaner(String phoneNumber)
+	 */
+
+	public TelephoneNumber(String phoneNumber) throws InvalidTelephoneException {
+
+		long packed = parse(phoneNumber);
+		if (packed < 0) {
+			throw new InvalidTelephoneException(errorOf(packed).getMessage());
+		}
+		setPackedNumber(packed);
+	}
+
+	/**
+	 * Creates a telephone number from a value returned by getPackedNumber().
+	 * 
+	 * @param packedNumber
+	 *            the packed phone number
+	 */
+	TelephoneNumber(long packedNumber) {
+		setPackedNumber(packedNumber);
+	}
+
+	/**
+	 * Reads and validates a phone number in a single pass without allocating.
+	 * Anything that is not a digit is skipped; the digits are counted and
+	 * accumulated into the packed value.
+	 * 
+	 * @param phoneNumber
+	 *            the phone number as entered
+	 * @return the packed number, or a negative value that errorOf() turns
+	 *         into the reason the number is invalid
+	 */
+	static long parse(CharSequence phoneNumber) {
+
+		if (phoneNumber == null) {
+			return -1 - TelephoneError.MISSING.ordinal();
+		}
+
+		int count = 0;
+		int first = -1;
+		long value = 0;
+
+		for (int i = 0; i < phoneNumber.length(); i++) {
+			int digit = Character.digit(phoneNumber.charAt(i), 10);
+			if (digit < 0) {
+				continue;
+			}
+			if (count == 0) {
+				first = digit;
+			}
+			// Anything past eleven digits is invalid, so stop accumulating
+			// rather than overflow.
+			if (count < 11) {
+				value = value * 10 + digit;
+			}
+			count++;
+		}
+
+		// Test to see if the phone number starts with a 1 and is 11 digits
+		if (first == 1 && count != 11) {
+			return -1 - TelephoneError.LONG_DISTANCE_LENGTH.ordinal();
+		}
+		// Test to see if the phone number starts with something other than 1
+		// and is 10 digits
+		if (first != 1 && count != 10) {
+			return -1 - TelephoneError.LOCAL_LENGTH.ordinal();
+		}
+		return value;
+	}
+
+	/**
+	 * Turns a negative result from parse() into the validation error it
+	 * stands for.
+	 * 
+	 * @param parsed
+	 *            a negative value returned by parse()
+	 * @return the error
+	 */
+	static TelephoneError errorOf(long parsed) {
+		return TelephoneError.values()[(int) (-1 - parsed)];
+	}
+
+	/**
+	 * Stores a packed number, splitting off the long distance code so that
+	 * the remaining 10 digits are the area code, exchange and local number.
+	 */
+	private void setPackedNumber(long packedNumber) {
+		longDistance = packedNumber >= LONG_DISTANCE_FACTOR;
+		digits = longDistance ? packedNumber - LONG_DISTANCE_FACTOR : packedNumber;
+		formatted = null;
+	}
+
+	/**
+	 * Retrieves the phone number entered by the user after it has been cleaned
+	 * of any character that is not a digit and passed validation
+	 * 
+	 * @return cleanNumber - the phone number in a 10 digit string, without
+	 *         the long distance code.
+	 */
+	public String getCleanNumber() {
+
+		return pad(digits, 10);
+	}
+
+	/**
+	 * Sets the phone number instance variable after the user entry has passed
+	 * validation
+	 * 
+	 * @param phoneNumber
+	 *            the 10 digit phoneNumber that has been checked from the
+	 *            stringCleaner()
+	 * @see stringCleaner(String phoneNumber)
+	 */
+	public void setCleanNumber(String phoneNumber) {
+
+		this.digits = parseDigits(phoneNumber, 0, phoneNumber.length());
+		this.formatted = null;
+	}
+
+	/**
+	 * Retrieves the area code of the instance.
+	 * 
+	 * @return areaCode - the area code in a 3 digit string.
+	 */
+
+	public String getAreaCode() {
+		return pad(digits / 10000000, 3);
+	}
+
+	/**
+	 * Sets the instance area code based on the first 3 digits of the validated
+	 * phone number.
+	 * 
+	 * @param phoneNumber
+	 *            this is the String phone number after it has been normalized.
+	 */
+	public void setAreaCode(String phoneNumber) {
+
+		this.digits = parseDigits(phoneNumber, 0, 3) * 10000000 + digits % 10000000;
+		this.formatted = null;
+	}
+
+	/**
+	 * Retrieves the exchange code of the instance.
+	 * 
+	 * @return exchange - the exchange code in a 3 digit string.
+	 */
+	public String getExchange() {
+		return pad(digits / 10000 % 1000, 3);
+	}
+
+	/**
+	 * Sets the instance exchange code based on the second 3 digits of the
+	 * validated phone number.
+	 * 
+	 * @param phoneNumber
+	 *            this is the String phone number after it has been normalized.
+	 */
+	public void setExchange(String phoneNumber) {
+
+		this.digits = digits - digits / 10000 % 1000 * 10000 + parseDigits(phoneNumber, 3, 6) * 10000;
+		this.formatted = null;
+	}
+
+	/**
+	 * Retrieves the local number of the instance.
+	 * 
+	 * @return localNumber - the local number in a 4 digit string.
+	 */
+	public String getLocalNumber() {
+
+		return pad(digits % 10000, 4);
+	}
+
+	/**
+	 * Sets the instance local number code based on the last 4 digits of the
+	 * validated phone number.
+	 * 
+	 * @param phoneNumber
+	 *            this is the String phone number after it has been normalized.
+	 */
+	public void setLocalNumber(String phoneNumber) {
+
+		this.digits = digits - digits % 10000 + parseDigits(phoneNumber, 6, 10);
+		this.formatted = null;
+	}
+
+	/**
+	 * Retrieves the whole number as a single primitive: the ten digits
+	 * AAAEEELLLL, plus 10000000000 when the long distance code was entered.
+	 * This is the same value as the digits the user entered read as one
+	 * number.
+	 * 
+	 * @return the packed phone number
+	 */
+	public long getPackedNumber() {
+		return longDistance ? LONG_DISTANCE_FACTOR + digits : digits;
+	}
+
+	/**
+	 * Normalizes the phone number to a string of digits by only pulling in the
+	 * characters that are digits and creating the string from those digits.
+	 * 
+	 * @param phoneNumber
+	 *            this is the user entered string for validation and cleaning
+	 * @return a String of digits that is suitable for validation.
+	 */
+	public String stringCleaner(String phoneNumber) {
+		StringBuilder cleanPhoneNumber = new StringBuilder(phoneNumber.length());
+		for (int i = 0; i < phoneNumber.length(); i++) {
+			char c = phoneNumber.charAt(i);
+			if (Character.isDigit(c)) {
+				cleanPhoneNumber.append(c);
+			}
+		}
+		return cleanPhoneNumber.toString();
+	}
+
+	/**
+	 * This method tests to see if the phone number starts with a 1 and is 11
+	 * digits.
+	 * 
+	 * @param phoneNumber
+	 *            the phone number passed to the method
+	 * @return true/false depending on validation check
+	 */
+	public boolean isValidLongDistanceNumber(String phoneNumber) {
+		if (phoneNumber.startsWith("1") && phoneNumber.length() != 11) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * This method tests to see if the phone number starts with a number other
+	 * than 1 and is 10 digits.
+	 * 
+	 * @param phoneNumber
+	 *            the phone number passed to the method
+	 * @return true/false depending on validation check
+	 */
+	public boolean isValidLocalNumber(String phoneNumber) {
+		if ((!phoneNumber.startsWith("1")) && phoneNumber.length() != 10) {
+			return false;
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * This method overrides the Object.toString() method to allow the program
+	 * to set the proper formatting of a phone number depending on whether it is
+	 * local or long distance. The text is built from the packed digits the
+	 * first time it is needed and reused afterwards.
+	 * 
+	 * @return the formatted number, such as "1 (999) 867-5309" or
+	 *         "(999) 867-5309".
+	 */
+	@Override
+	public String toString() {
+		if (formatted == null) {
+			char[] text = new char[longDistance ? 16 : 14];
+			int i = 0;
+			if (longDistance) {
+				text[i++] = '1';
+				text[i++] = ' ';
+			}
+			text[i++] = '(';
+			i = writeDigits(text, i, digits / 10000000, 3);
+			text[i++] = ')';
+			text[i++] = ' ';
+			i = writeDigits(text, i, digits / 10000 % 1000, 3);
+			text[i++] = '-';
+			writeDigits(text, i, digits % 10000, 4);
+			formatted = new String(text);
+		}
+		return formatted;
+	}
+
+	/**
+	 * Writes a value as a fixed number of digits, with leading zeros.
+	 * 
+	 * @return the position after the last digit written
+	 */
+	private static int writeDigits(char[] text, int offset, long value, int width) {
+		for (int i = offset + width - 1; i >= offset; i--) {
+			text[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return offset + width;
+	}
+
+	private static String pad(long value, int width) {
+		char[] text = new char[width];
+		writeDigits(text, 0, value, width);
+		return new String(text);
+	}
+
+	/**
+	 * Reads the digits found between two positions of a string as a number,
+	 * ignoring anything that is not a digit.
+	 */
+	private static long parseDigits(String phoneNumber, int from, int to) {
+		long value = 0;
+		for (int i = from; i < to; i++) {
+			int digit = Character.digit(phoneNumber.charAt(i), 10);
+			if (digit >= 0) {
+				value = value * 10 + digit;
+			}
+		}
+		return value;
+	}
+
+}
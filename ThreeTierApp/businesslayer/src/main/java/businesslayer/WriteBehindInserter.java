@@ -0,0 +1,299 @@
+package businesslayer;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The WriteBehindInserter queues inserted people and writes them to the
+ * database from a background thread in batches, each in a single
+ * transaction. A burst of sign-ups then costs a handful of commits instead
+ * of one commit per person.
+ *
+ * A batch is written once it holds maxBatchSize people, or once the oldest
+ * person in it has waited maxDelayMillis. The queue is bounded: when it is
+ * full, submit() blocks until the writer has made room, so a burst slows
+ * callers down rather than using up the heap.
+ *
+ * A queued person is not in the database yet and is not returned by
+ * searches until their batch is written. flush() waits for everyone
+ * submitted so far to be written, and close() flushes and stops the writer.
+ * Both throw the first error a batch failed with since the last flush or
+ * close, so neither reports success for people who were lost.
+ *
+ */
+public class WriteBehindInserter {
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.appdata");
+
+	private final AppData appData;
+	private final int maxBatchSize;
+	private final long maxDelayMillis;
+	private final BlockingQueue<Pending> queue;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Creates an inserter and starts its writer thread.
+	 *
+	 * @param appData
+	 *            the middleware the batches are written through
+	 * @param capacity
+	 *            the most people that may wait in the queue
+	 * @param maxBatchSize
+	 *            the most people written in one transaction
+	 * @param maxDelayMillis
+	 *            the longest a person waits before their batch is written
+	 */
+	WriteBehindInserter(AppData appData, int capacity, int maxBatchSize, long maxDelayMillis) {
+		if (capacity < 1 || maxBatchSize < 1 || maxDelayMillis < 0) {
+			throw new IllegalArgumentException("Capacity and batch size must be at least 1 and the delay not negative");
+		}
+		this.appData = appData;
+		this.maxBatchSize = maxBatchSize;
+		this.maxDelayMillis = maxDelayMillis;
+		this.queue = new ArrayBlockingQueue<>(capacity);
+
+		Thread writer = new Thread(this::writeLoop, "WriteBehindInserter-writer");
+		writer.setDaemon(true);
+		writer.start();
+	}
+
+	/**
+	 * Queues a person to be inserted, waiting for room if the queue is full.
+	 *
+	 * @param person
+	 *            the person to insert
+	 * @return a future completed with the person, holding their new identity
+	 *         key, once their batch has been committed
+	 * @throws IllegalStateException
+	 *             if the inserter has been closed
+	 */
+	public CompletableFuture<Person> submit(Person person) {
+		Pending pending = new Pending(person);
+		enqueue(pending);
+		return pending.done.thenApply(ignored -> person);
+	}
+
+	/**
+	 * Waits until every person submitted before this call has been written.
+	 *
+	 * @throws SQLException
+	 *             the first error a batch failed with since the last flush,
+	 *             if any did
+	 * @throws IllegalStateException
+	 *             if the inserter has been closed
+	 */
+	public void flush() throws SQLException {
+		Pending barrier = new Pending(null);
+		enqueue(barrier);
+		await(barrier.done);
+	}
+
+	/**
+	 * Writes everyone still queued and stops the writer thread. Later
+	 * submissions are refused.
+	 *
+	 * @throws SQLException
+	 *             the first error a batch failed with since the last flush,
+	 *             if any did
+	 */
+	public void close() throws SQLException {
+		Pending stop = new Pending(null);
+		stop.stop = true;
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+			putUninterruptibly(stop);
+		}
+		await(stop.done);
+	}
+
+	/**
+	 * The number of people waiting to be written.
+	 *
+	 * @return the queue length, counting flush requests
+	 */
+	public int getQueuedCount() {
+		return queue.size();
+	}
+
+	/**
+	 * Queues a request. Holding the lock while waiting for room guarantees
+	 * nothing is queued behind the stop request.
+	 */
+	private synchronized void enqueue(Pending pending) {
+		if (closed) {
+			throw new IllegalStateException("The write-behind inserter has been closed");
+		}
+		putUninterruptibly(pending);
+	}
+
+	private void putUninterruptibly(Pending pending) {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				queue.put(pending);
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for a flush or stop request to be answered, rethrowing the batch
+	 * failure it was answered with.
+	 */
+	private static void await(CompletableFuture<Void> done) throws SQLException {
+		boolean interrupted = false;
+		try {
+			while (true) {
+				try {
+					done.get();
+					return;
+				} catch (InterruptedException e) {
+					// The barrier must be waited for, or a failure could be lost.
+					interrupted = true;
+				}
+			}
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException) {
+				throw (SQLException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			throw new SQLException("A write-behind batch failed", cause);
+		} finally {
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+	}
+
+	/**
+	 * Takes people off the queue and writes them in batches until told to
+	 * stop. A flush or stop request ends the batch being gathered, so it is
+	 * written before the request is answered. The request fails with the
+	 * first batch failure since the previous request.
+	 */
+	private void writeLoop() {
+		List<Pending> batch = new ArrayList<>(maxBatchSize);
+		Exception failure = null;
+		while (true) {
+			Pending first;
+			try {
+				first = queue.take();
+			} catch (InterruptedException e) {
+				continue;
+			}
+
+			Pending control = null;
+			if (first.person == null) {
+				control = first;
+			} else {
+				batch.add(first);
+				long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMillis);
+				while (batch.size() < maxBatchSize) {
+					Pending next = queue.poll();
+					if (next == null) {
+						long remaining = deadline - System.nanoTime();
+						if (remaining <= 0) {
+							break;
+						}
+						try {
+							next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+						} catch (InterruptedException e) {
+							break;
+						}
+						if (next == null) {
+							break;
+						}
+					}
+					if (next.person == null) {
+						control = next;
+						break;
+					}
+					batch.add(next);
+				}
+			}
+
+			Exception failed = write(batch);
+			if (failure == null) {
+				failure = failed;
+			}
+			batch.clear();
+
+			if (control != null) {
+				if (failure != null) {
+					control.done.completeExceptionally(failure);
+					failure = null;
+				} else {
+					control.done.complete(null);
+				}
+				if (control.stop) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes a batch in one transaction.
+	 *
+	 * @return the error the batch failed with, or null if it was written
+	 */
+	private Exception write(List<Pending> batch) {
+		if (batch.isEmpty()) {
+			return null;
+		}
+
+		List<Person> people = new ArrayList<>(batch.size());
+		for (Pending pending : batch) {
+			people.add(pending.person);
+		}
+
+		try {
+			appData.storePeople(people);
+			for (Pending pending : batch) {
+				pending.done.complete(null);
+			}
+			return null;
+		} catch (SQLException | RuntimeException e) {
+			LOG.log(Level.WARNING, "Unable to write a batch of " + batch.size() + " people", e);
+			for (Pending pending : batch) {
+				pending.done.completeExceptionally(e);
+			}
+			return e;
+		}
+	}
+
+	/**
+	 * A queued person, or a flush or stop request when person is null.
+	 */
+	private static final class Pending {
+
+		private final Person person;
+		private final CompletableFuture<Void> done = new CompletableFuture<>();
+		private boolean stop;
+
+		private Pending(Person person) {
+			this.person = person;
+		}
+	}
+
+}
@@ -0,0 +1,367 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import datalayer.DeleteResult;
+import datalayer.PersonRepositories;
+
+/**
+ * Hammers AppData with inserts, searches, full reads and deletes from many
+ * threads at once, on the in-memory embedded engine so no database server is
+ * needed. Every test works on people whose names carry a tag of its own, as
+ * the AppData instance and its table are shared by the whole run.
+ *
+ */
+class AppDataConcurrencyTest {
+
+	private static final int THREADS = 8;
+	private static final long TIMEOUT_SECONDS = 60;
+
+	private static ExecutorService pool;
+	private static AppData appData;
+
+	@BeforeAll
+	static void startEmbedded() {
+		// Read when AppData is first created, so set before getAppData().
+		System.setProperty(PersonRepositories.REPOSITORY_PROPERTY, "embedded");
+		System.setProperty(PersonRepositories.EMBEDDED_LOG_PROPERTY, "none");
+		appData = AppData.getAppData();
+		pool = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterAll
+	static void stopPool() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void concurrentInsertsGetUniqueIds() throws Exception {
+		String tag = newTag();
+		int perThread = 250;
+
+		List<Callable<List<Integer>>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			tasks.add(() -> {
+				List<Integer> ids = new ArrayList<>();
+				for (int i = 0; i < perThread; i++) {
+					Person person = newPerson(tag, thread * perThread + i);
+					appData.insertPerson(person);
+					ids.add(person.getId());
+				}
+				return ids;
+			});
+		}
+
+		Set<Integer> ids = new HashSet<>();
+		for (List<Integer> threadIds : runAll(tasks)) {
+			for (int id : threadIds) {
+				assertTrue(id > 0, "every insert is given an id");
+				assertTrue(ids.add(id), "id " + id + " was given out twice");
+			}
+		}
+		assertEquals(THREADS * perThread, ids.size());
+
+		Set<Integer> stored = idsOf(tagged(appData.findAllPeople(), tag));
+		assertEquals(ids, stored);
+		assertEquals(ids, idsOf(appData.selectPerson(tag)));
+	}
+
+	@Test
+	void mixedWorkloadLeavesConsistentCounts() throws Exception {
+		String tag = newTag();
+		int initial = 400;
+		int insertsPerThread = 100;
+
+		List<Person> seeded = new ArrayList<>();
+		for (int i = 0; i < initial; i++) {
+			seeded.add(newPerson(tag, i));
+		}
+		assertEquals(initial, appData.insertPeople(seeded));
+
+		// Each deleting thread owns its own share of the seeded people.
+		List<List<Integer>> shares = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			shares.add(new ArrayList<>());
+		}
+		for (int i = 0; i < seeded.size(); i += 2) {
+			shares.get(i / 2 % THREADS).add(seeded.get(i).getId());
+		}
+
+		Set<Integer> deleted = ConcurrentHashMap.newKeySet();
+		Set<Integer> inserted = ConcurrentHashMap.newKeySet();
+		AtomicInteger nextIndex = new AtomicInteger(initial);
+		CountDownLatch start = new CountDownLatch(1);
+
+		List<Callable<Void>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			List<Integer> share = shares.get(t);
+			tasks.add(() -> {
+				start.await();
+				Random random = new Random(share.hashCode());
+				int insertsLeft = insertsPerThread;
+				int deleteIndex = 0;
+				while (insertsLeft > 0 || deleteIndex < share.size()) {
+					switch (random.nextInt(4)) {
+					case 0:
+						if (insertsLeft > 0) {
+							Person person = newPerson(tag, nextIndex.getAndIncrement());
+							appData.insertPerson(person);
+							assertTrue(person.getId() > 0);
+							assertTrue(inserted.add(person.getId()));
+							insertsLeft--;
+						}
+						break;
+					case 1:
+						if (deleteIndex < share.size()) {
+							int id = share.get(deleteIndex++);
+							DeleteResult result = appData.deletePerson(id);
+							assertTrue(result.isDeleted(), "customer " + id + " was deleted");
+							deleted.add(id);
+						}
+						break;
+					case 2:
+						checkSearch(appData.selectPerson(tag), tag);
+						break;
+					default:
+						List<Person> all = appData.findAllPeople();
+						assertNoDuplicateIds(all);
+						assertIsolated(all, appData.findAllPeople());
+						break;
+					}
+				}
+				return null;
+			});
+		}
+
+		List<Future<Void>> futures = submitAll(tasks);
+		start.countDown();
+		waitFor(futures);
+
+		int expected = initial - deleted.size() + inserted.size();
+		assertEquals(initial / 2, deleted.size());
+		assertEquals(THREADS * insertsPerThread, inserted.size());
+
+		List<Person> remaining = tagged(appData.findAllPeople(), tag);
+		assertEquals(expected, remaining.size());
+		assertEquals(idsOf(remaining), idsOf(appData.selectPerson(tag)));
+		for (int id : deleted) {
+			assertNull(appData.findPerson(id), "customer " + id + " is gone");
+			assertTrue(!idsOf(remaining).contains(id));
+		}
+		assertTrue(idsOf(remaining).containsAll(inserted));
+	}
+
+	@Test
+	void insertsSurviveWriteBehindBeingSwitched() throws Exception {
+		String tag = newTag();
+		int perThread = 200;
+
+		List<Callable<List<Person>>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			int thread = t;
+			tasks.add(() -> {
+				List<Person> people = new ArrayList<>();
+				for (int i = 0; i < perThread; i++) {
+					Person person = newPerson(tag, thread * perThread + i);
+					appData.insertPerson(person);
+					people.add(person);
+				}
+				return people;
+			});
+		}
+
+		List<Future<List<Person>>> futures = submitAll(tasks);
+		try {
+			while (!allDone(futures)) {
+				appData.enableWriteBehind(64, 16, 1);
+				appData.disableWriteBehind();
+			}
+		} finally {
+			appData.disableWriteBehind();
+		}
+
+		Set<Integer> ids = new HashSet<>();
+		for (List<Person> people : waitFor(futures)) {
+			for (Person person : people) {
+				assertTrue(person.getId() > 0, "every insert is written");
+				assertTrue(ids.add(person.getId()));
+			}
+		}
+		assertEquals(ids, idsOf(tagged(appData.findAllPeople(), tag)));
+	}
+
+	@Test
+	void concurrentDeletesOfOnePersonSucceedOnce() throws Exception {
+		String tag = newTag();
+		Person person = newPerson(tag, 0);
+		appData.insertPerson(person);
+		int id = person.getId();
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(() -> {
+				start.await();
+				return appData.deletePerson(id).isDeleted();
+			});
+		}
+
+		List<Future<Boolean>> futures = submitAll(tasks);
+		start.countDown();
+		int successes = 0;
+		for (boolean deletedHere : waitFor(futures)) {
+			successes += deletedHere ? 1 : 0;
+		}
+
+		assertEquals(1, successes);
+		assertNull(appData.findPerson(id));
+		assertTrue(appData.selectPerson(tag).isEmpty());
+	}
+
+	@Test
+	void concurrentReadersGetListsOfTheirOwn() throws Exception {
+		String tag = newTag();
+		List<Person> people = new ArrayList<>();
+		for (int i = 0; i < 50; i++) {
+			people.add(newPerson(tag, i));
+		}
+		appData.insertPeople(people);
+
+		CountDownLatch start = new CountDownLatch(1);
+		List<Callable<List<Person>>> tasks = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			tasks.add(() -> {
+				start.await();
+				return appData.findAllPeople();
+			});
+		}
+
+		List<Future<List<Person>>> futures = submitAll(tasks);
+		start.countDown();
+		List<List<Person>> results = waitFor(futures);
+
+		for (int i = 0; i < results.size(); i++) {
+			for (int j = i + 1; j < results.size(); j++) {
+				assertNotSame(results.get(i), results.get(j));
+			}
+		}
+		assertIsolated(results.get(0), results.get(1));
+		assertEquals(50, tagged(results.get(1), tag).size());
+	}
+
+	/**
+	 * A search result holds only people matching the term, each once.
+	 */
+	private static void checkSearch(List<Person> found, String tag) {
+		assertNoDuplicateIds(found);
+		for (Person person : found) {
+			assertTrue(person.getName().contains(tag), person.getName() + " matches " + tag);
+		}
+	}
+
+	/**
+	 * Changing one caller's result either is refused or leaves another
+	 * caller's result as it was.
+	 */
+	private static void assertIsolated(List<Person> mine, List<Person> theirs) {
+		List<Person> before = new ArrayList<>(theirs);
+		try {
+			mine.clear();
+		} catch (UnsupportedOperationException e) {
+			// AppData hands out lists that cannot be changed at all.
+		}
+		assertEquals(before, theirs);
+	}
+
+	private static void assertNoDuplicateIds(List<Person> people) {
+		assertEquals(people.size(), idsOf(people).size(), "no person appears twice");
+	}
+
+	private static List<Person> tagged(List<Person> people, String tag) {
+		List<Person> matching = new ArrayList<>();
+		for (Person person : people) {
+			if (person.getName().contains(tag)) {
+				matching.add(person);
+			}
+		}
+		return matching;
+	}
+
+	private static Set<Integer> idsOf(List<Person> people) {
+		Set<Integer> ids = new HashSet<>();
+		for (Person person : people) {
+			ids.add(person.getId());
+		}
+		return ids;
+	}
+
+	private static Person newPerson(String tag, int index) {
+		return new Person(tag + " Customer " + index, tag + index + "@example.com",
+				String.format("(555) %03d-%04d", index / 10000 % 1000, index % 10000));
+	}
+
+	/**
+	 * A name part no other test's people share.
+	 */
+	private static String newTag() {
+		Random random = new Random();
+		char[] letters = new char[10];
+		for (int i = 0; i < letters.length; i++) {
+			letters[i] = (char) ('a' + random.nextInt(26));
+		}
+		return new String(letters);
+	}
+
+	private static <T> List<T> runAll(List<Callable<T>> tasks) throws Exception {
+		return waitFor(submitAll(tasks));
+	}
+
+	private static <T> List<Future<T>> submitAll(List<Callable<T>> tasks) {
+		List<Future<T>> futures = new ArrayList<>();
+		for (Callable<T> task : tasks) {
+			futures.add(pool.submit(task));
+		}
+		return futures;
+	}
+
+	private static boolean allDone(List<? extends Future<?>> futures) {
+		for (Future<?> future : futures) {
+			if (!future.isDone()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static <T> List<T> waitFor(List<Future<T>> futures) throws Exception {
+		List<T> results = new ArrayList<>();
+		for (Future<T> future : futures) {
+			results.add(future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+		}
+		return Collections.unmodifiableList(results);
+	}
+
+}
@@ -0,0 +1,104 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks which people DuplicateDetector takes for the same customer, both
+ * at insert and across a whole table.
+ *
+ */
+class DuplicateDetectorTest {
+
+	@Test
+	void sameEmailIgnoringCaseSpacesAndTagsIsADuplicate() {
+		DuplicateDetector detector = new DuplicateDetector();
+		detector.add(person(1, "Ada Lovelace", "ada@example.com", "(555) 555-0100"));
+
+		assertEquals(Collections.singletonList(1),
+				detector.findDuplicates(person(0, "A. King", " ADA+news@Example.com ", "(555) 555-0199")));
+	}
+
+	@Test
+	void samePhoneAndSimilarNameIsADuplicate() {
+		DuplicateDetector detector = new DuplicateDetector();
+		detector.add(person(1, "John Smith", "john@example.com", "(555) 555-0100"));
+
+		assertEquals(Collections.singletonList(1),
+				detector.findDuplicates(person(0, "Jon Smyth", "jsmyth@example.com", "555.555.0100")));
+	}
+
+	@Test
+	void householdSharingAPhoneIsNotADuplicate() {
+		DuplicateDetector detector = new DuplicateDetector();
+		detector.add(person(1, "John Smith", "john@example.com", "(555) 555-0100"));
+
+		assertTrue(detector.findDuplicates(person(0, "Mary Smith", "mary@example.com", "(555) 555-0100")).isEmpty());
+	}
+
+	@Test
+	void removedPeopleAreNotMatched() {
+		DuplicateDetector detector = new DuplicateDetector();
+		detector.add(person(1, "Ada Lovelace", "ada@example.com", "(555) 555-0100"));
+		detector.add(person(2, "Ada Lovelace", "ada@example.com", "(555) 555-0100"));
+		detector.remove(1);
+
+		assertEquals(Collections.singletonList(2),
+				detector.findDuplicates(person(0, "Ada Lovelace", "ada@example.com", "(555) 555-0100")));
+		assertEquals(1, detector.size());
+	}
+
+	@Test
+	void aPersonDoesNotDuplicateThemselves() {
+		DuplicateDetector detector = new DuplicateDetector();
+		Person ada = person(1, "Ada Lovelace", "ada@example.com", "(555) 555-0100");
+		detector.add(ada);
+
+		assertTrue(detector.findDuplicates(ada).isEmpty());
+	}
+
+	@Test
+	void keysMatchOnlyWhenTheirFieldsAreEqual() {
+		DuplicateDetector.BlockingKey[] ada = DuplicateDetector.keysOf(person(1, "Ada", "ada@example.com", null));
+		DuplicateDetector.BlockingKey[] tagged = DuplicateDetector
+				.keysOf(person(2, "Ada", "ada+x@example.com", null));
+		DuplicateDetector.BlockingKey[] grace = DuplicateDetector.keysOf(person(3, "Grace", "grace@example.com", null));
+
+		assertEquals(1, ada.length);
+		assertTrue(ada[0].in(tagged));
+		assertTrue(!ada[0].in(grace));
+		assertTrue(!ada[0].in(null));
+	}
+
+	@Test
+	void reportGroupsDuplicatesOfDuplicates() {
+		List<Person> people = Arrays.asList(person(1, "John Smith", "john@example.com", "(555) 555-0100"),
+				person(2, "Jon Smyth", "other@example.com", "(555) 555-0100"),
+				person(3, "Someone Else", "OTHER@example.com", "(555) 555-0177"),
+				person(4, "Grace Hopper", "grace@example.com", "(555) 555-0123"));
+
+		List<List<Person>> groups = DuplicateDetector.report(people).getGroups();
+
+		assertEquals(1, groups.size());
+		assertEquals(Arrays.asList(1, 2, 3), idsOf(groups.get(0)));
+	}
+
+	private static List<Integer> idsOf(List<Person> people) {
+		Integer[] ids = new Integer[people.size()];
+		for (int i = 0; i < ids.length; i++) {
+			ids[i] = people.get(i).getId();
+		}
+		return Arrays.asList(ids);
+	}
+
+	private static Person person(int id, String name, String email, String phone) {
+		return new Person(id, name, email, phone);
+	}
+
+}
@@ -0,0 +1,107 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import datalayer.SearchMode;
+
+/**
+ * Checks how PersonCache keys search results and which of them inserts,
+ * deletes and stale reads leave behind.
+ *
+ */
+class PersonCacheTest {
+
+	@Test
+	void termsDifferingInCaseShareAnEntry() {
+		PersonCache cache = new PersonCache(100, 0);
+		List<Person> result = Collections.singletonList(person(1, "Ada Lovelace"));
+		cache.putSearch("ADA", SearchMode.PREFIX, result, cache.getGeneration());
+
+		assertEquals(1, cache.getSearch("ada", SearchMode.PREFIX).size());
+		assertNull(cache.getSearch("ada", SearchMode.SUBSTRING));
+	}
+
+	@Test
+	void termsDifferingInAccentsAreCachedApart() {
+		PersonCache cache = new PersonCache(100, 0);
+		List<Person> accented = Collections.singletonList(person(1, "Zoë Smith"));
+		cache.putSearch("Zoë", SearchMode.PREFIX, accented, cache.getGeneration());
+
+		assertNull(cache.getSearch("Zoe", SearchMode.PREFIX));
+		assertEquals("Zoë Smith", cache.getSearch("zoë", SearchMode.PREFIX).get(0).getName());
+	}
+
+	@Test
+	void insertForgetsSearchesMatchingWithoutAccents() {
+		PersonCache cache = new PersonCache(100, 0);
+		cache.putSearch("zoe", SearchMode.SUBSTRING, Collections.<Person> emptyList(), cache.getGeneration());
+		cache.putSearch("ada", SearchMode.SUBSTRING, Collections.<Person> emptyList(), cache.getGeneration());
+
+		cache.onInsert(person(2, "Zoë Smith"));
+
+		assertNull(cache.getSearch("zoe", SearchMode.SUBSTRING));
+		assertEquals(Collections.emptyList(), cache.getSearch("ada", SearchMode.SUBSTRING));
+	}
+
+	@Test
+	void deleteForgetsThePersonAndSearchesHoldingThem() {
+		PersonCache cache = new PersonCache(100, 0);
+		Person ada = person(1, "Ada Lovelace");
+		cache.putSearch("ada", SearchMode.PREFIX, Collections.singletonList(ada), cache.getGeneration());
+		assertEquals("Ada Lovelace", cache.getPerson(1).getName());
+
+		cache.onDelete(1);
+
+		assertNull(cache.getPerson(1));
+		assertNull(cache.getSearch("ada", SearchMode.PREFIX));
+	}
+
+	@Test
+	void changingAPersonHandedOutLeavesTheCacheAlone() {
+		PersonCache cache = new PersonCache(100, 0);
+		Person ada = person(1, "Ada Lovelace");
+		List<Person> returned = cache.putSearch("ada", SearchMode.PREFIX, Collections.singletonList(ada),
+				cache.getGeneration());
+
+		ada.setPhone("(555) 555-0199");
+		returned.get(0).setId(99);
+		cache.getSearch("ada", SearchMode.PREFIX).get(0).setName("Changed");
+		cache.getPerson(1).setEmail("changed@example.com");
+
+		Person cached = cache.getSearch("ada", SearchMode.PREFIX).get(0);
+		assertEquals(1, cached.getId());
+		assertEquals("Ada Lovelace", cached.getName());
+		assertEquals("(555) 555-0100", cached.getPhone());
+		assertEquals("1@example.com", cache.getPerson(1).getEmail());
+		assertNotSame(cache.getPerson(1), cache.getPerson(1));
+	}
+
+	@Test
+	void resultReadBeforeAChangeIsNotCached() {
+		PersonCache cache = new PersonCache(100, 0);
+		long generation = cache.getGeneration();
+		cache.onInsert(person(1, "Ada Lovelace"));
+
+		List<Person> returned = cache.putSearch("ada", SearchMode.PREFIX, Collections.<Person> emptyList(),
+				generation);
+		cache.putPerson(person(2, "Grace Hopper"), generation);
+
+		assertEquals(Collections.emptyList(), returned);
+		assertNull(cache.getSearch("ada", SearchMode.PREFIX));
+		assertNull(cache.getPerson(2));
+	}
+
+	private static Person person(int id, String name) {
+		Person person = new Person(name, id + "@example.com", "(555) 555-0100");
+		person.setId(id);
+		return person;
+	}
+
+}
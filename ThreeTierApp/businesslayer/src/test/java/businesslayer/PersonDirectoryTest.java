@@ -0,0 +1,94 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that PersonDirectory gives back every field as it was added, past
+ * the point its arrays grow, and that its views are read only.
+ *
+ */
+class PersonDirectoryTest {
+
+	@Test
+	void fieldsComeBackAsTheyWereAdded() {
+		PersonDirectory directory = new PersonDirectory();
+		directory.add(new Person(1, "Zoë Smith", "zoe@example.com", "(555) 555-0100"));
+		directory.add(new Person(2, "Ada Lovelace", null, "555.555.0101"));
+		directory.add(new Person(3, "", "grace@example.com", null));
+
+		assertEquals(3, directory.size());
+		assertEquals("Zoë Smith", directory.getName(0));
+		assertEquals("(555) 555-0100", directory.getPhone(0));
+		assertEquals(5555550100L, directory.getPackedPhone(0));
+		assertNull(directory.getEmail(1));
+		assertEquals("", directory.getName(2));
+		assertNull(directory.getPhone(2));
+	}
+
+	@Test
+	void phonesNotInTheStandardFormatAreKeptAsEntered() {
+		PersonDirectory directory = new PersonDirectory();
+		directory.add(new Person(1, "Ada", "ada@example.com", "555.555.0101"));
+		directory.add(new Person(2, "Grace", "grace@example.com", "not a number"));
+
+		assertEquals("555.555.0101", directory.getPhone(0));
+		assertTrue(directory.getPackedPhone(0) < 0);
+		assertEquals("not a number", directory.getPhone(1));
+	}
+
+	@Test
+	void rowsAreFoundByIdInEitherOrder() {
+		PersonDirectory sorted = new PersonDirectory();
+		PersonDirectory unsorted = new PersonDirectory();
+		for (int i = 0; i < 3000; i++) {
+			sorted.add(new Person(i * 2 + 1, "Person " + i, i + "@example.com", "(555) 555-0100"));
+			unsorted.add(new Person(6000 - i, "Person " + i, i + "@example.com", "(555) 555-0100"));
+		}
+
+		assertEquals(1500, sorted.rowOfId(3001));
+		assertEquals(-1, sorted.rowOfId(3002));
+		assertEquals(2999, unsorted.rowOfId(3001));
+		assertEquals(-1, unsorted.rowOfId(1));
+		assertEquals("Person 2999", sorted.getName(2999));
+	}
+
+	@Test
+	void trimmingKeepsEveryRow() {
+		PersonDirectory directory = new PersonDirectory();
+		for (int i = 0; i < 1500; i++) {
+			directory.add(new Person(i + 1, "Person " + i, i + "@example.com", "(555) 555-0100"));
+		}
+
+		long before = directory.estimatedBytes();
+		directory.trimToSize();
+
+		assertTrue(directory.estimatedBytes() < before);
+		List<String> names = new ArrayList<>();
+		directory.forEach(person -> names.add(person.getName()));
+		assertEquals(1500, names.size());
+		assertEquals("Person 1499", names.get(1499));
+		assertEquals("1499@example.com", directory.get(1499).getEmail());
+	}
+
+	@Test
+	void viewsAreReadOnlyAndRowsAreChecked() {
+		PersonDirectory directory = new PersonDirectory();
+		directory.add(new Person(7, "Ada", "ada@example.com", "(555) 555-0100"));
+		Person view = directory.get(0);
+
+		assertEquals(7, view.getId());
+		assertEquals("(555) 555-0100", view.getPhone());
+		assertThrows(UnsupportedOperationException.class, () -> view.setName("Grace"));
+		assertThrows(IndexOutOfBoundsException.class, () -> directory.get(1));
+		assertThrows(IndexOutOfBoundsException.class, () -> directory.getName(-1));
+	}
+
+}
@@ -0,0 +1,110 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Checks that a PersonSnapshot reads back what was written, in id order,
+ * and layers inserts and deletes made since over the file.
+ *
+ */
+class PersonSnapshotTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	void peopleAreReadBackInIdOrder() throws IOException {
+		PersonSnapshot snapshot = snapshotOf(new Person(30, "Zoë Smith", "zoe@example.com", "(555) 555-0100"),
+				new Person(10, "Ada Lovelace", null, "555.555.0101"), new Person(20, "", "grace@example.com", null));
+
+		assertEquals(3, snapshot.size());
+		assertEquals(30, snapshot.getMaxFileId());
+		assertEquals(Arrays.asList(10, 20, 30), idsOf(snapshot.toList()));
+
+		Person zoe = snapshot.findById(30);
+		assertEquals("Zoë Smith", zoe.getName());
+		assertEquals("(555) 555-0100", zoe.getPhone());
+		Person ada = snapshot.findById(10);
+		assertNull(ada.getEmail());
+		assertEquals("555.555.0101", ada.getPhone());
+		assertEquals("", snapshot.findById(20).getName());
+		assertNull(snapshot.findById(20).getPhone());
+		assertNull(snapshot.findById(15));
+	}
+
+	@Test
+	void insertsAndDeletesAreLaidOverTheFile() throws IOException {
+		PersonSnapshot snapshot = snapshotOf(new Person(1, "Ada", "ada@example.com", "(555) 555-0100"),
+				new Person(2, "Grace", "grace@example.com", "(555) 555-0101"));
+
+		snapshot.applyInsert(new Person(3, "Zoë", "zoe@example.com", "(555) 555-0102"));
+		snapshot.applyInsert(new Person(4, "Alan", "alan@example.com", "(555) 555-0103"));
+		snapshot.applyDelete(1);
+		snapshot.applyDelete(4);
+		snapshot.applyDelete(99);
+
+		assertEquals(2, snapshot.size());
+		assertEquals(Arrays.asList(2, 3), idsOf(snapshot.toList()));
+		assertNull(snapshot.findById(1));
+		assertNull(snapshot.findById(4));
+		assertEquals("Zoë", snapshot.findById(3).getName());
+	}
+
+	@Test
+	void anEmptyDirectoryMakesAnEmptySnapshot() throws IOException {
+		PersonSnapshot snapshot = snapshotOf();
+
+		assertEquals(0, snapshot.size());
+		assertEquals(0, snapshot.getMaxFileId());
+		assertNull(snapshot.findById(1));
+	}
+
+	@Test
+	void aFileThatIsNotASnapshotIsRefused() throws IOException {
+		Path file = folder.resolve("other.bin");
+		Files.write(file, "not a snapshot at all".getBytes("UTF-8"));
+
+		assertThrows(IOException.class, () -> PersonSnapshot.open(file));
+	}
+
+	@Test
+	void aValueTooLongForARecordIsRefused() {
+		char[] name = new char[70000];
+		Arrays.fill(name, 'a');
+		PersonDirectory directory = new PersonDirectory();
+		directory.add(new Person(1, new String(name), "ada@example.com", "(555) 555-0100"));
+
+		assertThrows(IOException.class, () -> PersonSnapshot.write(folder.resolve("long.bin"), directory));
+	}
+
+	private PersonSnapshot snapshotOf(Person... people) throws IOException {
+		PersonDirectory directory = new PersonDirectory();
+		for (Person person : people) {
+			directory.add(person);
+		}
+		Path file = folder.resolve("people.bin");
+		PersonSnapshot.write(file, directory);
+		return PersonSnapshot.open(file);
+	}
+
+	private static List<Integer> idsOf(List<Person> people) {
+		List<Integer> ids = new ArrayList<>();
+		for (Person person : people) {
+			ids.add(person.getId());
+		}
+		return ids;
+	}
+
+}
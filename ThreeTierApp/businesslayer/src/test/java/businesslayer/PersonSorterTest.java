@@ -0,0 +1,117 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that PersonSorter orders people exactly as a stable sort with
+ * String.compareToIgnoreCase would, on lists sorted on the calling thread
+ * and in parallel, and that locale and multi-field orders hold.
+ *
+ */
+class PersonSorterTest {
+
+	/**
+	 * Letters that fold in unusual ways or sort apart from their base letter
+	 * by character, so prefixes and tie breaks are exercised.
+	 */
+	private static final char[] LETTERS = "aAbBzZéÉöÖßıİ -'".toCharArray();
+
+	@Test
+	void nameOrderMatchesCompareToIgnoreCase() {
+		List<Person> people = randomPeople(2000, 1);
+
+		assertSameOrder(people);
+	}
+
+	@Test
+	void aParallelSortMatchesCompareToIgnoreCase() {
+		List<Person> people = randomPeople(PersonSorter.PARALLEL_THRESHOLD + 1000, 2);
+
+		assertSameOrder(people);
+	}
+
+	@Test
+	void aLocaleSortsAccentsBesideTheirLetters() {
+		List<Person> people = people("Fred", "émile", "Eve", "Zoe", "Zof", "Zoë");
+
+		PersonSorter.by(Locale.ENGLISH, PersonSorter.Field.NAME).sort(people);
+
+		assertEquals(Arrays.asList("émile", "Eve", "Fred", "Zoe", "Zoë", "Zof"), namesOf(people));
+	}
+
+	@Test
+	void laterFieldsBreakTiesAndMissingTextSortsFirst() {
+		List<Person> people = new ArrayList<>();
+		people.add(new Person(3, "ada", "b@example.com", null));
+		people.add(new Person(1, "Ada", "b@example.com", null));
+		people.add(new Person(2, "ADA", "a@example.com", null));
+		people.add(new Person(4, null, "c@example.com", null));
+
+		PersonSorter.by(PersonSorter.Field.NAME).thenBy(PersonSorter.Field.EMAIL).thenBy(PersonSorter.Field.ID)
+				.sort(people);
+
+		assertEquals(Arrays.asList(4, 2, 1, 3), idsOf(people));
+	}
+
+	@Test
+	void aSorterNeedsAField() {
+		assertThrows(IllegalArgumentException.class, () -> PersonSorter.by());
+	}
+
+	private static void assertSameOrder(List<Person> people) {
+		List<Person> expected = new ArrayList<>(people);
+		Collections.sort(expected, Person.PersonNameComparator);
+
+		PersonSorter.by(PersonSorter.Field.NAME).sort(people);
+
+		assertEquals(idsOf(expected), idsOf(people));
+	}
+
+	private static List<Person> randomPeople(int count, long seed) {
+		Random random = new Random(seed);
+		List<Person> people = new ArrayList<>(count);
+		for (int id = 1; id <= count; id++) {
+			char[] name = new char[random.nextInt(8)];
+			for (int i = 0; i < name.length; i++) {
+				name[i] = LETTERS[random.nextInt(LETTERS.length)];
+			}
+			people.add(new Person(id, new String(name), id + "@example.com", null));
+		}
+		return people;
+	}
+
+	private static List<Person> people(String... names) {
+		List<Person> people = new ArrayList<>();
+		for (String name : names) {
+			people.add(new Person(people.size() + 1, name, null, null));
+		}
+		return people;
+	}
+
+	private static List<String> namesOf(List<Person> people) {
+		List<String> names = new ArrayList<>();
+		for (Person person : people) {
+			names.add(person.getName());
+		}
+		return names;
+	}
+
+	private static List<Integer> idsOf(List<Person> people) {
+		List<Integer> ids = new ArrayList<>();
+		for (Person person : people) {
+			ids.add(person.getId());
+		}
+		return ids;
+	}
+
+}
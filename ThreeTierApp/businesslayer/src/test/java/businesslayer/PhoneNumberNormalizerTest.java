@@ -0,0 +1,81 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that PhoneNumberNormalizer keeps every row in place, normalizes
+ * the valid ones and reports the rest as errors, on batches small enough to
+ * run on the calling thread and large enough to run in parallel.
+ *
+ */
+class PhoneNumberNormalizerTest {
+
+	@Test
+	void validAndInvalidRowsKeepTheirPlaces() {
+		NormalizationResult result = PhoneNumberNormalizer
+				.normalize(Arrays.asList("999.867.5309", "867-5309", null, "1 800 555 0199"));
+
+		assertEquals(4, result.size());
+		assertEquals(2, result.getValidCount());
+		assertEquals(2, result.getErrorCount());
+
+		assertTrue(result.isValid(0));
+		assertEquals("(999) 867-5309", result.getNormalized(0));
+		assertEquals(9998675309L, result.getPackedNumber(0));
+		assertEquals("1 (800) 555-0199", result.getNumber(3).toString());
+
+		assertFalse(result.isValid(1));
+		assertEquals(TelephoneError.LOCAL_LENGTH, result.getError(1));
+		assertEquals(TelephoneError.MISSING, result.getError(2));
+		assertEquals(-1, result.getPackedNumber(1));
+		assertNull(result.getNormalized(1));
+		assertNull(result.getNumber(2));
+		assertNull(result.getError(0));
+	}
+
+	@Test
+	void failuresListWhatWasEnteredAndWhy() {
+		NormalizationResult result = PhoneNumberNormalizer
+				.normalize(Stream.of("999 867 5309", "1 999 867", "9998675309"));
+
+		List<NormalizationResult.Failure> failures = result.getFailures();
+
+		assertEquals(1, failures.size());
+		assertEquals(1, failures.get(0).getRow());
+		assertEquals("1 999 867", failures.get(0).getRawNumber());
+		assertEquals(TelephoneError.LONG_DISTANCE_LENGTH, failures.get(0).getError());
+	}
+
+	@Test
+	void aParallelBatchMatchesParsingEachRow() {
+		CharSequence[] numbers = new CharSequence[10000];
+		for (int row = 0; row < numbers.length; row++) {
+			numbers[row] = row % 7 == 0 ? "555-" + row : String.format("(555) %03d-%04d", row % 1000, row);
+		}
+
+		NormalizationResult result = PhoneNumberNormalizer.normalize(numbers);
+
+		int errors = 0;
+		for (int row = 0; row < numbers.length; row++) {
+			long expected = TelephoneNumber.parse(numbers[row]);
+			if (expected < 0) {
+				errors++;
+				assertEquals(TelephoneNumber.errorOf(expected), result.getError(row));
+			} else {
+				assertEquals(expected, result.getPackedNumber(row));
+			}
+		}
+		assertEquals(errors, result.getErrorCount());
+		assertEquals(numbers.length - errors, result.getValidCount());
+	}
+
+}
@@ -0,0 +1,83 @@
+package businesslayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks what TelephoneNumber accepts, how it packs and formats the digits,
+ * and which error each kind of bad number is rejected with.
+ *
+ */
+class TelephoneNumberTest {
+
+	@Test
+	void everyDocumentedFormatParsesToTheSameNumber() throws InvalidTelephoneException {
+		for (String entry : new String[] { "999 867 5309", "(999)867-5309", "999.867.5309", "9998675309" }) {
+			TelephoneNumber number = new TelephoneNumber(entry);
+			assertEquals(9998675309L, number.getPackedNumber(), entry);
+			assertEquals("(999) 867-5309", number.toString(), entry);
+		}
+	}
+
+	@Test
+	void theLongDistanceCodeIsKeptApartFromTheTenDigits() throws InvalidTelephoneException {
+		TelephoneNumber number = new TelephoneNumber("1 (999) 867-5309");
+
+		assertEquals(19998675309L, number.getPackedNumber());
+		assertEquals("9998675309", number.getCleanNumber());
+		assertEquals("999", number.getAreaCode());
+		assertEquals("867", number.getExchange());
+		assertEquals("5309", number.getLocalNumber());
+		assertEquals("1 (999) 867-5309", number.toString());
+	}
+
+	@Test
+	void leadingZerosArePadded() throws InvalidTelephoneException {
+		TelephoneNumber number = new TelephoneNumber("001 002 0003");
+
+		assertEquals("001", number.getAreaCode());
+		assertEquals("002", number.getExchange());
+		assertEquals("0003", number.getLocalNumber());
+		assertEquals("(001) 002-0003", number.toString());
+	}
+
+	@Test
+	void eachBadNumberIsRejectedWithItsReason() {
+		assertEquals(TelephoneError.MISSING, TelephoneNumber.errorOf(TelephoneNumber.parse(null)));
+		assertEquals(TelephoneError.LONG_DISTANCE_LENGTH, TelephoneNumber.errorOf(TelephoneNumber.parse("1 999 867")));
+		assertEquals(TelephoneError.LOCAL_LENGTH, TelephoneNumber.errorOf(TelephoneNumber.parse("867-5309")));
+		assertEquals(TelephoneError.LOCAL_LENGTH, TelephoneNumber.errorOf(TelephoneNumber.parse("")));
+		assertTrue(TelephoneNumber.parse("99986753091234567890") < 0, "too many digits does not overflow");
+
+		InvalidTelephoneException e = assertThrows(InvalidTelephoneException.class,
+				() -> new TelephoneNumber("999 867 530"));
+		assertEquals(TelephoneError.LOCAL_LENGTH.getMessage(), e.getMessage());
+	}
+
+	@Test
+	void settersReplaceTheirPartAndTheFormattedText() throws InvalidTelephoneException {
+		TelephoneNumber number = new TelephoneNumber("999 867 5309");
+		assertEquals("(999) 867-5309", number.toString());
+
+		number.setAreaCode("555");
+		number.setExchange("555123");
+		number.setLocalNumber("5551234567");
+
+		assertEquals("(555) 123-4567", number.toString());
+		assertEquals(5551234567L, number.getPackedNumber());
+	}
+
+	@Test
+	void aPackedNumberRoundTrips() throws InvalidTelephoneException {
+		TelephoneNumber parsed = new TelephoneNumber("1-800-555-0199");
+
+		TelephoneNumber unpacked = new TelephoneNumber(parsed.getPackedNumber());
+
+		assertEquals(parsed.toString(), unpacked.toString());
+		assertEquals(parsed.getPackedNumber(), unpacked.getPackedNumber());
+	}
+
+}
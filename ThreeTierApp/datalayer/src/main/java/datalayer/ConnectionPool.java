@@ -0,0 +1,540 @@
+package datalayer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * The ConnectionPool keeps a bounded set of open connections to the database
+ * so that each operation in the DatabaseConnection class borrows an already
+ * authenticated connection instead of opening a new one.
+ *
+ * Connections handed out by the pool are wrappers around the physical
+ * connection. Calling close() on them returns the physical connection to the
+ * pool rather than closing it, so callers keep using the usual
+ * open/use/close pattern.
+ *
+ * The pool validates connections when they are borrowed, evicts connections
+ * that have sat idle for too long while keeping the minimum size open, fails
+ * a borrow that waits longer than the borrow timeout, and reports
+ * connections that are held longer than the leak threshold.
+ *
+ * Each connection also keeps its prepared statements open in a
+ * StatementCache, so preparing the same SQL on a later borrow reuses the
+ * statement the server has already parsed.
+ *
+ * How long borrowers wait for a connection is timed in the pool.borrow
+ * timer, and how long opening a new physical connection takes in the
+ * pool.connect timer. Leaks and connections that cannot be opened or
+ * closed are reported to the threetierapp.pool logger.
+ *
+ */
+public class ConnectionPool {
+
+	/**
+	 * How often the housekeeping thread checks for idle and leaked
+	 * connections.
+	 */
+	private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5000;
+
+	/**
+	 * Seconds the driver is given to answer a validation ping.
+	 */
+	private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+	/**
+	 * The number of prepared statements each connection keeps open unless
+	 * the pool is told otherwise.
+	 */
+	public static final int DEFAULT_STATEMENT_CACHE_SIZE = 50;
+
+	private static final Timer BORROW_TIMER = Metrics.timer("pool.borrow");
+	private static final Timer CONNECT_TIMER = Metrics.timer("pool.connect");
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.pool");
+
+	private final String url;
+	private final String user;
+	private final String password;
+	private final int minSize;
+	private final int maxSize;
+	private final long idleTimeoutMillis;
+	private final long borrowTimeoutMillis;
+	private final long leakThresholdMillis;
+	private final int statementCacheSize;
+
+	/**
+	 * Idle connections, most recently returned first so that the warmest
+	 * connections are reused and the cold ones age out.
+	 */
+	private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * Connections currently handed out to callers.
+	 */
+	private final Set<PooledConnection> borrowed = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * One permit per connection that may be borrowed at the same time.
+	 */
+	private final Semaphore permits;
+
+	/**
+	 * The number of physical connections that are open, idle or borrowed.
+	 */
+	private final AtomicInteger openCount = new AtomicInteger();
+
+	/**
+	 * Prepared statement cache statistics, summed over every connection.
+	 */
+	private final AtomicLong statementHits = new AtomicLong();
+	private final AtomicLong statementMisses = new AtomicLong();
+	private final AtomicLong statementEvictions = new AtomicLong();
+
+	private final ScheduledExecutorService housekeeper;
+
+	private volatile boolean shutdown = false;
+
+	/**
+	 * Creates a pool for the given database. No connection is opened until
+	 * the first borrow or housekeeping run.
+	 *
+	 * @param url
+	 *            the JDBC url of the database
+	 * @param user
+	 *            the database user
+	 * @param password
+	 *            the database password
+	 * @param minSize
+	 *            the number of connections kept open even when idle
+	 * @param maxSize
+	 *            the most connections that can be open at once
+	 * @param idleTimeoutMillis
+	 *            how long a connection above the minimum may stay idle before
+	 *            it is closed
+	 * @param borrowTimeoutMillis
+	 *            how long a caller waits for a free connection before
+	 *            SQLTimeoutException is thrown
+	 * @param leakThresholdMillis
+	 *            how long a connection may be borrowed before it is reported
+	 *            as a possible leak, or 0 to disable leak detection
+	 */
+	public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+			long idleTimeoutMillis, long borrowTimeoutMillis, long leakThresholdMillis) {
+		this(url, user, password, minSize, maxSize, idleTimeoutMillis, borrowTimeoutMillis, leakThresholdMillis,
+				DEFAULT_STATEMENT_CACHE_SIZE);
+	}
+
+	/**
+	 * Creates a pool for the given database with a prepared statement cache
+	 * of the given size on each connection.
+	 * 
+	 * @param url
+	 *            the JDBC url of the database
+	 * @param user
+	 *            the database user
+	 * @param password
+	 *            the database password
+	 * @param minSize
+	 *            the number of connections kept open even when idle
+	 * @param maxSize
+	 *            the most connections that can be open at once
+	 * @param idleTimeoutMillis
+	 *            how long a connection above the minimum may stay idle before
+	 *            it is closed
+	 * @param borrowTimeoutMillis
+	 *            how long a caller waits for a free connection before
+	 *            SQLTimeoutException is thrown
+	 * @param leakThresholdMillis
+	 *            how long a connection may be borrowed before it is reported
+	 *            as a possible leak, or 0 to disable leak detection
+	 * @param statementCacheSize
+	 *            the most prepared statements each connection keeps open, or
+	 *            0 to close every statement when the caller closes it
+	 */
+	public ConnectionPool(String url, String user, String password, int minSize, int maxSize,
+			long idleTimeoutMillis, long borrowTimeoutMillis, long leakThresholdMillis, int statementCacheSize) {
+		if (minSize < 0 || maxSize < 1 || minSize > maxSize) {
+			throw new IllegalArgumentException("Pool sizes must satisfy 0 <= min <= max and max >= 1");
+		}
+		if (statementCacheSize < 0) {
+			throw new IllegalArgumentException("The statement cache size cannot be negative");
+		}
+		this.url = url;
+		this.user = user;
+		this.password = password;
+		this.minSize = minSize;
+		this.maxSize = maxSize;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.borrowTimeoutMillis = borrowTimeoutMillis;
+		this.leakThresholdMillis = leakThresholdMillis;
+		this.statementCacheSize = statementCacheSize;
+		this.permits = new Semaphore(maxSize, true);
+
+		housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "ConnectionPool-housekeeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		housekeeper.scheduleWithFixedDelay(this::housekeep, HOUSEKEEPING_INTERVAL_MILLIS,
+				HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * Borrows a connection from the pool, opening a new one if no idle
+	 * connection is available and the pool is not full. The connection must
+	 * be closed by the caller to return it to the pool.
+	 *
+	 * @return a validated connection to the database
+	 * @throws SQLException
+	 *             if the pool is shut down, no connection became free within
+	 *             the borrow timeout, or a new connection could not be opened
+	 */
+	public Connection borrow() throws SQLException {
+		if (shutdown) {
+			throw new SQLException("The connection pool has been shut down");
+		}
+
+		long start = BORROW_TIMER.start();
+		try {
+			try {
+				if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+					throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+							+ " ms waiting for a database connection (max pool size " + maxSize + ")");
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new SQLException("Interrupted while waiting for a database connection", e);
+			}
+
+			try {
+				PooledConnection pooled = takeValidIdle();
+				if (pooled == null) {
+					pooled = new PooledConnection(openPhysical());
+				}
+				Connection handle = pooled.lease();
+				borrowed.add(pooled);
+				return handle;
+			} catch (SQLException | RuntimeException e) {
+				permits.release();
+				throw e;
+			}
+		} catch (SQLException | RuntimeException e) {
+			BORROW_TIMER.fail();
+			throw e;
+		} finally {
+			BORROW_TIMER.stop(start);
+		}
+	}
+
+	/**
+	 * The number of connections currently open, whether idle or borrowed.
+	 *
+	 * @return the open connection count
+	 */
+	public int getOpenCount() {
+		return openCount.get();
+	}
+
+	/**
+	 * The number of open connections waiting in the pool.
+	 *
+	 * @return the idle connection count
+	 */
+	public int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * The number of connections currently handed out to callers.
+	 *
+	 * @return the borrowed connection count
+	 */
+	public int getBorrowedCount() {
+		return borrowed.size();
+	}
+
+	/**
+	 * The number of prepared statements that were found open in a
+	 * connection's statement cache.
+	 * 
+	 * @return the statement cache hit count
+	 */
+	public long getStatementCacheHits() {
+		return statementHits.get();
+	}
+
+	/**
+	 * The number of prepared statements that had to be prepared by the
+	 * driver and server.
+	 * 
+	 * @return the statement cache miss count
+	 */
+	public long getStatementCacheMisses() {
+		return statementMisses.get();
+	}
+
+	/**
+	 * The number of cached statements closed to make room for others.
+	 * 
+	 * @return the statement cache eviction count
+	 */
+	public long getStatementCacheEvictions() {
+		return statementEvictions.get();
+	}
+
+	/**
+	 * The share of prepared statements served from the statement caches.
+	 * 
+	 * @return the hit rate from 0 to 1, or 0 before any statement is prepared
+	 */
+	public double getStatementCacheHitRate() {
+		long hits = statementHits.get();
+		long total = hits + statementMisses.get();
+		return total == 0 ? 0 : (double) hits / total;
+	}
+
+	/**
+	 * Closes every idle connection and stops the housekeeping thread.
+	 * Borrowed connections are closed as they are returned.
+	 */
+	public void shutdown() {
+		shutdown = true;
+		housekeeper.shutdownNow();
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			closePhysical(pooled);
+		}
+	}
+
+	/**
+	 * Pulls idle connections until one passes validation, closing the ones
+	 * that fail.
+	 *
+	 * @return a valid idle connection, or null if none is left
+	 */
+	private PooledConnection takeValidIdle() {
+		PooledConnection pooled;
+		while ((pooled = idle.pollFirst()) != null) {
+			if (isValid(pooled.physical)) {
+				return pooled;
+			}
+			closePhysical(pooled);
+		}
+		return null;
+	}
+
+	/**
+	 * Returns a borrowed connection to the pool. Connections that were left
+	 * in a broken state, or returned after shutdown, are closed instead.
+	 *
+	 * @param pooled
+	 *            the connection being returned
+	 */
+	private void release(PooledConnection pooled) {
+		if (!borrowed.remove(pooled)) {
+			return;
+		}
+
+		pooled.statements.checkInAll();
+		boolean reusable = !shutdown;
+		try {
+			if (reusable && !pooled.physical.getAutoCommit()) {
+				pooled.physical.rollback();
+				pooled.physical.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			reusable = false;
+		}
+
+		if (reusable) {
+			pooled.lastUsed = System.currentTimeMillis();
+			idle.offerFirst(pooled);
+		} else {
+			closePhysical(pooled);
+		}
+		permits.release();
+	}
+
+	private Connection openPhysical() throws SQLException {
+		openCount.incrementAndGet();
+		long start = CONNECT_TIMER.start();
+		try {
+			return DriverManager.getConnection(url, user, password);
+		} catch (SQLException | RuntimeException e) {
+			openCount.decrementAndGet();
+			CONNECT_TIMER.fail();
+			throw e;
+		} finally {
+			CONNECT_TIMER.stop(start);
+		}
+	}
+
+	private void closePhysical(PooledConnection pooled) {
+		openCount.decrementAndGet();
+		pooled.statements.clear();
+		try {
+			pooled.physical.close();
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to close a pooled connection", e);
+		}
+	}
+
+	private boolean isValid(Connection physical) {
+		try {
+			return physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+		} catch (SQLException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Closes connections that have been idle longer than the idle timeout
+	 * while the pool is above its minimum size, tops the pool back up to the
+	 * minimum size, and reports connections held past the leak threshold.
+	 *
+	 * The minimum counts borrowed connections as well as idle ones, and each
+	 * connection is opened while holding a permit, as a borrow would, so
+	 * topping up never takes the pool past its maximum size.
+	 *
+	 * Runs on the housekeeping thread, and is package-private so tests can
+	 * run it without waiting for the thread.
+	 */
+	void housekeep() {
+		long now = System.currentTimeMillis();
+
+		Iterator<PooledConnection> oldestFirst = idle.descendingIterator();
+		while (oldestFirst.hasNext() && openCount.get() > minSize) {
+			PooledConnection pooled = oldestFirst.next();
+			if (now - pooled.lastUsed > idleTimeoutMillis && idle.remove(pooled)) {
+				closePhysical(pooled);
+			}
+		}
+
+		try {
+			while (!shutdown && idle.size() + borrowed.size() < minSize && openCount.get() < maxSize
+					&& permits.tryAcquire()) {
+				try {
+					PooledConnection pooled = new PooledConnection(openPhysical());
+					pooled.lastUsed = now;
+					idle.offerLast(pooled);
+				} finally {
+					permits.release();
+				}
+			}
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to open the minimum number of pooled connections", e);
+		}
+
+		if (leakThresholdMillis > 0) {
+			for (PooledConnection pooled : borrowed) {
+				if (now - pooled.borrowedAt > leakThresholdMillis && !pooled.leakReported) {
+					pooled.leakReported = true;
+					LOG.log(Level.WARNING, "Possible connection leak: a connection has been borrowed for "
+							+ (now - pooled.borrowedAt) + " ms without being closed.", pooled.borrowTrace);
+				}
+			}
+		}
+	}
+
+	/**
+	 * A physical connection and the bookkeeping the pool keeps about it.
+	 */
+	private final class PooledConnection {
+
+		private final Connection physical;
+		private final StatementCache statements;
+		private volatile long lastUsed;
+		private volatile long borrowedAt;
+		private volatile boolean leakReported;
+		private volatile Throwable borrowTrace;
+
+		private PooledConnection(Connection physical) {
+			this.physical = physical;
+			this.statements = new StatementCache(physical, statementCacheSize, statementHits, statementMisses,
+					statementEvictions);
+		}
+
+		/**
+		 * Marks the connection as borrowed and creates the handle given to
+		 * the caller for this borrow.
+		 *
+		 * @return a connection proxy whose close() returns this connection
+		 *         to the pool
+		 */
+		private Connection lease() {
+			borrowedAt = System.currentTimeMillis();
+			leakReported = false;
+			borrowTrace = leakThresholdMillis > 0 ? new Throwable("Connection borrowed here") : null;
+			return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+					new Class<?>[] { Connection.class }, new Lease(this));
+		}
+	}
+
+	/**
+	 * The handle given to a caller for a single borrow. Once it is closed the
+	 * physical connection goes back to the pool and this handle refuses any
+	 * further use, even after the connection is lent to someone else.
+	 */
+	private final class Lease implements InvocationHandler {
+
+		private final PooledConnection pooled;
+		private volatile boolean closed;
+
+		private Lease(PooledConnection pooled) {
+			this.pooled = pooled;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (!closed) {
+					closed = true;
+					release(pooled);
+				}
+				return null;
+			case "isClosed":
+				return closed || pooled.physical.isClosed();
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Pooled[" + pooled.physical + "]";
+			default:
+				if (closed) {
+					throw new SQLException("The connection has already been returned to the pool");
+				}
+				if (method.getName().equals("prepareStatement")) {
+					return pooled.statements.prepare((Connection) proxy, method, args);
+				}
+				try {
+					return method.invoke(pooled.physical, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,913 @@
+package datalayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import businesslayer.Person;
+import metrics.Metrics;
+
+/**
+ * Main Application Class to Create a new database with tables, and then insert
+ * records, select records, create new objects from database records, and delete
+ * records. Also allows a full printing of the table.
+ * 
+ *
+ */
+public class DatabaseConnection {
+
+	/**
+	 * The location of the customers database and the login used by the
+	 * application. Each can be overridden with the cms.jdbc.url, cms.jdbc.user
+	 * and cms.jdbc.password system properties.
+	 * 
+	 * The driver prepares statements on the server, where the pool's
+	 * statement cache keeps them parsed between uses, and rewrites batches
+	 * into multi-row inserts.
+	 */
+	private static final String URL = System.getProperty("cms.jdbc.url",
+			"jdbc:mysql://localhost/customers?verifyServerCertificate=false&useSSL=true"
+					+ "&rewriteBatchedStatements=true&useServerPrepStmts=true");
+	private static final String USER = System.getProperty("cms.jdbc.user", "scott");
+	private static final String PASSWORD = System.getProperty("cms.jdbc.password", "tiger");
+
+	/**
+	 * The statement used by every insert path. The phone number is stored
+	 * both as entered and as the digits that phone searches match.
+	 */
+	private static final String INSERT_PERSON = "INSERT INTO Person (name, email, phoneNumber, phoneDigits)"
+			+ " VALUES (?, ?, ?, ?)";
+
+	/**
+	 * The statement used by every delete path.
+	 */
+	private static final String DELETE_PERSON = "DELETE from Person where id = ?";
+
+	/**
+	 * The statement that adds a name's trigrams to the substring search index.
+	 */
+	private static final String INSERT_TRIGRAM = "INSERT IGNORE INTO PersonTrigram (trigram, personId) VALUES (?, ?)";
+
+	/**
+	 * The columns read back whenever Person objects are built from a query.
+	 */
+	private static final String PERSON_COLUMNS = "p.id, p.name, p.email, p.phoneNumber";
+
+	/**
+	 * How many rows insertPeople sends to the database in each JDBC batch.
+	 */
+	private static volatile int batchSize = 500;
+
+	/**
+	 * The pool every operation borrows its connection from. Closing a
+	 * borrowed connection hands it back to the pool.
+	 */
+	private static final ConnectionPool pool;
+
+	static {
+		try {
+			Class.forName("com.mysql.cj.jdbc.Driver");
+		} catch (ClassNotFoundException e) {
+			System.out.println(e);
+		}
+		pool = new ConnectionPool(URL, USER, PASSWORD, 2, 10, 300000, 10000, 60000,
+				Integer.getInteger("cms.jdbc.statementCacheSize", ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE));
+		Metrics.gauge("pool.open", pool::getOpenCount);
+		Metrics.gauge("pool.idle", pool::getIdleCount);
+		Metrics.gauge("pool.borrowed", pool::getBorrowedCount);
+		Metrics.gauge("statementCache.hitRate", pool::getStatementCacheHitRate);
+		Metrics.gauge("statementCache.evictions", pool::getStatementCacheEvictions);
+	}
+
+	/**
+	 * Method returns a connection to the database borrowed from the
+	 * connection pool, so that a new connection does not have to be opened
+	 * for each task. Closing the connection returns it to the pool.
+	 * 
+	 * @return The connection that is needed for the task
+	 * @throws SQLException
+	 */
+	public static Connection getConnection() throws SQLException {
+		return pool.borrow();
+	}
+
+	/**
+	 * Retrieves the pool that backs getConnection(), so that its size can be
+	 * reported or it can be shut down when the application exits.
+	 * 
+	 * @return the connection pool
+	 */
+	public static ConnectionPool getPool() {
+		return pool;
+	}
+
+	/**
+	 * Creates a database in MySQL if one does not already exist.
+	 * 
+	 * @param dbName
+	 *            The name of the database being searched prior to creation.
+	 * @return String message letting middleware know that the database exists.
+	 * @throws SQLException
+	 * @throws IllegalArgumentException
+	 *             if the name is not made of letters, digits and underscores
+	 */
+	public static String createDatabase(String dbName) throws SQLException {
+		// Names cannot be bound as parameters, so only plain names are allowed.
+		if (!dbName.matches("\\w+")) {
+			throw new IllegalArgumentException("Invalid database name: " + dbName);
+		}
+
+		Connection conn = getConnection();
+
+		try {
+			Statement statement = conn.createStatement();
+
+			statement.executeUpdate("create database if not exists " + dbName);
+			statement.executeUpdate("use " + dbName);
+
+			statement.close();
+		} finally {
+			conn.close();
+		}
+		return "Database has been created";
+
+	}
+
+	/**
+	 * Creates a table in MySQL if one does not already exist. This is
+	 * intentionally broken away from the database in case the database name
+	 * needs to be altered independently of the table.
+	 * 
+	 * @param tableName
+	 *            The name of the table being searched prior to creation.
+	 * @return String message letting middleware know that the table exists.
+	 * @throws SQLException
+	 */
+	public static String createTable(String tableName) throws SQLException {
+
+		Connection conn = getConnection();
+
+		try {
+			Statement statement = conn.createStatement();
+			statement.executeUpdate(
+					"create table if not exists Person(id MEDIUMINT NOT NULL AUTO_INCREMENT, name varchar(50) NOT NULL,"
+							+ "email varchar(200) NOT NULL, " + " phoneNumber varchar(20) NOT NULL,"
+							+ " PRIMARY KEY (id))");
+
+			statement.close();
+		} finally {
+			conn.close();
+		}
+
+		return "Table has been created";
+
+	}
+
+	/**
+	 * Brings the database up to the current schema by creating the customers
+	 * database if needed and applying any pending migrations. This is meant
+	 * to be run once when the application starts rather than before each
+	 * operation.
+	 * 
+	 * @return the number of migrations that were applied
+	 * @throws SQLException
+	 */
+	public static int initializeSchema() throws SQLException {
+		createDatabase("customers");
+
+		Connection conn = getConnection();
+		try {
+			return SchemaMigrator.migrate(conn);
+		} finally {
+			conn.close();
+		}
+	}
+
+	/**
+	 * Sets how many rows insertPeople sends to the database in each JDBC
+	 * batch. With rewriteBatchedStatements enabled on the connection each
+	 * batch travels as a single multi-row INSERT.
+	 * 
+	 * @param size
+	 *            the number of rows per batch, at least 1
+	 */
+	public static void setBatchSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1");
+		}
+		batchSize = size;
+	}
+
+	public static int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Inserts a person into the first empty row with a unique identity key.
+	 * The identity key generated by the database is stored back into the
+	 * Person object.
+	 * 
+	 * @param person
+	 *            The Person object being called
+	 * @throws SQLException
+	 */
+	public static void insertPerson(Person person) throws SQLException {
+
+		Connection conn = getConnection();
+
+		try {
+			conn.setAutoCommit(false);
+			PreparedStatement stmt = conn.prepareStatement(INSERT_PERSON, Statement.RETURN_GENERATED_KEYS);
+			try {
+				bindPerson(stmt, person);
+				stmt.executeUpdate();
+
+				ResultSet keys = stmt.getGeneratedKeys();
+				if (keys.next()) {
+					person.setId(keys.getInt(1));
+				}
+				keys.close();
+			} finally {
+				stmt.close();
+			}
+			indexTrigrams(conn, Collections.singletonList(person));
+			conn.commit();
+		} catch (SQLException | RuntimeException e) {
+			rollback(conn, e);
+			throw e;
+		} finally {
+			// The pool rolls back and restores autocommit on release.
+			conn.close();
+		}
+	}
+
+	/**
+	 * Rolls back a failed transaction. A failure to roll back is recorded on
+	 * the exception that caused it, so that exception is still the one
+	 * reported.
+	 */
+	private static void rollback(Connection conn, Exception cause) {
+		try {
+			conn.rollback();
+		} catch (SQLException e) {
+			cause.addSuppressed(e);
+		}
+	}
+
+	/**
+	 * Inserts a collection of people using JDBC batches of the configured
+	 * batch size, all in a single transaction. The identity key generated for
+	 * each row is stored back into its Person object. If any batch fails the
+	 * whole insert is rolled back.
+	 * 
+	 * @param people
+	 *            the Person objects to insert
+	 * @return the number of rows inserted
+	 * @throws SQLException
+	 */
+	public static int insertPeople(Collection<Person> people) throws SQLException {
+
+		if (people.isEmpty()) {
+			return 0;
+		}
+
+		Connection conn = getConnection();
+		int inserted = 0;
+
+		try {
+			conn.setAutoCommit(false);
+			PreparedStatement stmt = conn.prepareStatement(INSERT_PERSON, Statement.RETURN_GENERATED_KEYS);
+			try {
+				int size = batchSize;
+				List<Person> pending = new ArrayList<>(Math.min(size, people.size()));
+				for (Person person : people) {
+					bindPerson(stmt, person);
+					stmt.addBatch();
+					pending.add(person);
+					if (pending.size() == size) {
+						inserted += executeInsertBatch(stmt, pending);
+					}
+				}
+				if (!pending.isEmpty()) {
+					inserted += executeInsertBatch(stmt, pending);
+				}
+			} finally {
+				stmt.close();
+			}
+			conn.commit();
+		} catch (SQLException | RuntimeException e) {
+			rollback(conn, e);
+			throw e;
+		} finally {
+			// The pool rolls back and restores autocommit on release.
+			conn.close();
+		}
+
+		return inserted;
+	}
+
+	/**
+	 * Sends the queued batch and copies the generated keys, which come back
+	 * in insertion order, into the matching Person objects.
+	 */
+	private static int executeInsertBatch(PreparedStatement stmt, List<Person> pending) throws SQLException {
+		stmt.executeBatch();
+
+		ResultSet keys = stmt.getGeneratedKeys();
+		int row = 0;
+		while (keys.next() && row < pending.size()) {
+			pending.get(row++).setId(keys.getInt(1));
+		}
+		keys.close();
+
+		indexTrigrams(stmt.getConnection(), pending);
+
+		int count = pending.size();
+		pending.clear();
+		return count;
+	}
+
+	/**
+	 * Adds the name trigrams of newly inserted people to the PersonTrigram
+	 * table. Rows are removed again by the cascading foreign key when the
+	 * person is deleted.
+	 */
+	private static void indexTrigrams(Connection conn, List<Person> inserted) throws SQLException {
+		PreparedStatement stmt = conn.prepareStatement(INSERT_TRIGRAM);
+		try {
+			for (Person person : inserted) {
+				for (String gram : NameTrigrams.of(person.getName())) {
+					stmt.setString(1, gram);
+					stmt.setInt(2, person.getId());
+					stmt.addBatch();
+				}
+			}
+			stmt.executeBatch();
+		} finally {
+			stmt.close();
+		}
+	}
+
+	private static void bindPerson(PreparedStatement stmt, Person person) throws SQLException {
+		stmt.setString(1, person.getName());
+		stmt.setString(2, person.getEmail());
+		stmt.setString(3, person.getPhone());
+		stmt.setString(4, PhoneDigits.of(person.getPhone()));
+	}
+
+	/**
+	 * Selects the people whose name contains the search term and creates a
+	 * usable Person object array in the application structure.
+	 * 
+	 * @param name
+	 *            is the data we wish to select from the database
+	 * @throws SQLException
+	 * @see #selectPerson(String, SearchMode)
+	 */
+	public static ArrayList<Person> selectPerson(String name) throws SQLException {
+		return selectPerson(name, SearchMode.SUBSTRING);
+	}
+
+	/**
+	 * Selects the people whose name matches the search term and creates a
+	 * usable Person object array in the application structure. Prefix
+	 * searches use the index on Person.name. Substring searches find their
+	 * candidates through the PersonTrigram index and only check those rows;
+	 * terms shorter than three characters have no trigrams and fall back to
+	 * scanning Person.
+	 * 
+	 * @param name
+	 *            is the data we wish to select from the database
+	 * @param mode
+	 *            whether the name must start with or only contain the term
+	 * @throws SQLException
+	 */
+	public static ArrayList<Person> selectPerson(String name, SearchMode mode) throws SQLException {
+
+		String pattern = escapeLike(name) + "%";
+		Set<String> grams = Collections.emptySet();
+		String sql;
+
+		if (mode == SearchMode.PREFIX) {
+			sql = "SELECT " + PERSON_COLUMNS + " from Person p where p.name LIKE ?";
+		} else {
+			pattern = "%" + pattern;
+			grams = NameTrigrams.of(name);
+			if (grams.isEmpty()) {
+				sql = "SELECT " + PERSON_COLUMNS + " from Person p where p.name LIKE ?";
+			} else {
+				sql = "SELECT " + PERSON_COLUMNS + " from Person p join (SELECT personId from PersonTrigram"
+						+ " where trigram in (" + placeholders(grams.size()) + ") group by personId"
+						+ " having count(*) = ?) t on t.personId = p.id where p.name LIKE ?";
+			}
+		}
+
+		Connection conn = getConnection();
+		ArrayList<Person> customerList = new ArrayList<>();
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement(sql);
+			try {
+				int index = 1;
+				if (!grams.isEmpty()) {
+					for (String gram : grams) {
+						stmt.setString(index++, gram);
+					}
+					stmt.setInt(index++, grams.size());
+				}
+				stmt.setString(index, pattern);
+
+				ResultSet mySet = stmt.executeQuery();
+				while (mySet.next()) {
+					customerList.add(readPerson(mySet));
+				}
+				mySet.close();
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		return customerList;
+	}
+
+	/**
+	 * Selects a single person by their distinct ID number.
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record
+	 * @return the person, or null if no record has that ID
+	 * @throws SQLException
+	 */
+	public static Person findPersonById(int id) throws SQLException {
+
+		Connection conn = getConnection();
+		Person person = null;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement("SELECT " + PERSON_COLUMNS + " from Person p where p.id = ?");
+			try {
+				stmt.setInt(1, id);
+				ResultSet mySet = stmt.executeQuery();
+				if (mySet.next()) {
+					person = readPerson(mySet);
+				}
+				mySet.close();
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		return person;
+	}
+
+	/**
+	 * Retrieves one page of the people a query finds, in id order, with a
+	 * single statement built from the criteria that are set. Each criterion
+	 * is served by an index: the primary key for the id range and the
+	 * cursor, Person.name or PersonTrigram for the name, and Person.email and
+	 * Person.phoneDigits for the starts of an address or number. Only the
+	 * columns the query reads are selected.
+	 * 
+	 * Every value is bound as a parameter, and there are only a few dozen
+	 * shapes of statement, so each one stays in the statement cache.
+	 * 
+	 * @param query
+	 *            the criteria the people must match and the columns to read
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page of people and the cursor of the next page
+	 * @throws SQLException
+	 */
+	public static PersonPage findPeople(PersonQuery query, String cursor, int pageSize) throws SQLException {
+
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+
+		// idBetween() keeps the lowest id at 1 or more, so this cannot overflow.
+		int afterId = Math.max(PersonPage.idAfter(cursor), query.getMinId() - 1);
+		List<String> patterns = new ArrayList<>(3);
+		Set<String> grams = Collections.emptySet();
+
+		StringBuilder sql = new StringBuilder("SELECT p.id");
+		if (query.reads(PersonQuery.Column.NAME)) {
+			sql.append(", p.name");
+		}
+		if (query.reads(PersonQuery.Column.EMAIL)) {
+			sql.append(", p.email");
+		}
+		if (query.reads(PersonQuery.Column.PHONE)) {
+			sql.append(", p.phoneNumber");
+		}
+		sql.append(" from Person p");
+
+		String name = query.getName();
+		if (name != null && query.getNameMode() == SearchMode.SUBSTRING) {
+			grams = NameTrigrams.of(name);
+			if (!grams.isEmpty()) {
+				sql.append(" join (SELECT personId from PersonTrigram where trigram in (")
+						.append(placeholders(grams.size()))
+						.append(") group by personId having count(*) = ?) t on t.personId = p.id");
+			}
+		}
+
+		sql.append(" where p.id > ? and p.id <= ?");
+		if (name != null) {
+			sql.append(" and p.name LIKE ?");
+			String pattern = escapeLike(name) + "%";
+			patterns.add(query.getNameMode() == SearchMode.PREFIX ? pattern : "%" + pattern);
+		}
+		if (query.getEmail() != null) {
+			sql.append(" and p.email LIKE ?");
+			patterns.add(escapeLike(query.getEmail()) + "%");
+		}
+		if (query.getPhonePrefix() != null) {
+			sql.append(" and p.phoneDigits LIKE ?");
+			patterns.add(query.getPhonePrefix() + "%");
+		}
+		sql.append(" ORDER BY p.id LIMIT ?");
+
+		Connection conn = getConnection();
+		List<Person> page = new ArrayList<>(Math.min(pageSize, 64));
+		boolean more = false;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement(sql.toString());
+			try {
+				int index = 1;
+				if (!grams.isEmpty()) {
+					for (String gram : grams) {
+						stmt.setString(index++, gram);
+					}
+					stmt.setInt(index++, grams.size());
+				}
+				stmt.setInt(index++, afterId);
+				stmt.setInt(index++, query.getMaxId());
+				for (String pattern : patterns) {
+					stmt.setString(index++, pattern);
+				}
+				stmt.setInt(index, pageSize + 1);
+
+				ResultSet mySet = stmt.executeQuery();
+				while (mySet.next()) {
+					if (page.size() == pageSize) {
+						more = true;
+						break;
+					}
+					page.add(readPerson(mySet, query));
+				}
+				mySet.close();
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		String next = more ? PersonPage.cursorAfter(page.get(page.size() - 1).getId()) : null;
+		return new PersonPage(page, next);
+	}
+
+	/**
+	 * Escapes the LIKE wildcards in a user supplied term so that they match
+	 * literally.
+	 */
+	private static String escapeLike(String term) {
+		return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+	}
+
+	private static String placeholders(int count) {
+		StringBuilder marks = new StringBuilder(count * 2);
+		for (int i = 0; i < count; i++) {
+			marks.append(i == 0 ? "?" : ",?");
+		}
+		return marks.toString();
+	}
+
+	/**
+	 * Builds a Person from the id, name, email and phone number columns of the
+	 * current row.
+	 */
+	private static Person readPerson(ResultSet mySet) throws SQLException {
+		return new Person(mySet.getInt(1), mySet.getString(2), mySet.getString(3), mySet.getString(4));
+	}
+
+	/**
+	 * Builds a Person from the id and whichever columns the query selected,
+	 * leaving the other fields null.
+	 */
+	private static Person readPerson(ResultSet mySet, PersonQuery query) throws SQLException {
+		int column = 2;
+		String name = query.reads(PersonQuery.Column.NAME) ? mySet.getString(column++) : null;
+		String email = query.reads(PersonQuery.Column.EMAIL) ? mySet.getString(column++) : null;
+		String phone = query.reads(PersonQuery.Column.PHONE) ? mySet.getString(column) : null;
+		return new Person(mySet.getInt(1), name, email, phone);
+	}
+
+	/**
+	 * Creates a usable Array List of Person Objects from the Person table in
+	 * the database.
+	 * 
+	 * @param con
+	 *            The database connection being passed from the Main
+	 * @return customerList the list of all Person Objects in the person table
+	 *         of the customer database.
+	 * @throws SQLException
+	 *             if the table could not be read in full; no partial list is
+	 *             returned
+	 */
+	public static List<Person> findAllPeople() throws SQLException {
+
+		Connection conn = getConnection();
+
+		ArrayList<Person> customerList = new ArrayList<>();
+		PreparedStatement stmt = null;
+
+		try {
+			stmt = conn.prepareStatement("SELECT " + PERSON_COLUMNS + " from Person p");
+
+			ResultSet mySet = stmt.executeQuery();
+			while (mySet.next()) {
+				Person person = new Person(mySet.getInt(1), mySet.getString(2), mySet.getString(3), mySet.getString(4));
+				customerList.add(person);
+			}
+			mySet.close();
+		} finally {
+			if (stmt != null) {
+				stmt.close();
+			}
+			conn.close();
+		}
+
+		return customerList;
+	}
+
+	/**
+	 * Retrieves one page of the Person table in id order. Each page seeks
+	 * directly past the last id of the previous one using the primary key, so
+	 * the cost of a page does not depend on how far into the table it is.
+	 * 
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page of people and the cursor of the next page
+	 * @throws SQLException
+	 */
+	public static PersonPage findPeoplePage(String cursor, int pageSize) throws SQLException {
+
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+
+		int afterId = PersonPage.idAfter(cursor);
+		Connection conn = getConnection();
+		List<Person> page = new ArrayList<>(pageSize);
+		boolean more = false;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement(
+					"SELECT " + PERSON_COLUMNS + " from Person p where p.id > ? ORDER BY p.id LIMIT ?");
+			try {
+				stmt.setInt(1, afterId);
+				stmt.setInt(2, pageSize + 1);
+
+				ResultSet mySet = stmt.executeQuery();
+				while (mySet.next()) {
+					if (page.size() == pageSize) {
+						more = true;
+						break;
+					}
+					page.add(readPerson(mySet));
+				}
+				mySet.close();
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		String next = more ? PersonPage.cursorAfter(page.get(page.size() - 1).getId()) : null;
+		return new PersonPage(page, next);
+	}
+
+	/**
+	 * Passes every person in the Person table to the handler in id order
+	 * without holding the table in memory. The rows are streamed from the
+	 * server one at a time, so the handler should not block for long; the
+	 * connection stays borrowed until the last row has been handled.
+	 * 
+	 * @param handler
+	 *            called once for each person
+	 * @return the number of people handled
+	 * @throws SQLException
+	 */
+	public static int forEachPerson(Consumer<Person> handler) throws SQLException {
+
+		Connection conn = getConnection();
+		int count = 0;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement("SELECT " + PERSON_COLUMNS + " from Person p ORDER BY p.id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			try {
+				// Connector/J streams rows instead of buffering the whole
+				// result when the fetch size is Integer.MIN_VALUE.
+				stmt.setFetchSize(Integer.MIN_VALUE);
+
+				ResultSet mySet = stmt.executeQuery();
+				try {
+					while (mySet.next()) {
+						handler.accept(readPerson(mySet));
+						count++;
+					}
+				} finally {
+					mySet.close();
+				}
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		return count;
+	}
+
+	/**
+	 * Reads the id of every person in id order. Only the primary key is read,
+	 * so this is much cheaper than reading the people themselves; it lets an
+	 * in-memory copy of the table find rows that were deleted elsewhere.
+	 * 
+	 * @return the ids in increasing order
+	 * @throws SQLException
+	 */
+	public static int[] findAllIds() throws SQLException {
+
+		Connection conn = getConnection();
+		int[] ids = new int[1024];
+		int count = 0;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement("SELECT id from Person ORDER BY id",
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			try {
+				stmt.setFetchSize(Integer.MIN_VALUE);
+
+				ResultSet mySet = stmt.executeQuery();
+				try {
+					while (mySet.next()) {
+						if (count == ids.length) {
+							ids = Arrays.copyOf(ids, count * 2);
+						}
+						ids[count++] = mySet.getInt(1);
+					}
+				} finally {
+					mySet.close();
+				}
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		return Arrays.copyOf(ids, count);
+	}
+
+	/**
+	 * Deletes a Person Object from the database by the row ID provided. A
+	 * single DELETE is issued and its update count tells whether the record
+	 * existed.
+	 * 
+	 * @param id
+	 *            The distinct ID number of the record being deleted.
+	 * @return the result, which lets the user know whether the record was
+	 *         deleted or not found in the database.
+	 * @throws SQLException
+	 */
+	public static DeleteResult deletePerson(int id) throws SQLException {
+
+		Connection conn = getConnection();
+		int count = 0;
+
+		try {
+			PreparedStatement stmt = conn.prepareStatement(DELETE_PERSON);
+			try {
+				stmt.setInt(1, id);
+				count = stmt.executeUpdate();
+			} finally {
+				stmt.close();
+			}
+		} finally {
+			conn.close();
+		}
+
+		return new DeleteResult(id, count > 0);
+	}
+
+	/**
+	 * Deletes several people in a single transaction. The ids are handled in
+	 * chunks of the batch size. For each chunk the rows that exist are
+	 * selected and locked, and then deleted with a single DELETE. Each result
+	 * therefore tells whether that row was really there. A batched update
+	 * count cannot tell this, because with rewriteBatchedStatements the driver
+	 * reports counts it does not know as SUCCESS_NO_INFO.
+	 * 
+	 * @param ids
+	 *            The distinct ID numbers of the records being deleted.
+	 * @return one result per ID, in the order given
+	 * @throws SQLException
+	 */
+	public static List<DeleteResult> deletePeople(int... ids) throws SQLException {
+
+		List<DeleteResult> results = new ArrayList<>(ids.length);
+		if (ids.length == 0) {
+			return results;
+		}
+
+		Connection conn = getConnection();
+		Set<Integer> existing = new HashSet<>();
+
+		try {
+			conn.setAutoCommit(false);
+			int size = batchSize;
+			for (int from = 0; from < ids.length; from += size) {
+				int[] chunk = Arrays.copyOfRange(ids, from, Math.min(ids.length, from + size));
+				existing.addAll(deleteExisting(conn, chunk));
+			}
+			conn.commit();
+		} catch (SQLException | RuntimeException e) {
+			rollback(conn, e);
+			throw e;
+		} finally {
+			// The pool rolls back and restores autocommit on release.
+			conn.close();
+		}
+
+		for (int id : ids) {
+			// An id given twice is only deleted the first time.
+			results.add(new DeleteResult(id, existing.remove(id)));
+		}
+		return results;
+	}
+
+	/**
+	 * Locks and reads which of the ids exist, then deletes them. The id list
+	 * is padded to a power of two by repeating its last id, so that only a
+	 * few shapes of statement reach the statement cache.
+	 * 
+	 * @return the ids that existed and were deleted
+	 */
+	private static Set<Integer> deleteExisting(Connection conn, int[] chunk) throws SQLException {
+		Set<Integer> found = new HashSet<>();
+		int padded = chunk.length == 1 ? 1 : Integer.highestOneBit(chunk.length - 1) << 1;
+		int[] ids = Arrays.copyOf(chunk, padded);
+		Arrays.fill(ids, chunk.length, ids.length, chunk[chunk.length - 1]);
+		String in = placeholders(ids.length);
+
+		PreparedStatement select = conn.prepareStatement("SELECT id from Person where id in (" + in + ") FOR UPDATE");
+		try {
+			for (int i = 0; i < ids.length; i++) {
+				select.setInt(i + 1, ids[i]);
+			}
+			ResultSet mySet = select.executeQuery();
+			while (mySet.next()) {
+				found.add(mySet.getInt(1));
+			}
+			mySet.close();
+		} finally {
+			select.close();
+		}
+
+		if (!found.isEmpty()) {
+			PreparedStatement delete = conn.prepareStatement("DELETE from Person where id in (" + in + ")");
+			try {
+				for (int i = 0; i < ids.length; i++) {
+					delete.setInt(i + 1, ids[i]);
+				}
+				delete.executeUpdate();
+			} finally {
+				delete.close();
+			}
+		}
+		return found;
+	}
+
+}
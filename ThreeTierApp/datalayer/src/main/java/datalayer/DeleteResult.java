@@ -0,0 +1,58 @@
+package datalayer;
+
+/**
+ * A DeleteResult reports what happened when a person was deleted, so that
+ * the caller can remove just that row from whatever it is displaying instead
+ * of reading the whole table again.
+ *
+ */
+public class DeleteResult {
+
+	private final int id;
+	private final boolean deleted;
+
+	/**
+	 * Creates the result of deleting one record.
+	 * 
+	 * @param id
+	 *            the distinct ID number that was deleted
+	 * @param deleted
+	 *            true if a record with that ID existed and was removed
+	 */
+	public DeleteResult(int id, boolean deleted) {
+		this.id = id;
+		this.deleted = deleted;
+	}
+
+	public int getId() {
+		return id;
+	}
+
+	/**
+	 * Tells whether a record was found and removed.
+	 * 
+	 * @return false if no record had the ID
+	 */
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+	/**
+	 * Builds the message letting the user know whether the record was
+	 * deleted or was not found in the database.
+	 * 
+	 * @return the message
+	 */
+	public String getMessage() {
+		if (deleted) {
+			return "\nCustomer ID #" + id + " was found in the database and has been deleted.\n";
+		}
+		return "\nCustomer ID #" + id + " was not found in the database.\n";
+	}
+
+	@Override
+	public String toString() {
+		return getMessage();
+	}
+
+}
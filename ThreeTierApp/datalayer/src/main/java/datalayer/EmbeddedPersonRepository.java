@@ -0,0 +1,419 @@
+package datalayer;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import businesslayer.Person;
+
+/**
+ * The EmbeddedPersonRepository is a storage engine that runs inside the
+ * application process. People are held in memory in id order and every
+ * change is appended to a log file, which is replayed when the repository is
+ * opened again. It needs no database server or network round trip, which
+ * makes it a fast path for edge deployments and a stand-in for MySQL when
+ * testing.
+ *
+ * Each log record is a length followed by one insert or delete of one or
+ * more people, so a batch is either replayed whole or not at all. A record
+ * cut short by a crash is dropped when the log is next opened. compact()
+ * rewrites the log as a single record holding the current contents.
+ *
+ * Reads never block. Writes are serialized so that the log and the memory
+ * stay in the same order.
+ *
+ */
+public class EmbeddedPersonRepository implements PersonRepository {
+
+	private static final byte INSERT = 'I';
+	private static final byte DELETE = 'D';
+
+	private final Path logFile;
+	private final ConcurrentSkipListMap<Integer, Person> people = new ConcurrentSkipListMap<>();
+	private FileChannel log;
+	private int lastId = 0;
+	private volatile boolean syncOnWrite = false;
+
+	/**
+	 * Creates a repository. Nothing is read until initializeSchema() is
+	 * called.
+	 *
+	 * @param logFile
+	 *            the append-only log to replay and write to, or null to keep
+	 *            everything in memory only
+	 */
+	public EmbeddedPersonRepository(Path logFile) {
+		this.logFile = logFile;
+	}
+
+	/**
+	 * Sets whether every write waits for the log to reach the disk. Without
+	 * it a write is handed to the operating system, which survives the
+	 * application crashing but not the machine losing power.
+	 *
+	 * @param sync
+	 *            true to force the log to disk on each write
+	 */
+	public void setSyncOnWrite(boolean sync) {
+		this.syncOnWrite = sync;
+	}
+
+	/**
+	 * Opens the log and replays it into memory.
+	 */
+	@Override
+	public synchronized void initializeSchema() throws SQLException {
+		if (logFile == null || log != null) {
+			return;
+		}
+
+		try {
+			log = FileChannel.open(logFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE);
+			long valid = replay();
+			if (valid < log.size()) {
+				log.truncate(valid);
+			}
+			log.position(valid);
+		} catch (IOException e) {
+			throw new SQLException("Unable to open the embedded log " + logFile, e);
+		}
+	}
+
+	@Override
+	public void insertPerson(Person person) throws SQLException {
+		insertPeople(Collections.singletonList(person));
+	}
+
+	@Override
+	public synchronized int insertPeople(Collection<Person> newPeople) throws SQLException {
+		if (newPeople.isEmpty()) {
+			return 0;
+		}
+
+		int id = lastId;
+		List<Person> stored = new ArrayList<>(newPeople.size());
+		for (Person person : newPeople) {
+			stored.add(new Person(++id, person.getName(), person.getEmail(), person.getPhone()));
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream record = new DataOutputStream(bytes);
+			record.writeByte(INSERT);
+			record.writeInt(stored.size());
+			for (Person person : stored) {
+				writePerson(record, person);
+			}
+			append(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new SQLException("Unable to write to the embedded log", e);
+		}
+
+		int index = 0;
+		for (Person person : newPeople) {
+			Person copy = stored.get(index++);
+			person.setId(copy.getId());
+			people.put(copy.getId(), copy);
+		}
+		lastId = id;
+		return stored.size();
+	}
+
+	@Override
+	public List<Person> selectPerson(String name, SearchMode mode) throws SQLException {
+		String term = name.toLowerCase(Locale.ROOT);
+		List<Person> found = new ArrayList<>();
+		for (Person person : people.values()) {
+			String candidate = person.getName().toLowerCase(Locale.ROOT);
+			if (mode == SearchMode.PREFIX ? candidate.startsWith(term) : candidate.contains(term)) {
+				found.add(copy(person));
+			}
+		}
+		return found;
+	}
+
+	@Override
+	public Person findPersonById(int id) throws SQLException {
+		Person person = people.get(id);
+		return person == null ? null : copy(person);
+	}
+
+	@Override
+	public List<Person> findAllPeople() throws SQLException {
+		List<Person> all = new ArrayList<>(people.size());
+		for (Person person : people.values()) {
+			all.add(copy(person));
+		}
+		return all;
+	}
+
+	@Override
+	public PersonPage findPeoplePage(String cursor, int pageSize) throws SQLException {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+
+		ConcurrentNavigableMap<Integer, Person> after = people.tailMap(PersonPage.idAfter(cursor), false);
+		List<Person> page = new ArrayList<>(pageSize);
+		boolean more = false;
+		for (Person person : after.values()) {
+			if (page.size() == pageSize) {
+				more = true;
+				break;
+			}
+			page.add(copy(person));
+		}
+
+		String next = more ? PersonPage.cursorAfter(page.get(page.size() - 1).getId()) : null;
+		return new PersonPage(page, next);
+	}
+
+	/**
+	 * Walks the people in the query's id range and checks each against the
+	 * rest of the query, stopping as soon as the page is full.
+	 */
+	@Override
+	public PersonPage findPeople(PersonQuery query, String cursor, int pageSize) throws SQLException {
+		if (pageSize < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+
+		// In longs, as a cursor after the highest possible id has no next id.
+		long from = Math.max(query.getMinId(), PersonPage.idAfter(cursor) + 1L);
+		List<Person> page = new ArrayList<>(Math.min(pageSize, 64));
+		boolean more = false;
+		if (from <= query.getMaxId()) {
+			for (Person person : people.subMap((int) from, true, query.getMaxId(), true).values()) {
+				if (!query.matches(person)) {
+					continue;
+				}
+				if (page.size() == pageSize) {
+					more = true;
+					break;
+				}
+				page.add(query.project(person));
+			}
+		}
+
+		String next = more ? PersonPage.cursorAfter(page.get(page.size() - 1).getId()) : null;
+		return new PersonPage(page, next);
+	}
+
+	@Override
+	public int forEachPerson(Consumer<Person> handler) throws SQLException {
+		int count = 0;
+		for (Person person : people.values()) {
+			handler.accept(copy(person));
+			count++;
+		}
+		return count;
+	}
+
+	@Override
+	public int[] findAllIds() throws SQLException {
+		return people.keySet().stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	@Override
+	public DeleteResult deletePerson(int id) throws SQLException {
+		return deletePeople(id).get(0);
+	}
+
+	@Override
+	public synchronized List<DeleteResult> deletePeople(int... ids) throws SQLException {
+		List<DeleteResult> results = new ArrayList<>(ids.length);
+		if (ids.length == 0) {
+			return results;
+		}
+
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream record = new DataOutputStream(bytes);
+			record.writeByte(DELETE);
+			record.writeInt(ids.length);
+			for (int id : ids) {
+				record.writeInt(id);
+			}
+			append(bytes.toByteArray());
+		} catch (IOException e) {
+			throw new SQLException("Unable to write to the embedded log", e);
+		}
+
+		for (int id : ids) {
+			results.add(new DeleteResult(id, people.remove(id) != null));
+		}
+		return results;
+	}
+
+	/**
+	 * Rewrites the log so that it holds only the people currently stored,
+	 * dropping the history of deleted people. The new log is written beside
+	 * the old one and moved into place.
+	 *
+	 * @throws SQLException
+	 */
+	public synchronized void compact() throws SQLException {
+		if (log == null) {
+			return;
+		}
+
+		Path temporary = logFile.resolveSibling(logFile.getFileName() + ".compact");
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			DataOutputStream record = new DataOutputStream(bytes);
+			record.writeByte(INSERT);
+			record.writeInt(people.size());
+			for (Person person : people.values()) {
+				writePerson(record, person);
+			}
+
+			FileChannel compacted = FileChannel.open(temporary, StandardOpenOption.CREATE,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			try {
+				writeRecord(compacted, bytes.toByteArray());
+				compacted.force(true);
+			} finally {
+				compacted.close();
+			}
+
+			log.close();
+			Files.move(temporary, logFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			log = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			log.position(log.size());
+		} catch (IOException e) {
+			throw new SQLException("Unable to compact the embedded log", e);
+		}
+	}
+
+	/**
+	 * Closes the log file. The repository cannot be written to afterwards.
+	 *
+	 * @throws SQLException
+	 */
+	public synchronized void close() throws SQLException {
+		if (log != null) {
+			try {
+				log.close();
+			} catch (IOException e) {
+				throw new SQLException("Unable to close the embedded log", e);
+			}
+		}
+	}
+
+	/**
+	 * Reads every complete record in the log into memory.
+	 *
+	 * @return the position just after the last complete record
+	 */
+	private long replay() throws IOException {
+		long position = 0;
+		long size = log.size();
+		ByteBuffer lengthBuffer = ByteBuffer.allocate(4);
+
+		while (position + 4 <= size) {
+			lengthBuffer.clear();
+			log.read(lengthBuffer, position);
+			int length = lengthBuffer.getInt(0);
+			if (length <= 0 || position + 4 + length > size) {
+				break;
+			}
+
+			ByteBuffer payload = ByteBuffer.allocate(length);
+			while (payload.hasRemaining() && log.read(payload, position + 4 + payload.position()) > 0) {
+			}
+			apply(new DataInputStream(new ByteArrayInputStream(payload.array())));
+			position += 4 + length;
+		}
+		return position;
+	}
+
+	private void apply(DataInputStream record) throws IOException {
+		byte operation = record.readByte();
+		int count = record.readInt();
+		for (int i = 0; i < count; i++) {
+			if (operation == INSERT) {
+				Person person = new Person(record.readInt(), readString(record), readString(record),
+						readString(record));
+				people.put(person.getId(), person);
+				lastId = Math.max(lastId, person.getId());
+			} else if (operation == DELETE) {
+				people.remove(record.readInt());
+			} else {
+				throw new IOException("Unknown embedded log record " + operation);
+			}
+		}
+	}
+
+	private void append(byte[] payload) throws IOException {
+		if (log == null) {
+			return;
+		}
+		writeRecord(log, payload);
+		if (syncOnWrite) {
+			log.force(false);
+		}
+	}
+
+	private static void writeRecord(FileChannel channel, byte[] payload) throws IOException {
+		ByteBuffer record = ByteBuffer.allocate(4 + payload.length);
+		record.putInt(payload.length);
+		record.put(payload);
+		record.flip();
+		while (record.hasRemaining()) {
+			channel.write(record);
+		}
+	}
+
+	private static void writePerson(DataOutputStream record, Person person) throws IOException {
+		record.writeInt(person.getId());
+		writeString(record, person.getName());
+		writeString(record, person.getEmail());
+		writeString(record, person.getPhone());
+	}
+
+	private static void writeString(DataOutputStream record, String value) throws IOException {
+		record.writeBoolean(value != null);
+		if (value != null) {
+			record.writeUTF(value);
+		}
+	}
+
+	private static String readString(DataInputStream record) throws IOException {
+		return record.readBoolean() ? record.readUTF() : null;
+	}
+
+	/**
+	 * Copies a stored person so that callers cannot change the stored one.
+	 */
+	private static Person copy(Person person) {
+		return new Person(person.getId(), person.getName(), person.getEmail(), person.getPhone());
+	}
+
+	/**
+	 * The number of people stored.
+	 *
+	 * @return the count
+	 */
+	public int size() {
+		return people.size();
+	}
+
+}
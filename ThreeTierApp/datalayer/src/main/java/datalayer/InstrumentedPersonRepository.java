@@ -0,0 +1,131 @@
+package datalayer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import businesslayer.Person;
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * The InstrumentedPersonRepository times every operation of the repository
+ * it wraps in a repository.* timer, counting the operations that fail. The
+ * timers are shared by whichever backend is configured, so the figures of
+ * the embedded engine and MySQL can be compared directly.
+ *
+ */
+public class InstrumentedPersonRepository implements PersonRepository {
+
+	private static final Timer INITIALIZE_SCHEMA = Metrics.timer("repository.initializeSchema");
+	private static final Timer INSERT_PERSON = Metrics.timer("repository.insertPerson");
+	private static final Timer INSERT_PEOPLE = Metrics.timer("repository.insertPeople");
+	private static final Timer SELECT_PERSON = Metrics.timer("repository.selectPerson");
+	private static final Timer FIND_PERSON_BY_ID = Metrics.timer("repository.findPersonById");
+	private static final Timer FIND_ALL_PEOPLE = Metrics.timer("repository.findAllPeople");
+	private static final Timer FIND_PEOPLE_PAGE = Metrics.timer("repository.findPeoplePage");
+	private static final Timer FIND_PEOPLE = Metrics.timer("repository.findPeople");
+	private static final Timer FOR_EACH_PERSON = Metrics.timer("repository.forEachPerson");
+	private static final Timer FIND_ALL_IDS = Metrics.timer("repository.findAllIds");
+	private static final Timer DELETE_PERSON = Metrics.timer("repository.deletePerson");
+	private static final Timer DELETE_PEOPLE = Metrics.timer("repository.deletePeople");
+
+	private final PersonRepository delegate;
+
+	/**
+	 * Wraps a repository.
+	 * 
+	 * @param delegate
+	 *            the repository that does the work
+	 */
+	public InstrumentedPersonRepository(PersonRepository delegate) {
+		this.delegate = delegate;
+	}
+
+	@Override
+	public void initializeSchema() throws SQLException {
+		time(INITIALIZE_SCHEMA, () -> {
+			delegate.initializeSchema();
+			return null;
+		});
+	}
+
+	@Override
+	public void insertPerson(Person person) throws SQLException {
+		time(INSERT_PERSON, () -> {
+			delegate.insertPerson(person);
+			return null;
+		});
+	}
+
+	@Override
+	public int insertPeople(Collection<Person> people) throws SQLException {
+		return time(INSERT_PEOPLE, () -> delegate.insertPeople(people));
+	}
+
+	@Override
+	public List<Person> selectPerson(String name, SearchMode mode) throws SQLException {
+		return time(SELECT_PERSON, () -> delegate.selectPerson(name, mode));
+	}
+
+	@Override
+	public Person findPersonById(int id) throws SQLException {
+		return time(FIND_PERSON_BY_ID, () -> delegate.findPersonById(id));
+	}
+
+	@Override
+	public List<Person> findAllPeople() throws SQLException {
+		return time(FIND_ALL_PEOPLE, delegate::findAllPeople);
+	}
+
+	@Override
+	public PersonPage findPeoplePage(String cursor, int pageSize) throws SQLException {
+		return time(FIND_PEOPLE_PAGE, () -> delegate.findPeoplePage(cursor, pageSize));
+	}
+
+	@Override
+	public PersonPage findPeople(PersonQuery query, String cursor, int pageSize) throws SQLException {
+		return time(FIND_PEOPLE, () -> delegate.findPeople(query, cursor, pageSize));
+	}
+
+	@Override
+	public int forEachPerson(Consumer<Person> handler) throws SQLException {
+		return time(FOR_EACH_PERSON, () -> delegate.forEachPerson(handler));
+	}
+
+	@Override
+	public int[] findAllIds() throws SQLException {
+		return time(FIND_ALL_IDS, delegate::findAllIds);
+	}
+
+	@Override
+	public DeleteResult deletePerson(int id) throws SQLException {
+		return time(DELETE_PERSON, () -> delegate.deletePerson(id));
+	}
+
+	@Override
+	public List<DeleteResult> deletePeople(int... ids) throws SQLException {
+		return time(DELETE_PEOPLE, () -> delegate.deletePeople(ids));
+	}
+
+	private static <T> T time(Timer timer, Operation<T> operation) throws SQLException {
+		long start = timer.start();
+		try {
+			return operation.run();
+		} catch (SQLException | RuntimeException e) {
+			timer.fail();
+			throw e;
+		} finally {
+			timer.stop(start);
+		}
+	}
+
+	/**
+	 * A repository call that may fail with a SQLException.
+	 */
+	private interface Operation<T> {
+		T run() throws SQLException;
+	}
+
+}
@@ -0,0 +1,78 @@
+package datalayer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import businesslayer.Person;
+
+/**
+ * The JdbcPersonRepository keeps people in the MySQL customers database. It
+ * hands each operation to the matching DatabaseConnection method, which
+ * borrows a pooled connection for it.
+ *
+ */
+public class JdbcPersonRepository implements PersonRepository {
+
+	@Override
+	public void initializeSchema() throws SQLException {
+		DatabaseConnection.initializeSchema();
+	}
+
+	@Override
+	public void insertPerson(Person person) throws SQLException {
+		DatabaseConnection.insertPerson(person);
+	}
+
+	@Override
+	public int insertPeople(Collection<Person> people) throws SQLException {
+		return DatabaseConnection.insertPeople(people);
+	}
+
+	@Override
+	public List<Person> selectPerson(String name, SearchMode mode) throws SQLException {
+		return DatabaseConnection.selectPerson(name, mode);
+	}
+
+	@Override
+	public Person findPersonById(int id) throws SQLException {
+		return DatabaseConnection.findPersonById(id);
+	}
+
+	@Override
+	public List<Person> findAllPeople() throws SQLException {
+		return DatabaseConnection.findAllPeople();
+	}
+
+	@Override
+	public PersonPage findPeoplePage(String cursor, int pageSize) throws SQLException {
+		return DatabaseConnection.findPeoplePage(cursor, pageSize);
+	}
+
+	@Override
+	public PersonPage findPeople(PersonQuery query, String cursor, int pageSize) throws SQLException {
+		return DatabaseConnection.findPeople(query, cursor, pageSize);
+	}
+
+	@Override
+	public int forEachPerson(Consumer<Person> handler) throws SQLException {
+		return DatabaseConnection.forEachPerson(handler);
+	}
+
+	@Override
+	public int[] findAllIds() throws SQLException {
+		return DatabaseConnection.findAllIds();
+	}
+
+	@Override
+	public DeleteResult deletePerson(int id) throws SQLException {
+		return DatabaseConnection.deletePerson(id);
+	}
+
+	@Override
+	public List<DeleteResult> deletePeople(int... ids) throws SQLException {
+		return DatabaseConnection.deletePeople(ids);
+	}
+
+}
@@ -0,0 +1,80 @@
+package datalayer;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * A Migration is one numbered step in building the database schema. The
+ * SchemaMigrator applies each migration once, in version order, and records
+ * the version in the schema_version table so it is never applied again.
+ *
+ * Migrations should be written so that running them against a database that
+ * already has the change (for example one created before versioning
+ * existed) does no harm.
+ *
+ */
+public abstract class Migration {
+
+	private final int version;
+	private final String description;
+
+	/**
+	 * Creates a migration with its version number and a short description
+	 * that is stored alongside the version once applied.
+	 * 
+	 * @param version
+	 *            the schema version this migration brings the database to
+	 * @param description
+	 *            a short description of the change
+	 */
+	protected Migration(int version, String description) {
+		this.version = version;
+		this.description = description;
+	}
+
+	/**
+	 * Creates a migration that runs the given SQL statements in order.
+	 * 
+	 * @param version
+	 *            the schema version this migration brings the database to
+	 * @param description
+	 *            a short description of the change
+	 * @param statements
+	 *            the DDL or DML statements to execute
+	 * @return the migration
+	 */
+	public static Migration of(int version, String description, String... statements) {
+		return new Migration(version, description) {
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				Statement statement = conn.createStatement();
+				try {
+					for (String sql : statements) {
+						statement.executeUpdate(sql);
+					}
+				} finally {
+					statement.close();
+				}
+			}
+		};
+	}
+
+	public int getVersion() {
+		return version;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	/**
+	 * Applies the change to the database.
+	 * 
+	 * @param conn
+	 *            the connection to apply the change on
+	 * @throws SQLException
+	 */
+	public abstract void apply(Connection conn) throws SQLException;
+
+}
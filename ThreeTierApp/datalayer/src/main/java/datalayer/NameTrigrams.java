@@ -0,0 +1,48 @@
+package datalayer;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * NameTrigrams splits names into the overlapping three character pieces that
+ * are stored in the PersonTrigram table. A name contains a search term only
+ * if it contains every trigram of that term, so the trigram table can narrow
+ * a substring search down to a handful of candidate rows without scanning
+ * Person.
+ *
+ */
+public class NameTrigrams {
+
+	/**
+	 * The length of each piece a name is split into.
+	 */
+	public static final int GRAM_LENGTH = 3;
+
+	private NameTrigrams() {
+
+	}
+
+	/**
+	 * Breaks a name or search term into its distinct lower case trigrams.
+	 * Terms shorter than three characters have no trigrams.
+	 * 
+	 * @param text
+	 *            the name or search term
+	 * @return the distinct trigrams in the order they first appear
+	 */
+	public static Set<String> of(String text) {
+		Set<String> grams = new LinkedHashSet<>();
+		if (text == null) {
+			return grams;
+		}
+
+		String lower = text.toLowerCase(Locale.ROOT);
+		int[] codePoints = lower.codePoints().toArray();
+		for (int i = 0; i + GRAM_LENGTH <= codePoints.length; i++) {
+			grams.add(new String(codePoints, i, GRAM_LENGTH));
+		}
+		return grams;
+	}
+
+}
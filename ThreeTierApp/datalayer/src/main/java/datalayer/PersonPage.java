@@ -0,0 +1,93 @@
+package datalayer;
+
+import java.util.Collections;
+import java.util.List;
+
+import businesslayer.Person;
+
+/**
+ * A PersonPage is one page of the Person table in id order, along with the
+ * cursor that fetches the page after it. Pages are found by seeking past the
+ * last id of the previous page, so fetching page one thousand costs the same
+ * as fetching page one.
+ *
+ */
+public class PersonPage {
+
+	private final List<Person> people;
+	private final String nextCursor;
+
+	/**
+	 * Creates a page.
+	 * 
+	 * @param people
+	 *            the people on this page, in id order
+	 * @param nextCursor
+	 *            the cursor for the following page, or null if this is the
+	 *            last page
+	 */
+	public PersonPage(List<Person> people, String nextCursor) {
+		this.people = Collections.unmodifiableList(people);
+		this.nextCursor = nextCursor;
+	}
+
+	/**
+	 * Retrieves the people on this page in id order.
+	 * 
+	 * @return an unmodifiable list of people
+	 */
+	public List<Person> getPeople() {
+		return people;
+	}
+
+	/**
+	 * Retrieves the opaque cursor to pass back to fetch the next page.
+	 * 
+	 * @return the cursor, or null if there are no more pages
+	 */
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public boolean hasMore() {
+		return nextCursor != null;
+	}
+
+	/**
+	 * Creates the cursor that continues after the given id, for callers that
+	 * already hold the rows up to that id.
+	 * 
+	 * @param lastId
+	 *            the id of the last person on a page
+	 * @return the cursor token
+	 */
+	public static String cursorAfter(int lastId) {
+		return Integer.toString(lastId, Character.MAX_RADIX);
+	}
+
+	/**
+	 * Reads the id a cursor continues after.
+	 * 
+	 * @param cursor
+	 *            a cursor from getNextCursor(), or null for the first page
+	 * @return the id to seek past, 0 for the first page
+	 * @throws IllegalArgumentException
+	 *             if the cursor was not produced by a PersonPage
+	 */
+	static int idAfter(String cursor) {
+		if (cursor == null || cursor.isEmpty()) {
+			return 0;
+		}
+		int id;
+		try {
+			id = Integer.parseInt(cursor, Character.MAX_RADIX);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid page cursor: " + cursor, e);
+		}
+		if (id < 0) {
+			throw new IllegalArgumentException("Invalid page cursor: " + cursor);
+		}
+		return id;
+	}
+
+}
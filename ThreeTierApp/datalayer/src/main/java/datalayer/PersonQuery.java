@@ -0,0 +1,242 @@
+package datalayer;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+import businesslayer.Person;
+
+/**
+ * A PersonQuery describes the people to find by any combination of name,
+ * email, phone number and id range, and which of their columns to read.
+ * Every criterion that is set must match. The repository turns the whole
+ * query into a single parameterized statement, so the filtering is done by
+ * the database through its indexes instead of by the client after reading
+ * the table:
+ * <ul>
+ * <li>name - starts with or contains the term, using the index on
+ * Person.name or the PersonTrigram index, as selectPerson does</li>
+ * <li>email - starts with the term, ignoring case, using the index on
+ * Person.email</li>
+ * <li>phone - starts with the digits of the term, however either is
+ * formatted, using the index on Person.phoneDigits</li>
+ * <li>id range - using the primary key</li>
+ * </ul>
+ *
+ * The query is built by chaining its setters, for example
+ * <code>new PersonQuery().email("ada@").phone("(999) 867").columns(PersonQuery.Column.NAME)</code>.
+ * A query should not be changed once it has been handed to a repository.
+ *
+ */
+public class PersonQuery {
+
+	/**
+	 * The columns a query can read besides the id, which is always read.
+	 */
+	public enum Column {
+		NAME, EMAIL, PHONE
+	}
+
+	private String name;
+	private SearchMode nameMode = SearchMode.SUBSTRING;
+	private String email;
+	private String phonePrefix;
+	private int minId = 1;
+	private int maxId = Integer.MAX_VALUE;
+	private Set<Column> columns = EnumSet.allOf(Column.class);
+
+	/**
+	 * Matches people whose name contains the term, ignoring case.
+	 *
+	 * @param term
+	 *            the search term, or null or empty to match any name
+	 * @return this query
+	 */
+	public PersonQuery name(String term) {
+		return name(term, SearchMode.SUBSTRING);
+	}
+
+	/**
+	 * Matches people whose name matches the term, ignoring case.
+	 *
+	 * @param term
+	 *            the search term, or null or empty to match any name
+	 * @param mode
+	 *            whether the name must start with or only contain the term
+	 * @return this query
+	 */
+	public PersonQuery name(String term, SearchMode mode) {
+		this.name = blankToNull(term);
+		this.nameMode = mode;
+		return this;
+	}
+
+	/**
+	 * Matches people whose email address starts with the term, ignoring
+	 * case.
+	 *
+	 * @param term
+	 *            the start of the address, or null or empty to match any
+	 *            address
+	 * @return this query
+	 */
+	public PersonQuery email(String term) {
+		this.email = blankToNull(term);
+		return this;
+	}
+
+	/**
+	 * Matches people whose phone number starts with the digits of the term.
+	 * Formatting and a leading long distance code are ignored, so "999-867"
+	 * finds "1 (999) 867-5309".
+	 *
+	 * @param term
+	 *            all or the start of a phone number, or null or empty to
+	 *            match any number
+	 * @return this query
+	 */
+	public PersonQuery phone(String term) {
+		String digits = term == null ? "" : PhoneDigits.prefixOf(term);
+		this.phonePrefix = digits.isEmpty() ? null : digits;
+		return this;
+	}
+
+	/**
+	 * Matches people whose id is between two ids, including both. Ids start
+	 * at 1.
+	 *
+	 * @param minId
+	 *            the lowest id to match, at least 1
+	 * @param maxId
+	 *            the highest id to match
+	 * @return this query
+	 */
+	public PersonQuery idBetween(int minId, int maxId) {
+		if (minId < 1) {
+			throw new IllegalArgumentException("The lowest id must be at least 1");
+		}
+		if (minId > maxId) {
+			throw new IllegalArgumentException("The lowest id must not be above the highest id");
+		}
+		this.minId = minId;
+		this.maxId = maxId;
+		return this;
+	}
+
+	/**
+	 * Reads only the given columns besides the id. The fields of the people
+	 * found that belong to other columns are left null, and their values are
+	 * never sent from the database.
+	 *
+	 * @param wanted
+	 *            the columns to read
+	 * @return this query
+	 */
+	public PersonQuery columns(Column... wanted) {
+		Set<Column> set = EnumSet.noneOf(Column.class);
+		for (Column column : wanted) {
+			set.add(column);
+		}
+		this.columns = set;
+		return this;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public SearchMode getNameMode() {
+		return nameMode;
+	}
+
+	public String getEmail() {
+		return email;
+	}
+
+	/**
+	 * Retrieves the digits the phone numbers found start with.
+	 *
+	 * @return the digits, or null if any number matches
+	 */
+	public String getPhonePrefix() {
+		return phonePrefix;
+	}
+
+	public int getMinId() {
+		return minId;
+	}
+
+	public int getMaxId() {
+		return maxId;
+	}
+
+	/**
+	 * Whether a column is read.
+	 *
+	 * @param column
+	 *            the column
+	 * @return true if the query reads it
+	 */
+	public boolean reads(Column column) {
+		return columns.contains(column);
+	}
+
+	/**
+	 * Checks a stored person against every criterion of the query, matching
+	 * text the way the database does. Used where the people are held in
+	 * memory rather than in a database.
+	 *
+	 * @param person
+	 *            the person with every field read
+	 * @return true if the query finds them
+	 */
+	boolean matches(Person person) {
+		if (person.getId() < minId || person.getId() > maxId) {
+			return false;
+		}
+		if (name != null) {
+			String candidate = lower(person.getName());
+			String term = lower(name);
+			if (nameMode == SearchMode.PREFIX ? !candidate.startsWith(term) : !candidate.contains(term)) {
+				return false;
+			}
+		}
+		if (email != null && !lower(person.getEmail()).startsWith(lower(email))) {
+			return false;
+		}
+		if (phonePrefix != null) {
+			String digits = PhoneDigits.of(person.getPhone());
+			if (digits == null || !digits.startsWith(phonePrefix)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Copies a stored person with only the columns the query reads.
+	 *
+	 * @param person
+	 *            the stored person
+	 * @return a new person holding the id and the columns read
+	 */
+	Person project(Person person) {
+		return new Person(person.getId(), reads(Column.NAME) ? person.getName() : null,
+				reads(Column.EMAIL) ? person.getEmail() : null, reads(Column.PHONE) ? person.getPhone() : null);
+	}
+
+	private static String blankToNull(String term) {
+		return term == null || term.trim().isEmpty() ? null : term.trim();
+	}
+
+	private static String lower(String text) {
+		return text == null ? "" : text.toLowerCase(Locale.ROOT);
+	}
+
+	@Override
+	public String toString() {
+		return "PersonQuery [name=" + name + ", nameMode=" + nameMode + ", email=" + email + ", phonePrefix="
+				+ phonePrefix + ", minId=" + minId + ", maxId=" + maxId + ", columns=" + columns + "]";
+	}
+
+}
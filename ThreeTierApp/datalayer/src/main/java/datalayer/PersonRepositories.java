@@ -0,0 +1,58 @@
+package datalayer;
+
+import java.nio.file.Paths;
+
+import metrics.Metrics;
+
+/**
+ * PersonRepositories chooses the storage backend from configuration. The
+ * choice is read from system properties so it can be made on the command
+ * line without rebuilding:
+ * <ul>
+ * <li>cms.repository - "jdbc" for the MySQL database (the default) or
+ * "embedded" for the in-process engine</li>
+ * <li>cms.embedded.log - the log file of the embedded engine, or "none" to
+ * keep its data in memory only (default customers.log)</li>
+ * <li>cms.jdbc.url, cms.jdbc.user, cms.jdbc.password - the MySQL connection
+ * used by the jdbc backend</li>
+ * <li>cms.jdbc.statementCacheSize - how many prepared statements each pooled
+ * connection keeps open (default 50, 0 to turn the cache off)</li>
+ * </ul>
+ * Whichever backend is chosen is wrapped in an InstrumentedPersonRepository,
+ * so every operation is timed.
+ *
+ */
+public class PersonRepositories {
+
+	public static final String REPOSITORY_PROPERTY = "cms.repository";
+	public static final String EMBEDDED_LOG_PROPERTY = "cms.embedded.log";
+
+	private PersonRepositories() {
+
+	}
+
+	/**
+	 * Creates the repository selected by the system properties, with its
+	 * operations timed.
+	 * 
+	 * @return the configured repository
+	 * @throws IllegalArgumentException
+	 *             if cms.repository names an unknown backend
+	 */
+	public static PersonRepository fromConfiguration() {
+		String backend = System.getProperty(REPOSITORY_PROPERTY, "jdbc");
+
+		switch (backend) {
+		case "jdbc":
+			return new InstrumentedPersonRepository(new JdbcPersonRepository());
+		case "embedded":
+			String log = System.getProperty(EMBEDDED_LOG_PROPERTY, "customers.log");
+			EmbeddedPersonRepository embedded = new EmbeddedPersonRepository("none".equals(log) ? null : Paths.get(log));
+			Metrics.gauge("embedded.size", embedded::size);
+			return new InstrumentedPersonRepository(embedded);
+		default:
+			throw new IllegalArgumentException("Unknown " + REPOSITORY_PROPERTY + ": " + backend);
+		}
+	}
+
+}
@@ -0,0 +1,144 @@
+package datalayer;
+
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import businesslayer.Person;
+
+/**
+ * A PersonRepository stores the people managed by the application. AppData
+ * works only through this interface, so the storage behind it can be
+ * chosen by configuration: the MySQL database through JdbcPersonRepository,
+ * or the in-process EmbeddedPersonRepository that needs no database server.
+ * 
+ * Every method reports storage failures as SQLException, whichever backend
+ * is in use.
+ *
+ */
+public interface PersonRepository {
+
+	/**
+	 * Prepares the storage for use. Called once when the application starts.
+	 * 
+	 * @throws SQLException
+	 */
+	void initializeSchema() throws SQLException;
+
+	/**
+	 * Stores a new person and sets the identity key it was given.
+	 * 
+	 * @param person
+	 *            the person to store
+	 * @throws SQLException
+	 */
+	void insertPerson(Person person) throws SQLException;
+
+	/**
+	 * Stores several new people as a single unit and sets the identity key
+	 * each was given.
+	 * 
+	 * @param people
+	 *            the people to store
+	 * @return the number of people stored
+	 * @throws SQLException
+	 */
+	int insertPeople(Collection<Person> people) throws SQLException;
+
+	/**
+	 * Finds the people whose name matches a search term.
+	 * 
+	 * @param name
+	 *            the search term
+	 * @param mode
+	 *            whether the name must start with or only contain the term
+	 * @return the people found
+	 * @throws SQLException
+	 */
+	List<Person> selectPerson(String name, SearchMode mode) throws SQLException;
+
+	/**
+	 * Finds a person by their distinct ID number.
+	 * 
+	 * @param id
+	 *            the ID to look up
+	 * @return the person, or null if no person has that ID
+	 * @throws SQLException
+	 */
+	Person findPersonById(int id) throws SQLException;
+
+	/**
+	 * Reads every person.
+	 * 
+	 * @return all people in id order
+	 * @throws SQLException
+	 */
+	List<Person> findAllPeople() throws SQLException;
+
+	/**
+	 * Reads one page of people in id order.
+	 * 
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page
+	 * @throws SQLException
+	 */
+	PersonPage findPeoplePage(String cursor, int pageSize) throws SQLException;
+
+	/**
+	 * Reads one page of the people a query finds, in id order.
+	 * 
+	 * @param query
+	 *            the criteria the people must match and the columns to read
+	 * @param cursor
+	 *            the cursor from the previous page, or null for the first page
+	 * @param pageSize
+	 *            the most people to return
+	 * @return the page
+	 * @throws SQLException
+	 */
+	PersonPage findPeople(PersonQuery query, String cursor, int pageSize) throws SQLException;
+
+	/**
+	 * Passes every person to the handler in id order without holding them
+	 * all in memory.
+	 * 
+	 * @param handler
+	 *            called once per person
+	 * @return the number of people handled
+	 * @throws SQLException
+	 */
+	int forEachPerson(Consumer<Person> handler) throws SQLException;
+
+	/**
+	 * Reads the ID of every person.
+	 * 
+	 * @return the IDs in increasing order
+	 * @throws SQLException
+	 */
+	int[] findAllIds() throws SQLException;
+
+	/**
+	 * Deletes a person by their distinct ID number.
+	 * 
+	 * @param id
+	 *            the ID to delete
+	 * @return whether a person was deleted
+	 * @throws SQLException
+	 */
+	DeleteResult deletePerson(int id) throws SQLException;
+
+	/**
+	 * Deletes several people as a single unit.
+	 * 
+	 * @param ids
+	 *            the IDs to delete
+	 * @return one result per ID, in the order given
+	 * @throws SQLException
+	 */
+	List<DeleteResult> deletePeople(int... ids) throws SQLException;
+
+}
@@ -0,0 +1,73 @@
+package datalayer;
+
+/**
+ * PhoneDigits reduces phone numbers to the ten digits stored in the
+ * Person.phoneDigits column: the area code, exchange and local number,
+ * without the long distance code or any formatting. Numbers are stored and
+ * searched in this form so that "(999) 867-5309", "1 999 867 5309" and
+ * "999.867.5309" all find one another through the same index.
+ *
+ * The rules are those TelephoneNumber validates entries with: a number that
+ * starts with 1 has eleven digits and the 1 is the long distance code, any
+ * other number has ten.
+ *
+ */
+public class PhoneDigits {
+
+	/**
+	 * The number of digits stored for a valid number.
+	 */
+	public static final int LENGTH = 10;
+
+	private PhoneDigits() {
+
+	}
+
+	/**
+	 * Reduces a stored phone number to its ten digits.
+	 *
+	 * @param phone
+	 *            the phone number as entered or formatted
+	 * @return the ten digits, or null if the text is not a valid number
+	 */
+	public static String of(String phone) {
+		if (phone == null) {
+			return null;
+		}
+		String digits = digitsOf(phone);
+		if (digits.startsWith("1")) {
+			return digits.length() == LENGTH + 1 ? digits.substring(1) : null;
+		}
+		return digits.length() == LENGTH ? digits : null;
+	}
+
+	/**
+	 * Reduces a search term to the digits the stored numbers it matches start
+	 * with, so that part of a number, such as its area code, can be searched
+	 * for.
+	 *
+	 * @param term
+	 *            all or the start of a phone number, in any format
+	 * @return the leading digits to match, which are empty if the term has
+	 *         no digits other than a long distance code
+	 */
+	public static String prefixOf(String term) {
+		String digits = digitsOf(term);
+		if (digits.startsWith("1")) {
+			digits = digits.substring(1);
+		}
+		return digits;
+	}
+
+	private static String digitsOf(String text) {
+		StringBuilder digits = new StringBuilder(LENGTH + 1);
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			if (c >= '0' && c <= '9') {
+				digits.append(c);
+			}
+		}
+		return digits.toString();
+	}
+
+}
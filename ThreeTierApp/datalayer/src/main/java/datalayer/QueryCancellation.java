@@ -0,0 +1,128 @@
+package datalayer;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A QueryCancellation lets one thread stop the database work another thread
+ * is doing. The working thread runs its repository calls through run(), and
+ * every statement executed through a pooled connection meanwhile registers
+ * with the cancellation while it runs. cancel() stops the statement running
+ * at that moment with Statement.cancel(), so the database server gives up
+ * the query and the pooled connection is freed as soon as the driver
+ * returns, and makes any later statement fail before it is sent.
+ *
+ * Only statements run through the ConnectionPool can be stopped. Work that
+ * does not reach the database, such as a search answered by the embedded
+ * repository, runs to the end unless it is cancelled before it starts.
+ *
+ */
+public final class QueryCancellation {
+
+	/**
+	 * The SQL state of a query that was cancelled.
+	 */
+	public static final String CANCELLED_STATE = "57014";
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.pool");
+
+	private static final ThreadLocal<QueryCancellation> CURRENT = new ThreadLocal<>();
+
+	/**
+	 * The statement being executed, guarded by this cancellation's monitor
+	 * so it cannot be cancelled once it has been handed back to the pool.
+	 */
+	private Statement running;
+	private boolean cancelled;
+
+	/**
+	 * Runs database work that cancel() can stop.
+	 *
+	 * @param work
+	 *            the repository calls to run on this thread
+	 * @return what the work returned
+	 * @throws SQLException
+	 *             if the work failed, or was cancelled; a cancelled query
+	 *             fails with the SQL state CANCELLED_STATE or whatever the
+	 *             driver reports for it
+	 */
+	public <T> T run(Work<T> work) throws SQLException {
+		QueryCancellation outer = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			checkCancelled();
+			return work.run();
+		} finally {
+			if (outer == null) {
+				CURRENT.remove();
+			} else {
+				CURRENT.set(outer);
+			}
+		}
+	}
+
+	/**
+	 * Stops the statement that is running, if there is one, and any that
+	 * would be run after it. Can be called from any thread, any number of
+	 * times.
+	 */
+	public synchronized void cancel() {
+		if (cancelled) {
+			return;
+		}
+		cancelled = true;
+		if (running != null) {
+			try {
+				running.cancel();
+			} catch (SQLException e) {
+				LOG.log(Level.WARNING, "Unable to cancel a running statement", e);
+			}
+		}
+	}
+
+	public synchronized boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * The cancellation the current thread's work is running under, or null.
+	 */
+	static QueryCancellation current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Registers a statement that is about to be executed.
+	 *
+	 * @throws SQLException
+	 *             if the work has been cancelled
+	 */
+	synchronized void started(Statement statement) throws SQLException {
+		checkCancelled();
+		running = statement;
+	}
+
+	/**
+	 * Forgets the statement once it has been executed, before it can be used
+	 * again.
+	 */
+	synchronized void finished() {
+		running = null;
+	}
+
+	private synchronized void checkCancelled() throws SQLException {
+		if (cancelled) {
+			throw new SQLException("The query was cancelled", CANCELLED_STATE);
+		}
+	}
+
+	/**
+	 * Database work run under a cancellation.
+	 */
+	public interface Work<T> {
+		T run() throws SQLException;
+	}
+
+}
@@ -0,0 +1,317 @@
+package datalayer;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The SchemaMigrator brings the customers database up to the current schema
+ * version. It is run once at startup rather than on every request, keeps the
+ * applied versions in a schema_version table, and applies any pending
+ * migrations in version order.
+ *
+ * A MySQL named lock is held while migrating so that two application
+ * instances starting at the same time do not apply the same migration
+ * twice.
+ *
+ */
+public class SchemaMigrator {
+
+	/**
+	 * The name of the MySQL lock held while migrations run.
+	 */
+	private static final String LOCK_NAME = "customers.schema_migration";
+
+	/**
+	 * How long, in seconds, to wait for another instance to finish migrating.
+	 */
+	private static final int LOCK_TIMEOUT_SECONDS = 60;
+
+	/**
+	 * The migrations that make up the schema, in version order.
+	 */
+	private static final List<Migration> MIGRATIONS = new ArrayList<>();
+
+	static {
+		MIGRATIONS.add(Migration.of(1, "Create Person table",
+				"create table if not exists Person(id MEDIUMINT NOT NULL AUTO_INCREMENT, name varchar(50) NOT NULL,"
+						+ "email varchar(200) NOT NULL, " + " phoneNumber varchar(20) NOT NULL,"
+						+ " PRIMARY KEY (id))"));
+
+		MIGRATIONS.add(new Migration(2, "Index Person.name for prefix searches") {
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				if (!indexExists(conn, "Person", "idx_person_name")) {
+					Statement statement = conn.createStatement();
+					try {
+						statement.executeUpdate("create index idx_person_name on Person (name)");
+					} finally {
+						statement.close();
+					}
+				}
+			}
+		});
+
+		MIGRATIONS.add(new Migration(3, "Create PersonTrigram substring index") {
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				Statement statement = conn.createStatement();
+				try {
+					statement.executeUpdate("create table if not exists PersonTrigram(trigram varchar(3) NOT NULL,"
+							+ " personId MEDIUMINT NOT NULL, PRIMARY KEY (trigram, personId),"
+							+ " KEY idx_trigram_person (personId),"
+							+ " FOREIGN KEY (personId) REFERENCES Person (id) ON DELETE CASCADE)");
+
+					indexTrigrams(conn, statement);
+				} finally {
+					statement.close();
+				}
+			}
+		});
+
+		MIGRATIONS.add(new Migration(4, "Index Person.email and Person.phoneDigits for multi-field searches") {
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				Statement statement = conn.createStatement();
+				try {
+					if (!columnExists(conn, "Person", "phoneDigits")) {
+						statement.executeUpdate("alter table Person add column phoneDigits char(10) NULL");
+					}
+
+					// Existing rows get the digits of the number they were
+					// entered with; rows whose number is not valid keep NULL.
+					PreparedStatement update = conn.prepareStatement("UPDATE Person set phoneDigits = ? where id = ?");
+					try {
+						ResultSet people = statement
+								.executeQuery("SELECT id, phoneNumber from Person where phoneDigits is NULL");
+						int queued = 0;
+						while (people.next()) {
+							String digits = PhoneDigits.of(people.getString(2));
+							if (digits == null) {
+								continue;
+							}
+							update.setString(1, digits);
+							update.setInt(2, people.getInt(1));
+							update.addBatch();
+							if (++queued % 1000 == 0) {
+								update.executeBatch();
+							}
+						}
+						people.close();
+						update.executeBatch();
+					} finally {
+						update.close();
+					}
+
+					if (!indexExists(conn, "Person", "idx_person_email")) {
+						statement.executeUpdate("create index idx_person_email on Person (email)");
+					}
+					if (!indexExists(conn, "Person", "idx_person_phone_digits")) {
+						statement.executeUpdate("create index idx_person_phone_digits on Person (phoneDigits)");
+					}
+				} finally {
+					statement.close();
+				}
+			}
+		});
+
+		MIGRATIONS.add(new Migration(5, "Compare PersonTrigram.trigram exactly") {
+			@Override
+			public void apply(Connection conn) throws SQLException {
+				Statement statement = conn.createStatement();
+				try {
+					// Under the default collation grams differing only in case
+					// or accents, such as "zoe" and "zoë", shared one row, so a
+					// search counting its grams could never match them all.
+					statement.executeUpdate("alter table PersonTrigram modify trigram varchar(3)"
+							+ " CHARACTER SET utf8mb4 COLLATE utf8mb4_bin NOT NULL");
+					// The grams dropped as duplicates of another are added back.
+					indexTrigrams(conn, statement);
+				} finally {
+					statement.close();
+				}
+			}
+		});
+	}
+
+	private SchemaMigrator() {
+
+	}
+
+	/**
+	 * Adds the name trigrams of every stored person to PersonTrigram,
+	 * skipping those already there.
+	 */
+	private static void indexTrigrams(Connection conn, Statement statement) throws SQLException {
+		PreparedStatement insert = conn
+				.prepareStatement("INSERT IGNORE INTO PersonTrigram (trigram, personId) VALUES (?, ?)");
+		try {
+			ResultSet people = statement.executeQuery("SELECT id, name from Person");
+			int queued = 0;
+			while (people.next()) {
+				int id = people.getInt(1);
+				for (String gram : NameTrigrams.of(people.getString(2))) {
+					insert.setString(1, gram);
+					insert.setInt(2, id);
+					insert.addBatch();
+					if (++queued % 1000 == 0) {
+						insert.executeBatch();
+					}
+				}
+			}
+			people.close();
+			insert.executeBatch();
+		} finally {
+			insert.close();
+		}
+	}
+
+	/**
+	 * The newest schema version known to this build of the application.
+	 * 
+	 * @return the highest migration version
+	 */
+	public static int getLatestVersion() {
+		return MIGRATIONS.get(MIGRATIONS.size() - 1).getVersion();
+	}
+
+	/**
+	 * Applies every migration that has not yet been recorded in the
+	 * schema_version table.
+	 * 
+	 * @param conn
+	 *            the connection to migrate on
+	 * @return the number of migrations that were applied
+	 * @throws SQLException
+	 */
+	public static int migrate(Connection conn) throws SQLException {
+		return migrate(conn, MIGRATIONS);
+	}
+
+	/**
+	 * Applies every migration in the list that has not yet been recorded,
+	 * in version order whatever the order of the list.
+	 */
+	static int migrate(Connection conn, List<Migration> migrations) throws SQLException {
+		Statement statement = conn.createStatement();
+		try {
+			statement.executeUpdate("create table if not exists schema_version(version INT NOT NULL,"
+					+ " description varchar(200) NOT NULL,"
+					+ " applied_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP, PRIMARY KEY (version))");
+
+			acquireLock(conn);
+			try {
+				int current = currentVersion(statement);
+				List<Migration> pending = new ArrayList<>();
+				for (Migration migration : migrations) {
+					if (migration.getVersion() > current) {
+						pending.add(migration);
+					}
+				}
+				Collections.sort(pending, Comparator.comparingInt(Migration::getVersion));
+
+				for (Migration migration : pending) {
+					migration.apply(conn);
+					record(conn, migration);
+				}
+				return pending.size();
+			} finally {
+				releaseLock(conn);
+			}
+		} finally {
+			statement.close();
+		}
+	}
+
+	private static void acquireLock(Connection conn) throws SQLException {
+		PreparedStatement lock = conn.prepareStatement("SELECT GET_LOCK(?, ?)");
+		try {
+			lock.setString(1, LOCK_NAME);
+			lock.setInt(2, LOCK_TIMEOUT_SECONDS);
+			ResultSet result = lock.executeQuery();
+			if (!result.next() || result.getInt(1) != 1) {
+				throw new SQLException("Timed out waiting for another instance to finish migrating the schema");
+			}
+			result.close();
+		} finally {
+			lock.close();
+		}
+	}
+
+	private static void releaseLock(Connection conn) throws SQLException {
+		PreparedStatement unlock = conn.prepareStatement("SELECT RELEASE_LOCK(?)");
+		try {
+			unlock.setString(1, LOCK_NAME);
+			unlock.executeQuery().close();
+		} finally {
+			unlock.close();
+		}
+	}
+
+	private static int currentVersion(Statement statement) throws SQLException {
+		ResultSet result = statement.executeQuery("SELECT COALESCE(MAX(version), 0) from schema_version");
+		try {
+			result.next();
+			return result.getInt(1);
+		} finally {
+			result.close();
+		}
+	}
+
+	/**
+	 * Checks the information schema for an index, since MySQL has no
+	 * "create index if not exists".
+	 */
+	private static boolean indexExists(Connection conn, String table, String index) throws SQLException {
+		PreparedStatement query = conn.prepareStatement("SELECT 1 from information_schema.statistics"
+				+ " where table_schema = DATABASE() and table_name = ? and index_name = ?");
+		try {
+			query.setString(1, table);
+			query.setString(2, index);
+			ResultSet result = query.executeQuery();
+			boolean exists = result.next();
+			result.close();
+			return exists;
+		} finally {
+			query.close();
+		}
+	}
+
+	/**
+	 * Checks the information schema for a column, since MySQL has no "add
+	 * column if not exists".
+	 */
+	private static boolean columnExists(Connection conn, String table, String column) throws SQLException {
+		PreparedStatement query = conn.prepareStatement("SELECT 1 from information_schema.columns"
+				+ " where table_schema = DATABASE() and table_name = ? and column_name = ?");
+		try {
+			query.setString(1, table);
+			query.setString(2, column);
+			ResultSet result = query.executeQuery();
+			boolean exists = result.next();
+			result.close();
+			return exists;
+		} finally {
+			query.close();
+		}
+	}
+
+	private static void record(Connection conn, Migration migration) throws SQLException {
+		PreparedStatement insert = conn
+				.prepareStatement("INSERT INTO schema_version (version, description) VALUES (?, ?)");
+		try {
+			insert.setInt(1, migration.getVersion());
+			insert.setString(2, migration.getDescription());
+			insert.executeUpdate();
+		} finally {
+			insert.close();
+		}
+	}
+
+}
@@ -0,0 +1,20 @@
+package datalayer;
+
+/**
+ * The ways a name search can match the names stored in the Person table.
+ *
+ */
+public enum SearchMode {
+
+	/**
+	 * Matches names that start with the search term. Served by the index on
+	 * Person.name.
+	 */
+	PREFIX,
+
+	/**
+	 * Matches names that contain the search term anywhere. Served by the
+	 * PersonTrigram index for terms of three or more characters.
+	 */
+	SUBSTRING
+}
@@ -0,0 +1,403 @@
+package datalayer;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * The StatementCache keeps the prepared statements of one pooled connection
+ * open between uses, so that a statement the application runs again is
+ * neither sent to the server to be parsed and planned again nor built again
+ * by the driver.
+ *
+ * Statements are keyed by their SQL text and the options they were prepared
+ * with, and the least recently used one is closed once the cache is full.
+ * The caller gets a handle whose close() clears the parameters and puts the
+ * statement back in the cache instead of closing it. A statement that is
+ * already checked out when the same SQL is prepared again is not shared;
+ * the second caller gets a statement of its own that is really closed.
+ *
+ * Every execution through a handle is timed in the sql.query, sql.update
+ * or sql.batch timer, and the bind parameters set on the statement are kept
+ * so that a slow execution can be logged with them.
+ * An execution made under a QueryCancellation registers the statement with
+ * it, so that another thread can cancel the statement while it runs.
+ *
+ * A connection is used by one borrower at a time, so the cache needs no
+ * locking of its own.
+ *
+ */
+final class StatementCache {
+
+	private static final Timer QUERY_TIMER = Metrics.timer("sql.query");
+	private static final Timer UPDATE_TIMER = Metrics.timer("sql.update");
+	private static final Timer BATCH_TIMER = Metrics.timer("sql.batch");
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.pool");
+
+	private final Connection physical;
+	private final int capacity;
+	private final AtomicLong hits;
+	private final AtomicLong misses;
+	private final AtomicLong evictions;
+
+	private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Checked out statements that are not cached because their SQL was
+	 * already checked out when they were prepared.
+	 */
+	private final List<CachedStatement> uncached = new ArrayList<>();
+
+	/**
+	 * Creates the cache for a physical connection.
+	 *
+	 * @param physical
+	 *            the connection the statements are prepared on
+	 * @param capacity
+	 *            the most statements kept open, or 0 to close every statement
+	 *            when it is closed
+	 * @param hits
+	 *            counts statements found in the cache, shared across the pool
+	 * @param misses
+	 *            counts statements that had to be prepared
+	 * @param evictions
+	 *            counts statements closed to make room
+	 */
+	StatementCache(Connection physical, int capacity, AtomicLong hits, AtomicLong misses, AtomicLong evictions) {
+		this.physical = physical;
+		this.capacity = capacity;
+		this.hits = hits;
+		this.misses = misses;
+		this.evictions = evictions;
+	}
+
+	/**
+	 * Returns a handle on a cached statement, preparing the statement if it
+	 * is not cached.
+	 *
+	 * @param owner
+	 *            the connection handle the caller prepared the statement on
+	 * @param prepare
+	 *            the Connection.prepareStatement variant that was called
+	 * @param args
+	 *            its arguments, the SQL text first
+	 * @return a handle whose close() returns the statement to the cache
+	 * @throws SQLException
+	 */
+	PreparedStatement prepare(Connection owner, Method prepare, Object[] args) throws SQLException {
+		String key = args.length == 1 ? (String) args[0] : Arrays.deepToString(args);
+
+		CachedStatement cached = statements.get(key);
+		if (cached != null && !cached.checkedOut) {
+			hits.incrementAndGet();
+		} else {
+			misses.incrementAndGet();
+			PreparedStatement statement = (PreparedStatement) invoke(physical, prepare, args);
+			if (cached != null || capacity == 0) {
+				// Already in use by this borrower, or caching is off; this one
+				// is not cached.
+				CachedStatement duplicate = new CachedStatement(statement, (String) args[0], null);
+				uncached.add(duplicate);
+				return handle(owner, duplicate);
+			}
+			cached = new CachedStatement(statement, (String) args[0], key);
+			cached.checkedOut = true;
+			statements.put(key, cached);
+			evictOverflow();
+			return handle(owner, cached);
+		}
+
+		cached.checkedOut = true;
+		return handle(owner, cached);
+	}
+
+	/**
+	 * Returns every checked out statement to the cache, for a connection
+	 * that is going back to the pool. Statements the borrower forgot to close
+	 * would otherwise stay checked out forever.
+	 */
+	void checkInAll() {
+		List<CachedStatement> open = new ArrayList<>(uncached);
+		for (CachedStatement cached : statements.values()) {
+			if (cached.checkedOut) {
+				open.add(cached);
+			}
+		}
+		for (CachedStatement cached : open) {
+			checkIn(cached);
+		}
+	}
+
+	/**
+	 * Forgets every statement. The statements themselves are closed along
+	 * with the physical connection.
+	 */
+	void clear() {
+		statements.clear();
+		uncached.clear();
+	}
+
+	int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Resets a statement for its next user and marks it free, or closes it
+	 * if it is not cached or cannot be reset.
+	 */
+	private void checkIn(CachedStatement cached) {
+		cached.checkedOut = false;
+		cached.holder = null;
+		cached.binds.clear();
+		if (cached.key == null || statements.get(cached.key) != cached) {
+			uncached.remove(cached);
+			closeQuietly(cached.statement);
+			return;
+		}
+
+		try {
+			ResultSet open = cached.statement.getResultSet();
+			if (open != null) {
+				open.close();
+			}
+			cached.statement.clearParameters();
+			if (cached.batched) {
+				cached.statement.clearBatch();
+				cached.batched = false;
+			}
+			if (cached.fetchSizeChanged) {
+				cached.statement.setFetchSize(cached.fetchSize);
+				cached.fetchSizeChanged = false;
+			}
+		} catch (SQLException e) {
+			statements.remove(cached.key);
+			closeQuietly(cached.statement);
+		}
+	}
+
+	private void evictOverflow() {
+		Iterator<Map.Entry<String, CachedStatement>> leastRecentFirst = statements.entrySet().iterator();
+		while (statements.size() > capacity && leastRecentFirst.hasNext()) {
+			CachedStatement eldest = leastRecentFirst.next().getValue();
+			if (!eldest.checkedOut) {
+				leastRecentFirst.remove();
+				closeQuietly(eldest.statement);
+				evictions.incrementAndGet();
+			}
+		}
+	}
+
+	private PreparedStatement handle(Connection owner, CachedStatement cached) {
+		Handle handle = new Handle(owner, cached);
+		cached.holder = handle;
+		return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class }, handle);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws SQLException {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException(e.getCause());
+		} catch (IllegalAccessException e) {
+			throw new SQLException(e);
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement statement) {
+		try {
+			statement.close();
+		} catch (SQLException e) {
+			LOG.log(Level.WARNING, "Unable to close a cached statement", e);
+		}
+	}
+
+	/**
+	 * A physical statement and the state it is reset to between uses.
+	 */
+	private static final class CachedStatement {
+
+		private final PreparedStatement statement;
+		private final String sql;
+		private final String key;
+		private final int fetchSize;
+		private final Binds binds = new Binds();
+		private boolean checkedOut;
+		private boolean batched;
+		private boolean fetchSizeChanged;
+		private Handle holder;
+
+		private CachedStatement(PreparedStatement statement, String sql, String key) throws SQLException {
+			this.statement = statement;
+			this.sql = sql;
+			this.key = key;
+			this.fetchSize = statement.getFetchSize();
+		}
+	}
+
+	/**
+	 * The parameters bound on a statement since it was last cleared, kept
+	 * for the slow query log. It is only turned into text when a statement
+	 * is actually logged.
+	 */
+	private static final class Binds {
+
+		private Object[] values = new Object[8];
+		private int count;
+		private int batchRows;
+
+		private void set(int index, Object value) {
+			if (index < 1) {
+				return;
+			}
+			if (index > values.length) {
+				values = Arrays.copyOf(values, Math.max(index, values.length * 2));
+			}
+			values[index - 1] = value;
+			count = Math.max(count, index);
+		}
+
+		private void clearValues() {
+			Arrays.fill(values, 0, count, null);
+			count = 0;
+		}
+
+		private void clear() {
+			clearValues();
+			batchRows = 0;
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder text = new StringBuilder();
+			if (batchRows > 0) {
+				text.append("(batch of ").append(batchRows).append(" rows, last row) ");
+			}
+			text.append('[');
+			for (int i = 0; i < count; i++) {
+				if (i > 0) {
+					text.append(", ");
+				}
+				Object value = values[i];
+				text.append(value instanceof String ? "'" + value + "'" : String.valueOf(value));
+			}
+			return text.append(']').toString();
+		}
+	}
+
+	/**
+	 * The handle given to a caller for one use of a statement. Once it is
+	 * closed, or its connection has gone back to the pool, it refuses any
+	 * further use, even after the statement is handed out again.
+	 */
+	private final class Handle implements InvocationHandler {
+
+		private final Connection owner;
+		private final CachedStatement cached;
+
+		private Handle(Connection owner, CachedStatement cached) {
+			this.owner = owner;
+			this.cached = cached;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			switch (method.getName()) {
+			case "close":
+				if (cached.holder == this) {
+					checkIn(cached);
+				}
+				return null;
+			case "isClosed":
+				return cached.holder != this || cached.statement.isClosed();
+			case "getConnection":
+				return owner;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "Cached[" + cached.statement + "]";
+			default:
+				if (cached.holder != this) {
+					throw new SQLException("The statement has already been closed");
+				}
+				String name = method.getName();
+				if (name.startsWith("execute")) {
+					return execute(method, args);
+				}
+				if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+					cached.binds.set((Integer) args[0], name.equals("setNull") ? null : args[1]);
+				} else if (name.equals("clearParameters")) {
+					cached.binds.clearValues();
+				} else if (name.equals("addBatch")) {
+					cached.batched = true;
+					cached.binds.batchRows++;
+				} else if (name.equals("setFetchSize")) {
+					cached.fetchSizeChanged = true;
+				}
+				try {
+					return method.invoke(cached.statement, args);
+				} catch (InvocationTargetException e) {
+					throw e.getCause();
+				}
+			}
+		}
+
+		/**
+		 * Runs one of the execute methods, timing it and logging it if it is
+		 * slow. A batch is cleared by running it, so its row count starts
+		 * again. While it runs, the statement can be cancelled through the
+		 * QueryCancellation the calling thread's work is running under.
+		 */
+		private Object execute(Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			Timer timer = name.equals("executeQuery") ? QUERY_TIMER
+					: name.endsWith("Batch") ? BATCH_TIMER : UPDATE_TIMER;
+			QueryCancellation cancellation = QueryCancellation.current();
+			if (cancellation != null) {
+				cancellation.started(cached.statement);
+			}
+			boolean failed = true;
+			long start = timer.start();
+			try {
+				Object result = method.invoke(cached.statement, args);
+				failed = false;
+				return result;
+			} catch (InvocationTargetException e) {
+				throw e.getCause();
+			} finally {
+				if (cancellation != null) {
+					cancellation.finished();
+				}
+				String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : cached.sql;
+				Metrics.recordStatement(timer, sql, cached.binds, start, failed);
+				if (timer == BATCH_TIMER) {
+					cached.binds.batchRows = 0;
+				}
+			}
+		}
+	}
+
+}
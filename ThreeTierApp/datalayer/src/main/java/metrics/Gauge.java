@@ -0,0 +1,30 @@
+package metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * A Gauge reports a value that is read when it is asked for, such as the
+ * number of idle pooled connections or a cache hit rate. It keeps no state
+ * of its own.
+ *
+ */
+public final class Gauge implements GaugeMXBean {
+
+	private final String name;
+	private final DoubleSupplier value;
+
+	Gauge(String name, DoubleSupplier value) {
+		this.name = name;
+		this.value = value;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public double getValue() {
+		return value.getAsDouble();
+	}
+
+}
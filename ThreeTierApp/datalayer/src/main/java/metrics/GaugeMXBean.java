@@ -0,0 +1,12 @@
+package metrics;
+
+/**
+ * The management interface of a Gauge, as seen in JConsole or any other JMX
+ * client.
+ *
+ */
+public interface GaugeMXBean {
+
+	double getValue();
+
+}
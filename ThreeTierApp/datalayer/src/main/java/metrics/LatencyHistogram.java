@@ -0,0 +1,154 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The LatencyHistogram counts durations in nanoseconds in buckets laid out
+ * the way HdrHistogram lays them out: every power of two is split into 32
+ * equal sub-buckets, so any recorded value is reported to within about 3%
+ * whether it took a microsecond or a minute, in a fixed 15 KB of counters.
+ *
+ * Recording is a couple of shifts and one atomic increment, with no lock,
+ * so it is cheap enough for every database call. Percentiles are read from
+ * the live counters; a value recorded while they are being read may or may
+ * not be included.
+ *
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * Values below this are counted exactly, one bucket each.
+	 */
+	private static final int LINEAR_BUCKETS = 64;
+
+	/**
+	 * The sub-buckets each power of two above LINEAR_BUCKETS is split into.
+	 */
+	private static final int SUB_BUCKETS = LINEAR_BUCKETS / 2;
+
+	private static final int SUB_BUCKET_BITS = Integer.numberOfTrailingZeros(SUB_BUCKETS);
+
+	/**
+	 * Enough buckets for any non-negative long.
+	 */
+	private static final int BUCKET_COUNT = LINEAR_BUCKETS + (62 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+	private final AtomicLong total = new AtomicLong();
+	private final AtomicLong sum = new AtomicLong();
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Counts one duration.
+	 *
+	 * @param nanos
+	 *            the duration; negative values are counted as zero
+	 */
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		counts.incrementAndGet(bucketOf(value));
+		total.incrementAndGet();
+		sum.addAndGet(value);
+
+		long current = max.get();
+		while (value > current && !max.compareAndSet(current, value)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * The number of durations recorded.
+	 *
+	 * @return the count
+	 */
+	public long getCount() {
+		return total.get();
+	}
+
+	/**
+	 * The longest duration recorded.
+	 *
+	 * @return the maximum in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getMax() {
+		return max.get();
+	}
+
+	/**
+	 * The average duration recorded.
+	 *
+	 * @return the mean in nanoseconds, or 0 if nothing was recorded
+	 */
+	public double getMean() {
+		long count = total.get();
+		return count == 0 ? 0 : (double) sum.get() / count;
+	}
+
+	/**
+	 * The duration that the given share of recorded durations did not
+	 * exceed, to within the width of its bucket.
+	 *
+	 * @param percentile
+	 *            the percentile from 0 to 100, e.g. 99.9
+	 * @return the duration in nanoseconds, or 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("The percentile must be between 0 and 100");
+		}
+
+		long[] snapshot = new long[BUCKET_COUNT];
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			snapshot[i] = counts.get(i);
+			count += snapshot[i];
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			seen += snapshot[i];
+			if (seen >= rank) {
+				return Math.min(highestValueIn(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Forgets everything recorded so far.
+	 */
+	public void reset() {
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			counts.set(i, 0);
+		}
+		total.set(0);
+		sum.set(0);
+		max.set(0);
+	}
+
+	static int bucketOf(long value) {
+		if (value < LINEAR_BUCKETS) {
+			return (int) value;
+		}
+		int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+		return LINEAR_BUCKETS + (shift - 1) * SUB_BUCKETS + subBucket;
+	}
+
+	static long highestValueIn(int bucket) {
+		if (bucket < LINEAR_BUCKETS) {
+			return bucket;
+		}
+		int offset = bucket - LINEAR_BUCKETS;
+		int shift = offset / SUB_BUCKETS + 1;
+		long top = offset % SUB_BUCKETS + SUB_BUCKETS;
+		long highest = ((top + 1) << shift) - 1;
+		return highest < 0 ? Long.MAX_VALUE : highest;
+	}
+
+}
@@ -0,0 +1,219 @@
+package metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Metrics is the registry of every Timer and Gauge in the application. Each
+ * is registered with the platform MBean server under the domain
+ * "threetierapp", so they can be watched with JConsole or VisualVM, and all
+ * of them can be written out as text for the server's /metrics endpoint.
+ *
+ * Names say which layer took the time, so a slow search can be traced to
+ * its cause: appdata.* is the whole middleware call including the cache,
+ * repository.* the storage backend, sql.* the statements themselves, and
+ * pool.* waiting for and opening database connections.
+ *
+ * Statements that take longer than the slow query threshold are logged to
+ * the "threetierapp.slowquery" logger with their SQL and bind parameters.
+ * The threshold is read from the cms.metrics.slowQueryMillis system property
+ * (default 200, or a negative number to turn the log off).
+ *
+ */
+public final class Metrics {
+
+	public static final String SLOW_QUERY_PROPERTY = "cms.metrics.slowQueryMillis";
+
+	private static final String DOMAIN = "threetierapp";
+
+	private static final Logger LOG = Logger.getLogger(DOMAIN + ".metrics");
+	private static final Logger SLOW_QUERY_LOG = Logger.getLogger(DOMAIN + ".slowquery");
+
+	private static final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+	private static final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+	private static final AtomicLong slowQueries = new AtomicLong();
+
+	private static volatile long slowQueryNanos = TimeUnit.MILLISECONDS
+			.toNanos(Long.getLong(SLOW_QUERY_PROPERTY, 200));
+
+	static {
+		gauge("sql.slowQueries", slowQueries::get);
+	}
+
+	private Metrics() {
+
+	}
+
+	/**
+	 * Returns the timer with the given name, creating and registering it the
+	 * first time it is asked for. Callers keep the timer in a static field
+	 * rather than looking it up on every call.
+	 *
+	 * @param name
+	 *            the dotted name of the operation, e.g. appdata.selectPerson
+	 * @return the timer
+	 */
+	public static Timer timer(String name) {
+		Timer timer = timers.get(name);
+		if (timer == null) {
+			Timer created = new Timer(name);
+			timer = timers.putIfAbsent(name, created);
+			if (timer == null) {
+				timer = created;
+				register("Timer", name, created);
+			}
+		}
+		return timer;
+	}
+
+	/**
+	 * Registers a gauge, replacing any gauge of the same name.
+	 *
+	 * @param name
+	 *            the dotted name of the value, e.g. pool.idle
+	 * @param value
+	 *            reads the current value
+	 * @return the gauge
+	 */
+	public static Gauge gauge(String name, DoubleSupplier value) {
+		Gauge gauge = new Gauge(name, value);
+		gauges.put(name, gauge);
+		register("Gauge", name, gauge);
+		return gauge;
+	}
+
+	/**
+	 * Records one execution of a SQL statement in the timer for its kind,
+	 * and logs it if it was slower than the slow query threshold.
+	 *
+	 * @param timer
+	 *            the timer for this kind of statement
+	 * @param sql
+	 *            the statement text
+	 * @param binds
+	 *            a description of the bind parameters, read only if the
+	 *            statement is logged
+	 * @param start
+	 *            the value timer.start() returned before the statement ran
+	 * @param failed
+	 *            whether the statement threw an exception
+	 */
+	public static void recordStatement(Timer timer, String sql, Object binds, long start, boolean failed) {
+		long elapsed = timer.stop(start);
+		if (failed) {
+			timer.fail();
+		}
+
+		long threshold = slowQueryNanos;
+		if (threshold >= 0 && elapsed >= threshold) {
+			slowQueries.incrementAndGet();
+			if (SLOW_QUERY_LOG.isLoggable(Level.WARNING)) {
+				SLOW_QUERY_LOG.warning(String.format(Locale.ROOT, "Slow query (%.1f ms%s): %s %s",
+						elapsed / 1e6, failed ? ", failed" : "", sql, binds));
+			}
+		}
+	}
+
+	/**
+	 * Changes the slow query threshold.
+	 *
+	 * @param millis
+	 *            the shortest statement to log, or a negative number to log
+	 *            none
+	 */
+	public static void setSlowQueryMillis(long millis) {
+		slowQueryNanos = millis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(millis);
+	}
+
+	/**
+	 * Writes every timer and gauge in the Prometheus text format, which
+	 * scrapers read directly and which is easy to read by eye. Durations are
+	 * in seconds.
+	 *
+	 * @return the text, one sample per line
+	 */
+	public static String toText() {
+		StringBuilder out = new StringBuilder();
+
+		out.append("# TYPE cms_operation_seconds summary\n");
+		for (Timer timer : timers.values()) {
+			LatencyHistogram histogram = timer.getHistogram();
+			String name = quote(timer.getName());
+			for (double quantile : new double[] { 0.5, 0.9, 0.99, 0.999 }) {
+				sample(out, "cms_operation_seconds{name=" + name + ",quantile=\"" + quantile + "\"}",
+						histogram.getValueAtPercentile(quantile * 100) / 1e9);
+			}
+			sample(out, "cms_operation_seconds_sum{name=" + name + "}",
+					histogram.getMean() * histogram.getCount() / 1e9);
+			sample(out, "cms_operation_seconds_count{name=" + name + "}", histogram.getCount());
+		}
+
+		out.append("# TYPE cms_operation_seconds_max gauge\n");
+		for (Timer timer : timers.values()) {
+			sample(out, "cms_operation_seconds_max{name=" + quote(timer.getName()) + "}",
+					timer.getHistogram().getMax() / 1e9);
+		}
+
+		out.append("# TYPE cms_operation_errors_total counter\n");
+		for (Timer timer : timers.values()) {
+			sample(out, "cms_operation_errors_total{name=" + quote(timer.getName()) + "}", timer.getErrors());
+		}
+
+		out.append("# TYPE cms_gauge gauge\n");
+		for (Gauge gauge : gauges.values()) {
+			double value;
+			try {
+				value = gauge.getValue();
+			} catch (RuntimeException e) {
+				value = Double.NaN;
+			}
+			sample(out, "cms_gauge{name=" + quote(gauge.getName()) + "}", value);
+		}
+
+		return out.toString();
+	}
+
+	private static void sample(StringBuilder out, String series, double value) {
+		out.append(series).append(' ');
+		if (value == Math.rint(value) && !Double.isInfinite(value)) {
+			out.append((long) value);
+		} else {
+			out.append(value);
+		}
+		out.append('\n');
+	}
+
+	private static String quote(String label) {
+		return '"' + label.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+	}
+
+	private static void register(String type, String name, Object bean) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = objectName(type, name);
+			if (server.isRegistered(objectName)) {
+				server.unregisterMBean(objectName);
+			}
+			server.registerMBean(bean, objectName);
+		} catch (JMException e) {
+			LOG.log(Level.WARNING, "Unable to register " + name + " over JMX", e);
+		}
+	}
+
+	private static ObjectName objectName(String type, String name) throws JMException {
+		return new ObjectName(DOMAIN + ":type=" + type + ",name=" + ObjectName.quote(name));
+	}
+
+}
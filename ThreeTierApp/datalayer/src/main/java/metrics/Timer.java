@@ -0,0 +1,147 @@
+package metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A Timer measures one kind of operation: how long each call took, in a
+ * LatencyHistogram, how many calls were made and how many of them failed.
+ *
+ * Callers take the time before the operation and hand it back afterwards:
+ * 
+ * <pre>
+ * long start = TIMER.start();
+ * try {
+ * 	...
+ * } catch (SQLException e) {
+ * 	TIMER.fail();
+ * 	...
+ * } finally {
+ * 	TIMER.stop(start);
+ * }
+ * </pre>
+ *
+ */
+public final class Timer implements TimerMXBean {
+
+	private static final double NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private final String name;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+	private final AtomicLong errors = new AtomicLong();
+	private volatile long startedAt = System.nanoTime();
+
+	Timer(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * Reads the clock at the start of an operation.
+	 * 
+	 * @return the start time to pass to stop()
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Records an operation that began at the given start time.
+	 * 
+	 * @param start
+	 *            the value start() returned
+	 * @return how long the operation took, in nanoseconds
+	 */
+	public long stop(long start) {
+		long elapsed = System.nanoTime() - start;
+		histogram.record(elapsed);
+		return elapsed;
+	}
+
+	/**
+	 * Records an operation of a known duration.
+	 * 
+	 * @param nanos
+	 *            how long the operation took
+	 */
+	public void record(long nanos) {
+		histogram.record(nanos);
+	}
+
+	/**
+	 * Counts a failed operation. Its duration is still recorded by stop().
+	 */
+	public void fail() {
+		errors.incrementAndGet();
+	}
+
+	/**
+	 * The durations recorded so far.
+	 * 
+	 * @return the histogram, in nanoseconds
+	 */
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+
+	@Override
+	public long getCount() {
+		return histogram.getCount();
+	}
+
+	@Override
+	public long getErrors() {
+		return errors.get();
+	}
+
+	@Override
+	public double getRatePerSecond() {
+		double seconds = (System.nanoTime() - startedAt) / 1e9;
+		return seconds <= 0 ? 0 : histogram.getCount() / seconds;
+	}
+
+	@Override
+	public double getMeanMillis() {
+		return histogram.getMean() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double getMaxMillis() {
+		return histogram.getMax() / NANOS_PER_MILLI;
+	}
+
+	@Override
+	public double get50thPercentileMillis() {
+		return percentileMillis(50);
+	}
+
+	@Override
+	public double get90thPercentileMillis() {
+		return percentileMillis(90);
+	}
+
+	@Override
+	public double get99thPercentileMillis() {
+		return percentileMillis(99);
+	}
+
+	@Override
+	public double get999thPercentileMillis() {
+		return percentileMillis(99.9);
+	}
+
+	@Override
+	public void reset() {
+		histogram.reset();
+		errors.set(0);
+		startedAt = System.nanoTime();
+	}
+
+	private double percentileMillis(double percentile) {
+		return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+	}
+
+}
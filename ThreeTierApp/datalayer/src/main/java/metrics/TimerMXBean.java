@@ -0,0 +1,39 @@
+package metrics;
+
+/**
+ * The management interface of a Timer, as seen in JConsole or any other JMX
+ * client. Durations are reported in milliseconds.
+ *
+ */
+public interface TimerMXBean {
+
+	long getCount();
+
+	long getErrors();
+
+	/**
+	 * The average number of operations per second since the timer was
+	 * created or last reset.
+	 * 
+	 * @return the throughput
+	 */
+	double getRatePerSecond();
+
+	double getMeanMillis();
+
+	double getMaxMillis();
+
+	double get50thPercentileMillis();
+
+	double get90thPercentileMillis();
+
+	double get99thPercentileMillis();
+
+	double get999thPercentileMillis();
+
+	/**
+	 * Starts counting again from zero.
+	 */
+	void reset();
+
+}
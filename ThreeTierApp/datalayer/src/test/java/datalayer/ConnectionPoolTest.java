@@ -0,0 +1,204 @@
+package datalayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how ConnectionPool hands out permits and connections, and what its
+ * housekeeping closes, opens and reports, against in-memory H2 databases.
+ *
+ */
+class ConnectionPoolTest {
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	private final List<ConnectionPool> pools = new ArrayList<>();
+
+	@AfterEach
+	void shutDownPools() {
+		for (ConnectionPool pool : pools) {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	void borrowWaitsNoLongerThanTheTimeoutWhenThePoolIsFull() throws Exception {
+		ConnectionPool pool = pool(0, 2, 60000, 0);
+		Connection first = pool.borrow();
+		Connection second = pool.borrow();
+
+		assertThrows(SQLTimeoutException.class, pool::borrow);
+
+		second.close();
+		pool.borrow().close();
+		first.close();
+		assertEquals(2, pool.getOpenCount());
+		assertEquals(2, pool.getIdleCount());
+		assertEquals(0, pool.getBorrowedCount());
+	}
+
+	@Test
+	void closingAConnectionTwiceReturnsOnePermit() throws Exception {
+		ConnectionPool pool = pool(0, 1, 60000, 0);
+		Connection connection = pool.borrow();
+		connection.close();
+		connection.close();
+
+		Connection again = pool.borrow();
+		assertThrows(SQLTimeoutException.class, pool::borrow);
+		again.close();
+	}
+
+	@Test
+	void aConnectionThatCannotBeOpenedGivesItsPermitBack() {
+		ConnectionPool pool = track(new ConnectionPool("jdbc:h2:mem:missing;IFEXISTS=TRUE", "sa", "", 0, 1, 60000,
+				100, 0));
+
+		for (int i = 0; i < 3; i++) {
+			SQLException e = assertThrows(SQLException.class, pool::borrow);
+			assertFalse(e instanceof SQLTimeoutException, "the permit was given back");
+		}
+		assertEquals(0, pool.getOpenCount());
+	}
+
+	@Test
+	void aReturnedConnectionRefusesUse() throws Exception {
+		ConnectionPool pool = pool(0, 1, 60000, 0);
+		Connection connection = pool.borrow();
+		connection.close();
+
+		assertTrue(connection.isClosed());
+		assertThrows(SQLException.class, connection::createStatement);
+	}
+
+	@Test
+	void anOpenTransactionIsRolledBackOnReturn() throws Exception {
+		ConnectionPool pool = pool(0, 1, 60000, 0);
+		Connection connection = pool.borrow();
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("create table Item (id int)");
+		}
+		connection.setAutoCommit(false);
+		try (Statement statement = connection.createStatement()) {
+			statement.execute("insert into Item values (1)");
+		}
+		connection.close();
+
+		Connection next = pool.borrow();
+		try (Statement statement = next.createStatement();
+				ResultSet rows = statement.executeQuery("select count(*) from Item")) {
+			assertTrue(next.getAutoCommit());
+			rows.next();
+			assertEquals(0, rows.getInt(1));
+		} finally {
+			next.close();
+		}
+	}
+
+	@Test
+	void housekeepingClosesIdleConnectionsDownToTheMinimum() throws Exception {
+		ConnectionPool pool = pool(1, 3, 0, 0);
+		Connection first = pool.borrow();
+		Connection second = pool.borrow();
+		Connection third = pool.borrow();
+		first.close();
+		second.close();
+		third.close();
+		assertEquals(3, pool.getOpenCount());
+
+		Thread.sleep(5);
+		pool.housekeep();
+
+		assertEquals(1, pool.getOpenCount());
+		assertEquals(1, pool.getIdleCount());
+	}
+
+	@Test
+	void housekeepingOpensConnectionsUpToTheMinimum() throws Exception {
+		ConnectionPool pool = pool(2, 3, 60000, 0);
+		Connection borrowed = pool.borrow();
+
+		pool.housekeep();
+
+		assertEquals(2, pool.getOpenCount());
+		assertEquals(1, pool.getIdleCount());
+		borrowed.close();
+	}
+
+	@Test
+	void aConnectionHeldPastTheThresholdIsReportedOnce() throws Exception {
+		ConnectionPool pool = pool(0, 1, 60000, 1);
+		List<LogRecord> records = new ArrayList<>();
+		Handler handler = new Handler() {
+			@Override
+			public void publish(LogRecord record) {
+				records.add(record);
+			}
+
+			@Override
+			public void flush() {
+			}
+
+			@Override
+			public void close() {
+			}
+		};
+		Logger log = Logger.getLogger("threetierapp.pool");
+		log.addHandler(handler);
+		log.setUseParentHandlers(false);
+		try {
+			Connection connection = pool.borrow();
+			Thread.sleep(5);
+			pool.housekeep();
+			pool.housekeep();
+			connection.close();
+		} finally {
+			log.setUseParentHandlers(true);
+			log.removeHandler(handler);
+		}
+
+		assertEquals(1, records.size());
+		assertTrue(records.get(0).getMessage().startsWith("Possible connection leak"));
+		assertNotNull(records.get(0).getThrown(), "the borrow is reported with its stack trace");
+	}
+
+	@Test
+	void aShutDownPoolRefusesToLend() throws Exception {
+		ConnectionPool pool = pool(0, 1, 60000, 0);
+		pool.borrow().close();
+		pool.shutdown();
+
+		assertThrows(SQLException.class, pool::borrow);
+		assertEquals(0, pool.getOpenCount());
+	}
+
+	private ConnectionPool pool(int minSize, int maxSize, long idleTimeoutMillis, long leakThresholdMillis) {
+		String url = "jdbc:h2:mem:pool" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1";
+		return track(new ConnectionPool(url, "sa", "", minSize, maxSize, idleTimeoutMillis, 100,
+				leakThresholdMillis));
+	}
+
+	private ConnectionPool track(ConnectionPool pool) {
+		pools.add(pool);
+		return pool;
+	}
+
+}
@@ -0,0 +1,138 @@
+package datalayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import businesslayer.Person;
+
+/**
+ * Checks that EmbeddedPersonRepository replays its log into the same people
+ * it held, drops a record cut short by a crash, and compacts without losing
+ * anyone.
+ *
+ */
+class EmbeddedPersonRepositoryTest {
+
+	@TempDir
+	Path folder;
+
+	@Test
+	void reopeningReplaysInsertsAndDeletes() throws SQLException {
+		Path logFile = folder.resolve("people.log");
+		EmbeddedPersonRepository repository = open(logFile);
+		repository.insertPeople(Arrays.asList(person("Ada"), person("Grace"), person("Zoë")));
+		repository.deletePerson(2);
+		repository.close();
+
+		EmbeddedPersonRepository reopened = open(logFile);
+
+		assertEquals(Arrays.asList("Ada", "Zoë"), namesOf(reopened.findAllPeople()));
+		assertNull(reopened.findPersonById(2));
+		assertEquals("Zoë", reopened.findPersonById(3).getName());
+	}
+
+	@Test
+	void idsCarryOnAfterReopening() throws SQLException {
+		Path logFile = folder.resolve("people.log");
+		EmbeddedPersonRepository repository = open(logFile);
+		repository.insertPeople(Arrays.asList(person("Ada"), person("Grace")));
+		repository.close();
+
+		EmbeddedPersonRepository reopened = open(logFile);
+		Person alan = person("Alan");
+		reopened.insertPerson(alan);
+
+		assertEquals(3, alan.getId());
+	}
+
+	@Test
+	void aRecordCutShortIsDroppedAndWrittenOver() throws SQLException, IOException {
+		Path logFile = folder.resolve("people.log");
+		EmbeddedPersonRepository repository = open(logFile);
+		repository.insertPerson(person("Ada"));
+		long complete = Files.size(logFile);
+		repository.insertPeople(Arrays.asList(person("Grace"), person("Zoë")));
+		repository.close();
+		try (FileChannel log = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+			log.truncate(Files.size(logFile) - 3);
+		}
+
+		EmbeddedPersonRepository reopened = open(logFile);
+		assertEquals(Arrays.asList("Ada"), namesOf(reopened.findAllPeople()));
+		assertEquals(complete, Files.size(logFile), "the torn record is truncated");
+
+		reopened.insertPerson(person("Alan"));
+		reopened.close();
+		assertEquals(Arrays.asList("Ada", "Alan"), namesOf(open(logFile).findAllPeople()));
+	}
+
+	@Test
+	void compactingKeepsEveryoneAndDropsTheHistory() throws SQLException, IOException {
+		Path logFile = folder.resolve("people.log");
+		EmbeddedPersonRepository repository = open(logFile);
+		for (int i = 0; i < 100; i++) {
+			repository.insertPerson(person("Person " + i));
+		}
+		for (int id = 1; id <= 90; id++) {
+			repository.deletePerson(id);
+		}
+		long before = Files.size(logFile);
+
+		repository.compact();
+		repository.insertPerson(person("After"));
+		repository.close();
+
+		assertTrue(Files.size(logFile) < before);
+		List<Person> people = open(logFile).findAllPeople();
+		assertEquals(11, people.size());
+		assertEquals("Person 90", people.get(0).getName());
+		assertEquals(91, people.get(0).getId());
+		assertEquals("After", people.get(10).getName());
+	}
+
+	@Test
+	void withoutALogNothingIsWritten() throws SQLException {
+		EmbeddedPersonRepository repository = open(null);
+		Person ada = person("Ada");
+		repository.insertPerson(ada);
+
+		assertEquals(1, ada.getId());
+		assertTrue(repository.deletePerson(1).isDeleted());
+		assertFalse(repository.deletePerson(1).isDeleted());
+		assertEquals(0, repository.size());
+	}
+
+	private static EmbeddedPersonRepository open(Path logFile) throws SQLException {
+		EmbeddedPersonRepository repository = new EmbeddedPersonRepository(logFile);
+		repository.initializeSchema();
+		return repository;
+	}
+
+	private static Person person(String name) {
+		return new Person(name, name.toLowerCase().replace(' ', '.') + "@example.com", "(555) 555-0100");
+	}
+
+	private static List<String> namesOf(List<Person> people) {
+		List<String> names = new ArrayList<>();
+		for (Person person : people) {
+			names.add(person.getName());
+		}
+		return names;
+	}
+
+}
@@ -0,0 +1,133 @@
+package datalayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import businesslayer.Person;
+
+/**
+ * Checks how a PersonQuery matches and projects people, and how its pages
+ * are walked with cursors, including cursors at the edges of the id range,
+ * through an in-memory EmbeddedPersonRepository.
+ *
+ */
+class PersonQueryTest {
+
+	@Test
+	void everyCriterionMustMatch() {
+		Person ada = new Person(7, "Ada Lovelace", "Ada@Example.com", "1 (999) 867-5309");
+		PersonQuery query = new PersonQuery().name("LOVE").email("ada@").phone("999-867").idBetween(5, 9);
+
+		assertTrue(query.matches(ada));
+		assertFalse(new PersonQuery().name("love", SearchMode.PREFIX).matches(ada));
+		assertFalse(new PersonQuery().email("example").matches(ada));
+		assertFalse(new PersonQuery().phone("998").matches(ada));
+		assertFalse(new PersonQuery().idBetween(8, 9).matches(ada));
+		assertFalse(new PersonQuery().phone("999").matches(new Person(8, "Grace", null, "not a number")));
+	}
+
+	@Test
+	void blankTermsMatchAnything() {
+		PersonQuery query = new PersonQuery().name("  ").email("").phone("1 ");
+
+		assertNull(query.getName());
+		assertNull(query.getEmail());
+		assertNull(query.getPhonePrefix());
+		assertTrue(query.matches(new Person(1, null, null, null)));
+	}
+
+	@Test
+	void onlyTheColumnsReadAreCopied() {
+		Person projected = new PersonQuery().columns(PersonQuery.Column.EMAIL)
+				.project(new Person(3, "Ada", "ada@example.com", "(999) 867-5309"));
+
+		assertEquals(3, projected.getId());
+		assertNull(projected.getName());
+		assertEquals("ada@example.com", projected.getEmail());
+		assertNull(projected.getPhone());
+	}
+
+	@Test
+	void anIdRangeMustBeValid() {
+		assertThrows(IllegalArgumentException.class, () -> new PersonQuery().idBetween(0, 5));
+		assertThrows(IllegalArgumentException.class, () -> new PersonQuery().idBetween(6, 5));
+	}
+
+	@Test
+	void pagesFollowOneAnotherThroughTheirCursors() throws SQLException {
+		EmbeddedPersonRepository repository = repositoryOf(10);
+		PersonQuery query = new PersonQuery().name("person").idBetween(2, 9);
+
+		List<Integer> ids = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			PersonPage page = repository.findPeople(query, cursor, 3);
+			ids.addAll(idsOf(page.getPeople()));
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertEquals(Arrays.asList(2, 3, 4, 5, 6, 7, 8, 9), ids);
+		assertEquals(3, pages);
+	}
+
+	@Test
+	void aCursorPastTheRangeFindsNothing() throws SQLException {
+		EmbeddedPersonRepository repository = repositoryOf(3);
+
+		PersonPage last = repository.findPeople(new PersonQuery(), PersonPage.cursorAfter(Integer.MAX_VALUE), 5);
+		assertTrue(last.getPeople().isEmpty());
+		assertNull(last.getNextCursor());
+
+		PersonPage beyond = repository.findPeople(new PersonQuery().idBetween(1, 2), PersonPage.cursorAfter(2), 5);
+		assertTrue(beyond.getPeople().isEmpty());
+	}
+
+	@Test
+	void cursorsRoundTripAndBadOnesAreRefused() {
+		assertEquals(0, PersonPage.idAfter(null));
+		assertEquals(0, PersonPage.idAfter(""));
+		assertEquals(Integer.MAX_VALUE, PersonPage.idAfter(PersonPage.cursorAfter(Integer.MAX_VALUE)));
+		assertEquals(42, PersonPage.idAfter(PersonPage.cursorAfter(42)));
+
+		assertThrows(IllegalArgumentException.class, () -> PersonPage.idAfter("not a cursor"));
+		assertThrows(IllegalArgumentException.class, () -> PersonPage.idAfter("-1"));
+		assertThrows(IllegalArgumentException.class, () -> PersonPage.idAfter("zzzzzzzzzz"));
+	}
+
+	@Test
+	void aPageMustHoldSomeone() throws SQLException {
+		EmbeddedPersonRepository repository = repositoryOf(1);
+
+		assertThrows(IllegalArgumentException.class, () -> repository.findPeople(new PersonQuery(), null, 0));
+	}
+
+	private static EmbeddedPersonRepository repositoryOf(int count) throws SQLException {
+		EmbeddedPersonRepository repository = new EmbeddedPersonRepository(null);
+		repository.initializeSchema();
+		for (int i = 1; i <= count; i++) {
+			repository.insertPerson(new Person("Person " + i, "person" + i + "@example.com", "(999) 867-5309"));
+		}
+		return repository;
+	}
+
+	private static List<Integer> idsOf(List<Person> people) {
+		List<Integer> ids = new ArrayList<>();
+		for (Person person : people) {
+			ids.add(person.getId());
+		}
+		return ids;
+	}
+
+}
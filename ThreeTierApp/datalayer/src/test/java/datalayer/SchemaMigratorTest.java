@@ -0,0 +1,131 @@
+package datalayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks which migrations SchemaMigrator applies, in what order, and what it
+ * records, against an in-memory H2 database standing in for MySQL. H2 has
+ * no named locks, so GET_LOCK and RELEASE_LOCK are stubbed by Locks.
+ *
+ */
+class SchemaMigratorTest {
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	private Connection conn;
+
+	@BeforeEach
+	void openDatabase() throws SQLException {
+		conn = DriverManager.getConnection("jdbc:h2:mem:migrate" + DATABASES.incrementAndGet() + ";MODE=MySQL",
+				"sa", "");
+		try (Statement statement = conn.createStatement()) {
+			statement.execute("CREATE ALIAS GET_LOCK FOR \"" + Locks.class.getName() + ".getLock\"");
+			statement.execute("CREATE ALIAS RELEASE_LOCK FOR \"" + Locks.class.getName() + ".releaseLock\"");
+		}
+		Locks.held.set(0);
+	}
+
+	@AfterEach
+	void closeDatabase() throws SQLException {
+		conn.close();
+	}
+
+	@Test
+	void pendingMigrationsAreAppliedInVersionOrderOnce() throws SQLException {
+		List<Migration> migrations = Arrays.asList(
+				Migration.of(2, "Add a row", "insert into Item values (1)"),
+				Migration.of(1, "Create Item", "create table Item (id int)"),
+				Migration.of(3, "Add another row", "insert into Item values (2)"));
+
+		assertEquals(3, SchemaMigrator.migrate(conn, migrations));
+		assertEquals(0, SchemaMigrator.migrate(conn, migrations));
+
+		assertEquals(Arrays.asList(1, 2, 3), recordedVersions());
+		assertEquals(2, count("select count(*) from Item"));
+		assertEquals(0, Locks.held.get(), "the lock is released");
+	}
+
+	@Test
+	void onlyMigrationsNewerThanTheDatabaseAreApplied() throws SQLException {
+		List<Migration> migrations = new ArrayList<>();
+		migrations.add(Migration.of(1, "Create Item", "create table Item (id int)"));
+		SchemaMigrator.migrate(conn, migrations);
+
+		migrations.add(Migration.of(2, "Add a row", "insert into Item values (1)"));
+
+		assertEquals(1, SchemaMigrator.migrate(conn, migrations));
+		assertEquals(Arrays.asList(1, 2), recordedVersions());
+		assertEquals(1, count("select count(*) from Item"));
+	}
+
+	@Test
+	void aFailedMigrationIsNotRecordedAndStopsTheRest() throws SQLException {
+		List<Migration> migrations = Arrays.asList(
+				Migration.of(1, "Create Item", "create table Item (id int)"),
+				Migration.of(2, "Break", "insert into Missing values (1)"),
+				Migration.of(3, "Add a row", "insert into Item values (1)"));
+
+		assertThrows(SQLException.class, () -> SchemaMigrator.migrate(conn, migrations));
+
+		assertEquals(Arrays.asList(1), recordedVersions());
+		assertEquals(0, count("select count(*) from Item"));
+		assertEquals(0, Locks.held.get(), "the lock is released");
+	}
+
+	@Test
+	void theLatestVersionIsTheLastMigration() {
+		assertEquals(5, SchemaMigrator.getLatestVersion());
+	}
+
+	private List<Integer> recordedVersions() throws SQLException {
+		List<Integer> versions = new ArrayList<>();
+		try (Statement statement = conn.createStatement();
+				ResultSet rows = statement.executeQuery("select version from schema_version order by version")) {
+			while (rows.next()) {
+				versions.add(rows.getInt(1));
+			}
+		}
+		return versions;
+	}
+
+	private int count(String sql) throws SQLException {
+		try (Statement statement = conn.createStatement(); ResultSet rows = statement.executeQuery(sql)) {
+			rows.next();
+			return rows.getInt(1);
+		}
+	}
+
+	/**
+	 * Stands in for the MySQL named lock functions.
+	 */
+	public static final class Locks {
+
+		static final AtomicInteger held = new AtomicInteger();
+
+		public static int getLock(String name, int timeoutSeconds) {
+			held.incrementAndGet();
+			return 1;
+		}
+
+		public static int releaseLock(String name) {
+			held.decrementAndGet();
+			return 1;
+		}
+	}
+
+}
@@ -0,0 +1,175 @@
+package datalayer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks how the StatementCache of a pooled connection reuses, resets and
+ * evicts prepared statements, through a one-connection pool on an in-memory
+ * H2 database.
+ *
+ */
+class StatementCacheTest {
+
+	private static final AtomicInteger DATABASES = new AtomicInteger();
+
+	private ConnectionPool pool;
+
+	@AfterEach
+	void shutDownPool() {
+		pool.shutdown();
+	}
+
+	@Test
+	void aClosedStatementIsReusedOnTheNextPrepare() throws SQLException {
+		pool = pool(10);
+		Connection conn = pool.borrow();
+		try {
+			assertEquals(5, select(conn, 5));
+			assertEquals(6, select(conn, 6));
+		} finally {
+			conn.close();
+		}
+
+		assertEquals(1, pool.getStatementCacheHits());
+		assertEquals(1, pool.getStatementCacheMisses());
+	}
+
+	@Test
+	void sqlAlreadyCheckedOutGetsAStatementOfItsOwn() throws SQLException {
+		pool = pool(10);
+		Connection conn = pool.borrow();
+		try {
+			PreparedStatement first = conn.prepareStatement("select ?");
+			PreparedStatement second = conn.prepareStatement("select ?");
+			assertNotSame(first, second);
+			first.setInt(1, 1);
+			second.setInt(1, 2);
+			assertEquals(1, single(first));
+			assertEquals(2, single(second));
+			second.close();
+			first.close();
+
+			assertEquals(3, select(conn, 3));
+		} finally {
+			conn.close();
+		}
+
+		assertEquals(1, pool.getStatementCacheHits());
+		assertEquals(2, pool.getStatementCacheMisses());
+	}
+
+	@Test
+	void checkingInClearsWhatTheLastUserSet() throws SQLException {
+		pool = pool(10);
+		Connection conn = pool.borrow();
+		try {
+			PreparedStatement statement = conn.prepareStatement("select ?");
+			int defaultFetchSize = statement.getFetchSize();
+			statement.setInt(1, 1);
+			statement.setFetchSize(defaultFetchSize + 7);
+			statement.close();
+			assertThrows(SQLException.class, () -> statement.setInt(1, 2), "a closed handle refuses use");
+
+			PreparedStatement next = conn.prepareStatement("select ?");
+			try {
+				assertEquals(defaultFetchSize, next.getFetchSize());
+				assertThrows(SQLException.class, next::executeQuery, "the parameter was cleared");
+			} finally {
+				next.close();
+			}
+		} finally {
+			conn.close();
+		}
+	}
+
+	@Test
+	void statementsLeftOpenAreCheckedInWithTheConnection() throws SQLException {
+		pool = pool(10);
+		Connection conn = pool.borrow();
+		PreparedStatement forgotten = conn.prepareStatement("select ?");
+		forgotten.setInt(1, 1);
+		conn.close();
+
+		conn = pool.borrow();
+		try {
+			assertEquals(2, select(conn, 2));
+		} finally {
+			conn.close();
+		}
+		assertEquals(1, pool.getStatementCacheHits());
+	}
+
+	@Test
+	void theLeastRecentlyUsedStatementIsEvicted() throws SQLException {
+		pool = pool(2);
+		Connection conn = pool.borrow();
+		try {
+			conn.prepareStatement("select 1").close();
+			conn.prepareStatement("select 2").close();
+			conn.prepareStatement("select 1").close();
+			conn.prepareStatement("select 3").close();
+			assertEquals(1, pool.getStatementCacheEvictions());
+
+			conn.prepareStatement("select 1").close();
+			conn.prepareStatement("select 2").close();
+		} finally {
+			conn.close();
+		}
+
+		assertEquals(2, pool.getStatementCacheHits());
+		assertEquals(4, pool.getStatementCacheMisses());
+	}
+
+	@Test
+	void withNoCapacityEveryStatementIsPrepared() throws SQLException {
+		pool = pool(0);
+		Connection conn = pool.borrow();
+		try {
+			assertEquals(1, select(conn, 1));
+			assertEquals(2, select(conn, 2));
+		} finally {
+			conn.close();
+		}
+
+		assertEquals(0, pool.getStatementCacheHits());
+		assertEquals(2, pool.getStatementCacheMisses());
+		assertEquals(0, pool.getStatementCacheEvictions());
+	}
+
+	private static ConnectionPool pool(int statementCacheSize) {
+		return new ConnectionPool("jdbc:h2:mem:statements" + DATABASES.incrementAndGet() + ";DB_CLOSE_DELAY=-1",
+				"sa", "", 0, 1, 60000, 1000, 0, statementCacheSize);
+	}
+
+	private static int select(Connection conn, int value) throws SQLException {
+		PreparedStatement statement = conn.prepareStatement("select ?");
+		try {
+			statement.setInt(1, value);
+			return single(statement);
+		} finally {
+			statement.close();
+		}
+	}
+
+	private static int single(PreparedStatement statement) throws SQLException {
+		ResultSet result = statement.executeQuery();
+		try {
+			result.next();
+			return result.getInt(1);
+		} finally {
+			result.close();
+		}
+	}
+
+}
@@ -0,0 +1,131 @@
+package servicelayer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+
+import com.sun.net.httpserver.HttpServer;
+
+import businesslayer.AppData;
+import businesslayer.AppExecutors;
+
+/**
+ * The CmsServer runs the AppData middleware as a headless HTTP service, so
+ * that any number of thin clients can share one middle tier instead of each
+ * desktop client talking to the database itself.
+ *
+ * It is built on the JDK's own HTTP server. A single selector thread accepts
+ * connections and reads requests without blocking, and each request is then
+ * handled on a worker thread. Connections are kept alive between requests,
+ * and requests a client pipelines on one connection are answered in order.
+ *
+ * The server is configured with system properties:
+ * <ul>
+ * <li>cms.server.port - the port to listen on (default 8080)</li>
+ * <li>cms.server.backlog - how many connections may wait to be accepted
+ * (default 1024)</li>
+ * <li>cms.server.workers - "virtual" for a virtual thread per request, which
+ * needs Java 21, or a number of platform worker threads (default: virtual
+ * threads where available, otherwise 2 per processor)</li>
+ * </ul>
+ * The storage backend is chosen with the same cms.repository and cms.jdbc.*
+ * properties as the desktop client.
+ *
+ * The timings of every layer are served as text from /metrics and
+ * registered over JMX.
+ *
+ */
+public class CmsServer {
+
+	public static final String PORT_PROPERTY = "cms.server.port";
+	public static final String BACKLOG_PROPERTY = "cms.server.backlog";
+	public static final String WORKERS_PROPERTY = "cms.server.workers";
+
+	/**
+	 * Seconds in-flight requests are given to finish when the server stops.
+	 */
+	private static final int STOP_DELAY_SECONDS = 5;
+
+	private final HttpServer server;
+	private final ExecutorService workers;
+
+	/**
+	 * Creates a server serving AppData on the given port. It does not accept
+	 * connections until start() is called.
+	 *
+	 * @param port
+	 *            the port to listen on, or 0 for any free port
+	 * @param backlog
+	 *            how many connections may wait to be accepted
+	 * @param workers
+	 *            the threads requests are handled on
+	 * @throws IOException
+	 *             if the port cannot be bound
+	 */
+	public CmsServer(int port, int backlog, ExecutorService workers) throws IOException {
+		this.workers = workers;
+		server = HttpServer.create(new InetSocketAddress(port), backlog);
+		server.createContext(PersonHandler.PATH, new PersonHandler(AppData.getAppData()));
+		server.createContext(MetricsHandler.PATH, new MetricsHandler());
+		server.setExecutor(workers);
+	}
+
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops accepting connections, lets in-flight requests finish and stops
+	 * the worker threads.
+	 */
+	public void stop() {
+		server.stop(STOP_DELAY_SECONDS);
+		workers.shutdown();
+	}
+
+	/**
+	 * The port the server is listening on.
+	 *
+	 * @return the bound port
+	 */
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Creates the worker threads named by the cms.server.workers property.
+	 *
+	 * @return the executor requests are handled on
+	 */
+	static ExecutorService configuredWorkers() {
+		String workers = System.getProperty(WORKERS_PROPERTY);
+		if (workers == null || "virtual".equals(workers)) {
+			ExecutorService virtual = AppExecutors.virtualThreads();
+			if (virtual != null) {
+				return virtual;
+			}
+			if (workers != null) {
+				System.out.println("Virtual threads need Java 21; using platform worker threads instead.");
+			}
+			return AppExecutors.platformThreads(Runtime.getRuntime().availableProcessors() * 2);
+		}
+		try {
+			return AppExecutors.platformThreads(Integer.parseInt(workers));
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException(WORKERS_PROPERTY + " must be \"virtual\" or a thread count", e);
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		int port = Integer.getInteger(PORT_PROPERTY, 8080);
+		int backlog = Integer.getInteger(BACKLOG_PROPERTY, 1024);
+
+		CmsServer cmsServer = new CmsServer(port, backlog, configuredWorkers());
+		Runtime.getRuntime().addShutdownHook(new Thread(cmsServer::stop, "CmsServer-shutdown"));
+		cmsServer.start();
+
+		System.out.println("Serving " + PersonHandler.PATH + " and " + MetricsHandler.PATH + " on port "
+				+ cmsServer.getPort());
+	}
+
+}
@@ -0,0 +1,366 @@
+package servicelayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import businesslayer.Person;
+import datalayer.DeleteResult;
+import datalayer.PersonPage;
+
+/**
+ * Json writes the service's responses and reads its request bodies. The
+ * service only exchanges people and a few small objects, so this covers
+ * just enough of JSON for that instead of pulling a JSON library onto every
+ * server.
+ *
+ * Objects are read into a Map, arrays into a List, strings into String,
+ * numbers into Double and true/false/null into Boolean or null. Objects and
+ * arrays may be nested at most MAX_DEPTH deep, so a hostile body cannot
+ * overflow the parser's stack.
+ *
+ */
+public class Json {
+
+	/**
+	 * The deepest objects and arrays may be nested in a parsed document.
+	 */
+	public static final int MAX_DEPTH = 32;
+
+	private final String text;
+	private int position;
+	private int depth;
+
+	private Json(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Parses a JSON document.
+	 *
+	 * @param text
+	 *            the document
+	 * @return the value it holds
+	 * @throws IllegalArgumentException
+	 *             if the text is not valid JSON or is nested more than
+	 *             MAX_DEPTH deep
+	 */
+	public static Object parse(String text) {
+		Json parser = new Json(text);
+		Object value = parser.readValue();
+		parser.skipWhitespace();
+		if (parser.position != text.length()) {
+			throw parser.syntaxError("Unexpected text after the JSON value");
+		}
+		return value;
+	}
+
+	/**
+	 * Reads a person from a JSON object with name, email and phone fields.
+	 *
+	 * @param value
+	 *            a value returned by parse()
+	 * @return the person, without an id
+	 * @throws IllegalArgumentException
+	 *             if the value is not an object or a field is not a string
+	 */
+	public static Person toPerson(Object value) {
+		if (!(value instanceof Map)) {
+			throw new IllegalArgumentException("Expected a JSON object for a person");
+		}
+		Map<?, ?> fields = (Map<?, ?>) value;
+		return new Person(stringField(fields, "name"), stringField(fields, "email"), stringField(fields, "phone"));
+	}
+
+	public static String write(Person person) {
+		StringBuilder out = new StringBuilder(96);
+		appendPerson(out, person);
+		return out.toString();
+	}
+
+	public static String write(List<Person> people) {
+		StringBuilder out = new StringBuilder(16 + people.size() * 96);
+		appendPeople(out, people);
+		return out.toString();
+	}
+
+	public static String write(PersonPage page) {
+		StringBuilder out = new StringBuilder(48 + page.getPeople().size() * 96);
+		out.append("{\"people\":");
+		appendPeople(out, page.getPeople());
+		out.append(",\"nextCursor\":");
+		appendString(out, page.getNextCursor());
+		return out.append('}').toString();
+	}
+
+	public static String write(DeleteResult result) {
+		return "{\"id\":" + result.getId() + ",\"deleted\":" + result.isDeleted() + "}";
+	}
+
+	public static String inserted(int count) {
+		return "{\"inserted\":" + count + "}";
+	}
+
+	public static String duplicate(List<Integer> duplicateIds) {
+		StringBuilder out = new StringBuilder("{\"error\":\"The person is already stored\",\"duplicateIds\":[");
+		for (int i = 0; i < duplicateIds.size(); i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			out.append(duplicateIds.get(i));
+		}
+		return out.append("]}").toString();
+	}
+
+	public static String error(String message) {
+		StringBuilder out = new StringBuilder("{\"error\":");
+		appendString(out, message);
+		return out.append('}').toString();
+	}
+
+	private static void appendPeople(StringBuilder out, List<Person> people) {
+		out.append('[');
+		for (int i = 0; i < people.size(); i++) {
+			if (i > 0) {
+				out.append(',');
+			}
+			appendPerson(out, people.get(i));
+		}
+		out.append(']');
+	}
+
+	private static void appendPerson(StringBuilder out, Person person) {
+		out.append("{\"id\":").append(person.getId());
+		out.append(",\"name\":");
+		appendString(out, person.getName());
+		out.append(",\"email\":");
+		appendString(out, person.getEmail());
+		out.append(",\"phone\":");
+		appendString(out, person.getPhone());
+		out.append('}');
+	}
+
+	private static void appendString(StringBuilder out, String value) {
+		if (value == null) {
+			out.append("null");
+			return;
+		}
+		out.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				out.append("\\\"");
+				break;
+			case '\\':
+				out.append("\\\\");
+				break;
+			case '\n':
+				out.append("\\n");
+				break;
+			case '\r':
+				out.append("\\r");
+				break;
+			case '\t':
+				out.append("\\t");
+				break;
+			default:
+				if (c < 0x20) {
+					out.append(String.format("\\u%04x", (int) c));
+				} else {
+					out.append(c);
+				}
+			}
+		}
+		out.append('"');
+	}
+
+	private static String stringField(Map<?, ?> fields, String name) {
+		Object value = fields.get(name);
+		if (value != null && !(value instanceof String)) {
+			throw new IllegalArgumentException("The " + name + " field must be a string");
+		}
+		return (String) value;
+	}
+
+	private Object readValue() {
+		skipWhitespace();
+		if (position >= text.length()) {
+			throw syntaxError("Unexpected end of JSON");
+		}
+		char c = text.charAt(position);
+		switch (c) {
+		case '{':
+		case '[':
+			if (depth == MAX_DEPTH) {
+				throw syntaxError("JSON nested more than " + MAX_DEPTH + " levels deep");
+			}
+			depth++;
+			try {
+				return c == '{' ? readObject() : readArray();
+			} finally {
+				depth--;
+			}
+		case '"':
+			return readString();
+		case 't':
+			return readLiteral("true", Boolean.TRUE);
+		case 'f':
+			return readLiteral("false", Boolean.FALSE);
+		case 'n':
+			return readLiteral("null", null);
+		default:
+			if (c == '-' || (c >= '0' && c <= '9')) {
+				return readNumber();
+			}
+			throw syntaxError("Unexpected character '" + c + "'");
+		}
+	}
+
+	private Map<String, Object> readObject() {
+		Map<String, Object> object = new LinkedHashMap<>();
+		position++;
+		skipWhitespace();
+		if (peek() == '}') {
+			position++;
+			return object;
+		}
+		while (true) {
+			skipWhitespace();
+			if (peek() != '"') {
+				throw syntaxError("Expected a field name");
+			}
+			String name = readString();
+			skipWhitespace();
+			expect(':');
+			object.put(name, readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect('}');
+				return object;
+			}
+		}
+	}
+
+	private List<Object> readArray() {
+		List<Object> array = new ArrayList<>();
+		position++;
+		skipWhitespace();
+		if (peek() == ']') {
+			position++;
+			return array;
+		}
+		while (true) {
+			array.add(readValue());
+			skipWhitespace();
+			if (peek() == ',') {
+				position++;
+			} else {
+				expect(']');
+				return array;
+			}
+		}
+	}
+
+	private String readString() {
+		position++;
+		StringBuilder value = new StringBuilder();
+		while (true) {
+			if (position >= text.length()) {
+				throw syntaxError("Unterminated string");
+			}
+			char c = text.charAt(position++);
+			if (c == '"') {
+				return value.toString();
+			}
+			if (c != '\\') {
+				value.append(c);
+				continue;
+			}
+			if (position >= text.length()) {
+				throw syntaxError("Unterminated string");
+			}
+			char escaped = text.charAt(position++);
+			switch (escaped) {
+			case '"':
+			case '\\':
+			case '/':
+				value.append(escaped);
+				break;
+			case 'b':
+				value.append('\b');
+				break;
+			case 'f':
+				value.append('\f');
+				break;
+			case 'n':
+				value.append('\n');
+				break;
+			case 'r':
+				value.append('\r');
+				break;
+			case 't':
+				value.append('\t');
+				break;
+			case 'u':
+				if (position + 4 > text.length()) {
+					throw syntaxError("Bad unicode escape");
+				}
+				try {
+					value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+				} catch (NumberFormatException e) {
+					throw syntaxError("Bad unicode escape");
+				}
+				position += 4;
+				break;
+			default:
+				throw syntaxError("Bad escape '\\" + escaped + "'");
+			}
+		}
+	}
+
+	private Double readNumber() {
+		int start = position;
+		while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+			position++;
+		}
+		try {
+			return Double.valueOf(text.substring(start, position));
+		} catch (NumberFormatException e) {
+			throw syntaxError("Bad number");
+		}
+	}
+
+	private Object readLiteral(String literal, Object value) {
+		if (!text.startsWith(literal, position)) {
+			throw syntaxError("Unexpected text");
+		}
+		position += literal.length();
+		return value;
+	}
+
+	private void expect(char c) {
+		if (peek() != c) {
+			throw syntaxError("Expected '" + c + "'");
+		}
+		position++;
+	}
+
+	private char peek() {
+		return position < text.length() ? text.charAt(position) : 0;
+	}
+
+	private void skipWhitespace() {
+		while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	private IllegalArgumentException syntaxError(String message) {
+		return new IllegalArgumentException(message + " at position " + position);
+	}
+
+}
@@ -0,0 +1,47 @@
+package servicelayer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import metrics.Metrics;
+
+/**
+ * The MetricsHandler serves GET /metrics: every timer and gauge of the
+ * server in the Prometheus text format, for a scraper or for reading with
+ * curl. The same figures are available over JMX.
+ *
+ */
+public class MetricsHandler implements HttpHandler {
+
+	public static final String PATH = "/metrics";
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		try {
+			if (!"GET".equals(exchange.getRequestMethod())) {
+				exchange.getResponseHeaders().set("Allow", "GET");
+				send(exchange, 405, "Method not allowed\n");
+			} else if (!exchange.getRequestURI().getPath().equals(PATH)) {
+				send(exchange, 404, "No such resource\n");
+			} else {
+				send(exchange, 200, Metrics.toText());
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String text) throws IOException {
+		byte[] body = text.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+}
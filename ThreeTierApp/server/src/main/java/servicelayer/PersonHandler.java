@@ -0,0 +1,393 @@
+package servicelayer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import businesslayer.AppData;
+import businesslayer.InsertResult;
+import businesslayer.InvalidTelephoneException;
+import businesslayer.Person;
+import businesslayer.TelephoneNumber;
+import datalayer.DeleteResult;
+import datalayer.PersonQuery;
+import datalayer.SearchMode;
+import metrics.Metrics;
+import metrics.Timer;
+
+/**
+ * The PersonHandler serves the /people endpoints on top of AppData:
+ * <ul>
+ * <li>POST /people - inserts the person in the JSON body, or every person
+ * when the body is an array</li>
+ * <li>POST /people?unique=true - inserts the person in the JSON body unless
+ * they duplicate someone already stored, answering 409 with the ids of the
+ * people they duplicate</li>
+ * <li>GET /people?name=...&amp;mode=prefix|substring - searches by name</li>
+ * <li>GET /people?email=...&amp;phone=...&amp;minId=...&amp;maxId=...&amp;fields=...
+ * - lists one page of the people matching every criterion given, which may
+ * include name and mode, with only the fields listed; takes cursor and
+ * limit as below</li>
+ * <li>GET /people?cursor=...&amp;limit=... - lists one page of people in id
+ * order</li>
+ * <li>GET /people/{id} - reads one person</li>
+ * <li>DELETE /people/{id} - deletes one person</li>
+ * </ul>
+ * Phone numbers are checked and formatted the same way the desktop client
+ * does before they are stored. When AppData writes inserts behind, a single
+ * POST is answered 202 Accepted, without a Location, once the person is
+ * queued, as they have no id until their batch is written.
+ *
+ * Request bodies larger than MAX_BODY_BYTES are refused with 413, and
+ * bodies that are not valid JSON, including JSON nested deeper than
+ * Json.MAX_DEPTH, with 400.
+ *
+ * Reads and deletes go through AppData's asynchronous methods, whose
+ * futures fail when the database does, so a database error is answered
+ * 500 rather than as an empty result or a missing person.
+ *
+ * Every request is timed in the http.people timer.
+ *
+ * Every response has a fixed Content-Length, so the connection stays open
+ * for the client's next request.
+ *
+ */
+public class PersonHandler implements HttpHandler {
+
+	public static final String PATH = "/people";
+
+	private static final int DEFAULT_PAGE_SIZE = 100;
+	private static final int MAX_PAGE_SIZE = 1000;
+
+	/**
+	 * The largest request body read, enough for a bulk insert of tens of
+	 * thousands of people.
+	 */
+	public static final int MAX_BODY_BYTES = 4 * 1024 * 1024;
+
+	/**
+	 * How long each request takes from being dispatched to its response
+	 * being written, counting the requests that failed with a server error.
+	 */
+	private static final Timer REQUEST_TIMER = Metrics.timer("http.people");
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.server");
+
+	private final AppData appData;
+
+	public PersonHandler(AppData appData) {
+		this.appData = appData;
+	}
+
+	@Override
+	public void handle(HttpExchange exchange) throws IOException {
+		long start = REQUEST_TIMER.start();
+		try {
+			String path = exchange.getRequestURI().getPath();
+			String method = exchange.getRequestMethod();
+
+			if (path.equals(PATH) || path.equals(PATH + "/")) {
+				if ("GET".equals(method)) {
+					list(exchange);
+				} else if ("POST".equals(method)) {
+					insert(exchange);
+				} else {
+					notAllowed(exchange, "GET, POST");
+				}
+			} else if (path.startsWith(PATH + "/")) {
+				int id = parseId(path.substring(PATH.length() + 1));
+				if ("GET".equals(method)) {
+					find(exchange, id);
+				} else if ("DELETE".equals(method)) {
+					delete(exchange, id);
+				} else {
+					notAllowed(exchange, "GET, DELETE");
+				}
+			} else {
+				send(exchange, 404, Json.error("No such resource: " + path));
+			}
+		} catch (BodyTooLargeException e) {
+			send(exchange, 413, Json.error(e.getMessage()));
+		} catch (DatabaseException e) {
+			REQUEST_TIMER.fail();
+			LOG.log(Level.WARNING, "The database could not answer " + describe(exchange), e.getCause());
+			send(exchange, 500, Json.error("The database could not be reached"));
+		} catch (IllegalArgumentException e) {
+			send(exchange, 400, Json.error(e.getMessage()));
+		} catch (RuntimeException e) {
+			REQUEST_TIMER.fail();
+			LOG.log(Level.SEVERE, "Unable to answer " + describe(exchange), e);
+			send(exchange, 500, Json.error("Internal server error"));
+		} finally {
+			exchange.close();
+			REQUEST_TIMER.stop(start);
+		}
+	}
+
+	private void list(HttpExchange exchange) throws IOException {
+		Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+
+		String name = query.get("name");
+		SearchMode mode = "substring".equalsIgnoreCase(query.get("mode")) ? SearchMode.SUBSTRING
+				: SearchMode.PREFIX;
+		boolean filtered = query.containsKey("email") || query.containsKey("phone") || query.containsKey("minId")
+				|| query.containsKey("maxId") || query.containsKey("fields");
+		if (name != null && !filtered) {
+			send(exchange, 200, Json.write(await(appData.selectPersonAsync(name, mode))));
+			return;
+		}
+
+		int limit = DEFAULT_PAGE_SIZE;
+		if (query.containsKey("limit")) {
+			limit = Math.min(MAX_PAGE_SIZE, parsePositive(query.get("limit"), "limit"));
+		}
+		if (filtered) {
+			PersonQuery personQuery = toPersonQuery(query, name, mode);
+			send(exchange, 200, Json.write(await(appData.findPeopleAsync(personQuery, query.get("cursor"), limit))));
+		} else {
+			send(exchange, 200, Json.write(await(appData.findPeoplePageAsync(query.get("cursor"), limit))));
+		}
+	}
+
+	/**
+	 * Builds the query for a filtered listing from the request parameters.
+	 */
+	private static PersonQuery toPersonQuery(Map<String, String> query, String name, SearchMode mode) {
+		PersonQuery personQuery = new PersonQuery().name(name, mode).email(query.get("email"))
+				.phone(query.get("phone"));
+
+		int minId = query.containsKey("minId") ? parsePositive(query.get("minId"), "minId") : 1;
+		int maxId = query.containsKey("maxId") ? parsePositive(query.get("maxId"), "maxId") : Integer.MAX_VALUE;
+		personQuery.idBetween(minId, maxId);
+
+		String fields = query.get("fields");
+		if (fields != null) {
+			List<PersonQuery.Column> columns = new ArrayList<>();
+			for (String field : fields.split(",")) {
+				String trimmed = field.trim();
+				if (trimmed.equals("name")) {
+					columns.add(PersonQuery.Column.NAME);
+				} else if (trimmed.equals("email")) {
+					columns.add(PersonQuery.Column.EMAIL);
+				} else if (trimmed.equals("phone")) {
+					columns.add(PersonQuery.Column.PHONE);
+				} else if (!trimmed.isEmpty() && !trimmed.equals("id")) {
+					throw new IllegalArgumentException("Unknown field: " + trimmed);
+				}
+			}
+			personQuery.columns(columns.toArray(new PersonQuery.Column[0]));
+		}
+		return personQuery;
+	}
+
+	private void insert(HttpExchange exchange) throws IOException {
+		Object body = Json.parse(readBody(exchange));
+
+		if (body instanceof List) {
+			List<Person> people = new ArrayList<>();
+			for (Object value : (List<?>) body) {
+				people.add(validated(Json.toPerson(value)));
+			}
+			int inserted = appData.insertPeople(people);
+			if (inserted == 0 && !people.isEmpty()) {
+				send(exchange, 500, Json.error("The people could not be stored"));
+			} else {
+				send(exchange, 201, Json.inserted(inserted));
+			}
+			return;
+		}
+
+		Person person = validated(Json.toPerson(body));
+		boolean queued = false;
+		if ("true".equals(parseQuery(exchange.getRequestURI().getRawQuery()).get("unique"))) {
+			InsertResult result = appData.insertPersonIfUnique(person);
+			if (result.isDuplicate()) {
+				send(exchange, 409, Json.duplicate(result.getDuplicateIds()));
+				return;
+			}
+		} else {
+			// Write-behind may be switched on or off while the person is
+			// inserted, so it is checked on both sides.
+			queued = appData.isWriteBehindEnabled();
+			appData.insertPerson(person);
+			queued |= appData.isWriteBehindEnabled();
+		}
+		if (person.getId() == 0 && queued) {
+			// Accepted, not stored: a failed batch is logged by the writer and
+			// counted against appdata.insertPerson.
+			send(exchange, 202, Json.write(person));
+		} else if (person.getId() == 0) {
+			send(exchange, 500, Json.error("The person could not be stored"));
+		} else {
+			exchange.getResponseHeaders().set("Location", PATH + "/" + person.getId());
+			send(exchange, 201, Json.write(person));
+		}
+	}
+
+	private void find(HttpExchange exchange, int id) throws IOException {
+		Person person = await(appData.findPersonAsync(id));
+		if (person == null) {
+			send(exchange, 404, Json.error("Customer ID #" + id + " was not found"));
+		} else {
+			send(exchange, 200, Json.write(person));
+		}
+	}
+
+	private void delete(HttpExchange exchange, int id) throws IOException {
+		DeleteResult result = await(appData.deletePersonAsync(id));
+		send(exchange, result.isDeleted() ? 200 : 404, Json.write(result));
+	}
+
+	/**
+	 * Checks a person's phone number and stores it in the standard format.
+	 */
+	private static Person validated(Person person) {
+		try {
+			person.setPhone(new TelephoneNumber(person.getPhone()).toString());
+		} catch (InvalidTelephoneException e) {
+			throw new IllegalArgumentException(e.getMessage().trim(), e);
+		}
+		return person;
+	}
+
+	private static void notAllowed(HttpExchange exchange, String allowed) throws IOException {
+		exchange.getResponseHeaders().set("Allow", allowed);
+		send(exchange, 405, Json.error("Method not allowed"));
+	}
+
+	/**
+	 * The method and path of a request, for the log.
+	 */
+	private static String describe(HttpExchange exchange) {
+		return exchange.getRequestMethod() + " " + exchange.getRequestURI().getPath();
+	}
+
+	private static void send(HttpExchange exchange, int status, String json) throws IOException {
+		byte[] body = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(status, body.length);
+		OutputStream out = exchange.getResponseBody();
+		out.write(body);
+		out.close();
+	}
+
+	/**
+	 * Reads the whole request body as UTF-8 text, refusing bodies larger
+	 * than MAX_BODY_BYTES before reading them where the client gave their
+	 * length.
+	 */
+	private static String readBody(HttpExchange exchange) throws IOException {
+		String length = exchange.getRequestHeaders().getFirst("Content-Length");
+		if (length != null) {
+			try {
+				if (Long.parseLong(length.trim()) > MAX_BODY_BYTES) {
+					throw new BodyTooLargeException();
+				}
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid Content-Length: " + length);
+			}
+		}
+
+		InputStream in = exchange.getRequestBody();
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		byte[] buffer = new byte[4096];
+		int read;
+		while ((read = in.read(buffer)) != -1) {
+			if (body.size() + read > MAX_BODY_BYTES) {
+				throw new BodyTooLargeException();
+			}
+			body.write(buffer, 0, read);
+		}
+		return new String(body.toByteArray(), StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Waits for an AppData operation. Errors in the request, such as a bad
+	 * cursor, are rethrown as they are; a database failure is rethrown as a
+	 * DatabaseException.
+	 */
+	private static <T> T await(CompletableFuture<T> operation) {
+		try {
+			return operation.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new DatabaseException(cause);
+		}
+	}
+
+	/**
+	 * Thrown when AppData could not complete an operation on the database.
+	 */
+	private static final class DatabaseException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private DatabaseException(Throwable cause) {
+			super(cause);
+		}
+	}
+
+	/**
+	 * Thrown when a request body is larger than MAX_BODY_BYTES.
+	 */
+	private static final class BodyTooLargeException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		private BodyTooLargeException() {
+			super("The request body is larger than " + MAX_BODY_BYTES + " bytes");
+		}
+	}
+
+	private static int parseId(String text) {
+		return parsePositive(text, "id");
+	}
+
+	private static int parsePositive(String text, String name) {
+		try {
+			int value = Integer.parseInt(text);
+			if (value > 0) {
+				return value;
+			}
+		} catch (NumberFormatException e) {
+			// reported below
+		}
+		throw new IllegalArgumentException("The " + name + " must be a positive whole number");
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) throws UnsupportedEncodingException {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery == null || rawQuery.isEmpty()) {
+			return query;
+		}
+		for (String pair : rawQuery.split("&")) {
+			int equals = pair.indexOf('=');
+			String key = equals < 0 ? pair : pair.substring(0, equals);
+			String value = equals < 0 ? "" : pair.substring(equals + 1);
+			query.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+		}
+		return query;
+	}
+
+}
@@ -0,0 +1,17 @@
+package userinterface;
+
+import javafx.application.Application;
+
+/**
+ * Starts the JavaFX client from the runnable jar. The java launcher refuses
+ * to start a main class that extends Application unless JavaFX is on the
+ * module path, so the jar's main class must be one that does not.
+ *
+ */
+public class Launcher {
+
+	public static void main(String[] args) {
+		Application.launch(Main.class, args);
+	}
+
+}
@@ -0,0 +1,216 @@
+package userinterface;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import businesslayer.AppData;
+import businesslayer.Person;
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.scene.control.TextField;
+import javafx.util.Duration;
+
+/**
+ * LiveSearch searches by name as the user types into the search field.
+ *
+ * A term that extends the last term read from the database, such as "smit"
+ * after "smi", can only match people that term matched, so it is answered
+ * at once by filtering that result in memory. Any other term is sent to
+ * the database once the user has stopped typing for a moment.
+ *
+ * At most one query runs at a time. Sending a term cancels the query that
+ * is still running for an earlier one, as does a term answered in memory or
+ * an empty field: AppData stops the statement on the database server, so an
+ * abandoned query neither holds a pooled connection nor delays the term
+ * the user is at. Searches run on the AppData executor; the results are
+ * applied on the FX thread.
+ *
+ * All methods must be called on the FX thread.
+ *
+ */
+final class LiveSearch {
+
+	/**
+	 * How long the user must stop typing before a term is sent to the
+	 * database.
+	 */
+	private static final Duration DEBOUNCE = Duration.millis(150);
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.ui");
+
+	private final TextField field;
+	private final PersonPager pager;
+	private final PauseTransition pause = new PauseTransition(DEBOUNCE);
+
+	/**
+	 * The term in the field that the table should be showing.
+	 */
+	private String latest = "";
+
+	/**
+	 * The last term read from the database and everyone it matched, which
+	 * later terms are refined from.
+	 */
+	private String baseTerm;
+	private List<Person> baseResult;
+
+	/**
+	 * The query that is running, or null.
+	 */
+	private CompletableFuture<List<Person>> inFlight;
+
+	/**
+	 * Starts searching as the user types into a field.
+	 *
+	 * @param field
+	 *            the field the name is typed into
+	 * @param pager
+	 *            loads the results into the table
+	 */
+	LiveSearch(TextField field, PersonPager pager) {
+		this.field = field;
+		this.pager = pager;
+		pause.setOnFinished(e -> query(field.getText().trim()));
+		field.textProperty().addListener((observable, before, after) -> typed(after.trim()));
+	}
+
+	/**
+	 * Sends the term in the field to the database straight away, without
+	 * waiting for the user to stop typing or refining an earlier result.
+	 */
+	void searchNow() {
+		pause.stop();
+		String term = field.getText().trim();
+		latest = term;
+		if (term.isEmpty()) {
+			pager.clear();
+			return;
+		}
+		fetch(term);
+	}
+
+	/**
+	 * Stops any search that has not been shown yet from being shown, because
+	 * the table is being filled with something else.
+	 */
+	void cancel() {
+		pause.stop();
+		stopQuery();
+		latest = "";
+	}
+
+	/**
+	 * Forgets the result later terms are refined from, after people have
+	 * been added or deleted.
+	 */
+	void invalidate() {
+		baseTerm = null;
+		baseResult = null;
+	}
+
+	private void typed(String term) {
+		latest = term;
+		pause.stop();
+
+		if (term.isEmpty()) {
+			stopQuery();
+			pager.clear();
+		} else if (refines(term)) {
+			stopQuery();
+			show(refine(term));
+		} else {
+			pause.playFromStart();
+		}
+	}
+
+	/**
+	 * Shows the results for a term the user has stopped at, refining the
+	 * base result if it can.
+	 */
+	private void query(String term) {
+		if (!term.equals(latest) || term.isEmpty()) {
+			return;
+		}
+		if (refines(term)) {
+			show(refine(term));
+		} else {
+			fetch(term);
+		}
+	}
+
+	/**
+	 * Reads a term from the database, cancelling the running query.
+	 */
+	private void fetch(String term) {
+		stopQuery();
+
+		CompletableFuture<List<Person>> query = AppData.getAppData().selectPersonAsync(term);
+		inFlight = query;
+		query.whenCompleteAsync((people, failure) -> {
+			if (query != inFlight) {
+				// Cancelled for a later term.
+				return;
+			}
+			inFlight = null;
+			if (failure != null) {
+				// Not kept as the base result, so the next term is read
+				// from the database again rather than refined from nothing.
+				LOG.log(Level.WARNING, "Unable to search for " + term, failure);
+				if (term.equals(latest)) {
+					pager.clear();
+				}
+			} else {
+				baseTerm = term;
+				baseResult = people;
+				if (term.equals(latest)) {
+					show(people);
+				}
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Cancels the running query, whose result is no longer wanted.
+	 */
+	private void stopQuery() {
+		if (inFlight != null) {
+			inFlight.cancel(true);
+			inFlight = null;
+		}
+	}
+
+	/**
+	 * Whether everyone the term matches is in the base result.
+	 */
+	private boolean refines(String term) {
+		return baseResult != null && lower(term).contains(lower(baseTerm));
+	}
+
+	/**
+	 * The people in the base result whose name contains the term, matching
+	 * case-insensitively the way the database search does.
+	 */
+	private List<Person> refine(String term) {
+		String lowerTerm = lower(term);
+		List<Person> matches = new ArrayList<>();
+		for (Person person : baseResult) {
+			if (lower(person.getName()).contains(lowerTerm)) {
+				matches.add(person);
+			}
+		}
+		return matches;
+	}
+
+	private void show(List<Person> people) {
+		pager.load(PersonPager.pagesOf(CompletableFuture.completedFuture(people)));
+	}
+
+	private static String lower(String text) {
+		return text.toLowerCase(Locale.ROOT);
+	}
+
+}
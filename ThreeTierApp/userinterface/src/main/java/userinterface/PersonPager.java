@@ -0,0 +1,134 @@
+package userinterface;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import businesslayer.Person;
+import datalayer.PersonPage;
+import javafx.application.Platform;
+import javafx.collections.ObservableList;
+
+/**
+ * The PersonPager fills the search screen's table a page at a time. The
+ * first page replaces the table's contents in one change, and each further
+ * page is appended in one change when the user scrolls near the end of
+ * what has been loaded, so a result of tens of thousands of people neither
+ * waits for the whole result nor fires an event per row.
+ *
+ * Pages are fetched off the FX thread and applied on it. Starting a new
+ * load makes any page still in flight from the previous one be ignored.
+ *
+ * All methods must be called on the FX thread.
+ *
+ */
+final class PersonPager {
+
+	private static final Logger LOG = Logger.getLogger("threetierapp.ui");
+
+	/**
+	 * Fetches the page after the given cursor.
+	 */
+	interface PageSource {
+		CompletableFuture<PersonPage> fetch(String cursor, int pageSize);
+	}
+
+	private final ObservableList<Person> items;
+	private final int pageSize;
+
+	private PageSource source;
+	private String nextCursor;
+	private boolean loading;
+	private int generation;
+
+	/**
+	 * Creates a pager for a table's items.
+	 *
+	 * @param items
+	 *            the list shown by the table
+	 * @param pageSize
+	 *            how many people are added at a time
+	 */
+	PersonPager(ObservableList<Person> items, int pageSize) {
+		this.items = items;
+		this.pageSize = pageSize;
+	}
+
+	/**
+	 * Replaces the table's contents with the first page from a new source.
+	 *
+	 * @param source
+	 *            where the pages come from
+	 */
+	void load(PageSource source) {
+		this.source = source;
+		generation++;
+		nextCursor = null;
+		fetch(null, true);
+	}
+
+	/**
+	 * Empties the table and ignores any page still in flight.
+	 */
+	void clear() {
+		generation++;
+		loading = false;
+		nextCursor = null;
+		items.clear();
+	}
+
+	/**
+	 * Fetches the next page if the row at the given index is close to the
+	 * end of what has been loaded. Called as the table lays out its rows.
+	 *
+	 * @param index
+	 *            the index of a row being shown
+	 */
+	void showing(int index) {
+		if (!loading && nextCursor != null && index >= items.size() - pageSize / 4) {
+			fetch(nextCursor, false);
+		}
+	}
+
+	private void fetch(String cursor, boolean first) {
+		int requested = generation;
+		loading = true;
+		source.fetch(cursor, pageSize).whenCompleteAsync((page, failure) -> {
+			if (requested != generation) {
+				return;
+			}
+			loading = false;
+			if (failure != null) {
+				LOG.log(Level.WARNING, "Unable to load a page of people", failure);
+				nextCursor = null;
+				return;
+			}
+			nextCursor = page.getNextCursor();
+			if (first) {
+				items.setAll(page.getPeople());
+			} else {
+				items.addAll(page.getPeople());
+			}
+		}, Platform::runLater);
+	}
+
+	/**
+	 * Serves a whole result, such as a name search, a page at a time once it
+	 * arrives, so that it is added to the table as gradually as pages read
+	 * from the database.
+	 *
+	 * @param result
+	 *            the future result
+	 * @return a source whose cursors are offsets into the result
+	 */
+	static PageSource pagesOf(CompletableFuture<List<Person>> result) {
+		return (cursor, pageSize) -> result.thenApply(people -> {
+			int from = cursor == null ? 0 : Integer.parseInt(cursor);
+			int to = Math.min(people.size(), from + pageSize);
+			String next = to < people.size() ? Integer.toString(to) : null;
+			return new PersonPage(people.subList(from, to), next);
+		});
+	}
+
+}